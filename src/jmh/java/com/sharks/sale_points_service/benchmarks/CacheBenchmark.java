@@ -0,0 +1,87 @@
+package com.sharks.sale_points_service.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import com.sharks.sale_points_service.cache.PathCostCache;
+import com.sharks.sale_points_service.models.PathCost;
+import com.sharks.sale_points_service.routing.DijkstraEngine;
+import com.sharks.sale_points_service.routing.Route;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+import com.sharks.sale_points_service.routing.ShortestPathTreeCache;
+import com.sharks.sale_points_service.synthetic.SyntheticNetwork;
+
+/**
+ * Lookups that answer a cheapest path query without searching: a hit in the
+ * path cost cache, and a route read from a cached shortest path tree.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+
+    private static final int SOURCES = 8;
+
+    @Param({ "1000", "100000" })
+    private int nodes;
+
+    private RoutingGraph graph;
+    private PathCostCache pathCostCache;
+    private ShortestPathTreeCache treeCache;
+    private long[][] pairs;
+    private int[][] treePairs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticNetwork network = SyntheticNetwork.generate("geometric", nodes, 42);
+        graph = network.toGraph();
+        pairs = network.samplePairs(RoutingBenchmark.PAIRS, 7);
+
+        pathCostCache = new PathCostCache(new ConcurrentMapCacheManager());
+        pathCostCache.onGraphChanged(graph);
+        DijkstraEngine engine = new DijkstraEngine();
+        for (long[] pair : pairs) {
+            Route route = engine.route(graph, graph.indexOf(pair[0]), graph.indexOf(pair[1]));
+            pathCostCache.put(pair[0], pair[1], graph, route, new PathCost(List.of(), route.totalCost()));
+        }
+
+        treeCache = new ShortestPathTreeCache(Long.MAX_VALUE, 1);
+        treeCache.onGraphChanged(graph);
+        treePairs = new int[pairs.length][];
+        for (int i = 0; i < pairs.length; i++) {
+            int source = graph.indexOf(pairs[i % SOURCES][0]);
+            treePairs[i] = new int[] { source, graph.indexOf(pairs[i][1]) };
+        }
+        for (int i = 0; i < SOURCES; i++)
+            treeCache.grow(graph, treePairs[i][0]);
+    }
+
+    @Benchmark
+    public PathCost pathCostCacheHit(RoutingBenchmark.Cursor cursor) {
+        long[] pair = pairs[cursor.next()];
+        return pathCostCache.get(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public Route treeCacheHit(RoutingBenchmark.Cursor cursor) {
+        int[] pair = treePairs[cursor.next()];
+        return treeCache.find(graph, pair[0], pair[1]);
+    }
+}
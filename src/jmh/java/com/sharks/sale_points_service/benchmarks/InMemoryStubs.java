@@ -0,0 +1,34 @@
+package com.sharks.sale_points_service.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * Stand-ins for repositories and services, so benchmarks measure the code
+ * under test and not a database. They answer {@code findAll()} with a fixed
+ * list and fail on anything else.
+ */
+final class InMemoryStubs {
+
+    private InMemoryStubs() {
+    }
+
+    static <T> T of(Class<T> type, List<?> rows) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> {
+                        if (method.getParameterCount() > 0)
+                            throw new UnsupportedOperationException(type.getSimpleName() + ".findAll(...)");
+                        yield rows;
+                    }
+                    case "toString" -> "InMemory" + type.getSimpleName();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                }));
+    }
+
+    static <T> T unsupported(Class<T> type) {
+        return of(type, List.of());
+    }
+}
@@ -0,0 +1,67 @@
+package com.sharks.sale_points_service.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sharks.sale_points_service.models.Path;
+import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.models.dtos.PathDTO;
+import com.sharks.sale_points_service.models.dtos.SalePointDTO;
+import com.sharks.sale_points_service.synthetic.SyntheticNetwork;
+
+/**
+ * Cost of turning a whole listing into DTOs, from loaded entities and from
+ * the flat columns of the projection queries.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int nodes;
+
+    private List<SalePoint> salePoints;
+    private List<Path> paths;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticNetwork network = SyntheticNetwork.generate("geometric", nodes, 42);
+        salePoints = network.salePoints();
+        paths = network.paths(salePoints);
+    }
+
+    @Benchmark
+    public List<SalePointDTO> salePointDTOs() {
+        return salePoints.stream().map(SalePointDTO::new).toList();
+    }
+
+    @Benchmark
+    public List<PathDTO> pathDTOsFromEntities() {
+        return paths.stream().map(PathDTO::new).toList();
+    }
+
+    @Benchmark
+    public List<PathDTO> pathDTOsFromColumns() {
+        return paths.stream()
+                .map(path -> new PathDTO(path.getSalePointA().getId(), path.getSalePointA().getName(),
+                        path.getSalePointB().getId(), path.getSalePointB().getName(), path.getCost()))
+                .toList();
+    }
+}
@@ -0,0 +1,105 @@
+package com.sharks.sale_points_service.benchmarks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import com.sharks.sale_points_service.cache.PathCostCache;
+import com.sharks.sale_points_service.cache.SingleFlight;
+import com.sharks.sale_points_service.metrics.PathSearchMetrics;
+import com.sharks.sale_points_service.models.Path;
+import com.sharks.sale_points_service.models.PathCost;
+import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.repositories.PathRepository;
+import com.sharks.sale_points_service.repositories.SalePointRepository;
+import com.sharks.sale_points_service.routing.ComponentIndex;
+import com.sharks.sale_points_service.routing.ParallelTreeSearch;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+import com.sharks.sale_points_service.routing.ShortestPathTreeCache;
+import com.sharks.sale_points_service.services.GraphService;
+import com.sharks.sale_points_service.services.SalePointService;
+import com.sharks.sale_points_service.services.impl.GraphServiceImpl;
+import com.sharks.sale_points_service.services.impl.PathServiceImpl;
+import com.sharks.sale_points_service.synthetic.SyntheticNetwork;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * {@link PathServiceImpl#findCheapestPath} end to end, over in-memory
+ * repositories: id lookups, search, response building and caching.
+ * <ul>
+ * <li>{@code cache=off}: every query searches, as for a first request between
+ * two sale points;</li>
+ * <li>{@code cache=on}: a small set of pairs is queried over and over, as for
+ * popular routes, so the caches answer most queries.</li>
+ * </ul>
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PathServiceBenchmark {
+
+    private static final int HOT_PAIRS = 64;
+
+    @Param({ "grid", "geometric", "scale-free" })
+    private String shape;
+
+    @Param({ "1000", "100000", "1000000" })
+    private int nodes;
+
+    @Param({ "dijkstra", "ch" })
+    private String engine;
+
+    @Param({ "off", "on" })
+    private String cache;
+
+    private PathServiceImpl pathService;
+    private long[][] pairs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticNetwork network = SyntheticNetwork.generate(shape, nodes, 42);
+        List<SalePoint> salePoints = network.salePoints();
+        List<Path> paths = network.paths(salePoints);
+
+        boolean cached = cache.equals("on");
+        CacheManager cacheManager = cached ? new ConcurrentMapCacheManager() : new NoOpCacheManager();
+        ShortestPathTreeCache treeCache = new ShortestPathTreeCache(64L << 20, cached ? 2 : Integer.MAX_VALUE);
+        PathCostCache pathCostCache = new PathCostCache(cacheManager);
+        ComponentIndex componentIndex = new ComponentIndex(Runnable::run);
+        GraphService graphService = new GraphServiceImpl(InMemoryStubs.of(SalePointRepository.class, salePoints),
+                InMemoryStubs.of(PathRepository.class, paths), List.of(treeCache, pathCostCache, componentIndex));
+        RoutingGraph graph = graphService.getGraph();
+        pathService = new PathServiceImpl(InMemoryStubs.of(PathRepository.class, paths),
+                InMemoryStubs.of(SalePointService.class, List.of()), graphService,
+                RoutingBenchmark.engine(engine, graph), treeCache, pathCostCache, new ParallelTreeSearch(1),
+                new PathSearchMetrics(new SimpleMeterRegistry()), new SingleFlight<>(Duration.ofSeconds(5)),
+                componentIndex);
+        pairs = network.samplePairs(cached ? HOT_PAIRS : RoutingBenchmark.PAIRS, 7);
+    }
+
+    @Benchmark
+    public PathCost findCheapestPath(RoutingBenchmark.Cursor cursor) {
+        long[] pair = pairs[cursor.next() % pairs.length];
+        return pathService.findCheapestPath(pair[0], pair[1]);
+    }
+}
@@ -0,0 +1,109 @@
+package com.sharks.sale_points_service.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sharks.sale_points_service.routing.AltEngine;
+import com.sharks.sale_points_service.routing.BidirectionalDijkstraEngine;
+import com.sharks.sale_points_service.routing.ContractionHierarchyEngine;
+import com.sharks.sale_points_service.routing.DijkstraEngine;
+import com.sharks.sale_points_service.routing.LandmarkSelection;
+import com.sharks.sale_points_service.routing.Route;
+import com.sharks.sale_points_service.routing.RoutingEngine;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+import com.sharks.sale_points_service.synthetic.SyntheticNetwork;
+
+/**
+ * Point to point queries of each routing engine on synthetic networks.
+ * Preprocessing (landmarks, contraction) happens in the setup and is not
+ * measured.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RoutingBenchmark {
+
+    static final int PAIRS = 1024;
+
+    @Param({ "grid", "geometric", "scale-free" })
+    private String shape;
+
+    @Param({ "1000", "100000", "1000000" })
+    private int nodes;
+
+    @Param({ "dijkstra", "bidirectional", "alt", "ch" })
+    private String engine;
+
+    private RoutingGraph graph;
+    private RoutingEngine routingEngine;
+    private int[][] pairs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticNetwork network = SyntheticNetwork.generate(shape, nodes, 42);
+        graph = network.toGraph();
+        routingEngine = engine(engine, graph);
+        long[][] ids = network.samplePairs(PAIRS, 7);
+        pairs = new int[ids.length][];
+        for (int i = 0; i < ids.length; i++)
+            pairs[i] = new int[] { graph.indexOf(ids[i][0]), graph.indexOf(ids[i][1]) };
+    }
+
+    @Benchmark
+    public Route route(Cursor cursor) {
+        int[] pair = pairs[cursor.next()];
+        return routingEngine.route(graph, pair[0], pair[1]);
+    }
+
+    /**
+     * Engine ready to answer queries on the graph, built the same way as the
+     * application configuration does but with preprocessing run inline and
+     * without quality sampling.
+     */
+    static RoutingEngine engine(String name, RoutingGraph graph) {
+        return switch (name) {
+            case "dijkstra" -> new DijkstraEngine();
+            case "bidirectional" -> new BidirectionalDijkstraEngine();
+            case "alt" -> {
+                AltEngine alt = new AltEngine(16, LandmarkSelection.AVOID, Runnable::run, 0);
+                alt.rebuild(graph);
+                yield alt;
+            }
+            case "ch" -> {
+                ContractionHierarchyEngine ch = new ContractionHierarchyEngine(new DijkstraEngine(), Runnable::run);
+                ch.rebuild(graph);
+                yield ch;
+            }
+            default -> throw new IllegalArgumentException("Unknown engine " + name);
+        };
+    }
+
+    /**
+     * Walks the sampled pairs in order, one cursor per benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int position;
+
+        int next() {
+            position = (position + 1) % PAIRS;
+            return position;
+        }
+    }
+}
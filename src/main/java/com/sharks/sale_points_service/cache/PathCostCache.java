@@ -0,0 +1,354 @@
+package com.sharks.sale_points_service.cache;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.sharks.sale_points_service.models.PathCost;
+import com.sharks.sale_points_service.models.PathPK;
+import com.sharks.sale_points_service.models.dtos.PathConstraints;
+import com.sharks.sale_points_service.routing.GraphListener;
+import com.sharks.sale_points_service.routing.IndexedDaryHeap;
+import com.sharks.sale_points_service.routing.PathChange;
+import com.sharks.sale_points_service.routing.Route;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+import com.sharks.sale_points_service.routing.SearchSpace;
+
+/**
+ * The {@code pathCost} cache plus a reverse index from every path to the cached
+ * routes that go through it, so a path write only evicts the routes it can
+ * affect:
+ * <ul>
+ * <li>when a path gets more expensive or is removed, the routes through it;</li>
+ * <li>when paths get cheaper or are added, the routes they could now shorten,
+ * found with one search per write from the ends of all of them, bounded by the
+ * most expensive cached route;</li>
+ * <li>when a sale point is renamed, the routes through it, whose costs hold
+ * its old name.</li>
+ * </ul>
+ * Paths are undirected, so a route and its reverse share one entry, stored from
+ * the sale point with the lower id and reversed for queries the other way.
+ * Constrained routes are cached under keys that include the constraints; they
+ * cost at least as much as the unconstrained route, so the same bounds tell
+ * when a write may affect them.
+ * Routes are only cached if they were computed on the latest snapshot seen, so
+ * a result racing with a write never outlives it. Entries the cache drops on its
+ * own, by size or expiry, are reported through {@link #onEvicted} and leave the
+ * index on the next write.
+ */
+@Component
+public class PathCostCache implements GraphListener {
+
+    public static final String CACHE_NAME = "pathCost";
+
+    private final Cache cache;
+    private final Map<String, CachedRoute> routes = new HashMap<>();
+    private final Map<Long, Set<String>> dependents = new HashMap<>();
+    private final Queue<CacheEviction> cacheEvictions = new ConcurrentLinkedQueue<>();
+    private final SearchSpace space = new SearchSpace();
+    private long version = -1;
+    private long writes;
+    private long evicted;
+    private long retained;
+    private int lastWriteEvicted;
+    private int lastWriteRetained;
+
+    public PathCostCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    public PathCost get(Long startId, Long endId) {
+        return get(key(startId, endId), startId, endId);
+    }
+
+    public PathCost get(Long startId, Long endId, PathConstraints constraints) {
+        return get(key(startId, endId, constraints), startId, endId);
+    }
+
+    private PathCost get(String key, Long startId, Long endId) {
+        PathCost pathCost = cache.get(key, PathCost.class);
+        return pathCost != null ? orient(startId, endId, pathCost) : null;
+    }
+
+    /**
+     * Key under which the cost of the route between two sale points is cached,
+     * the same both ways.
+     */
+    public static String key(Long startId, Long endId) {
+        return PathPK.key(startId, endId);
+    }
+
+    /**
+     * Key under which the cost of the cheapest route between two sale points
+     * meeting the constraints is cached, the same both ways: via points are
+     * listed as seen from the sale point with the lower id, and what is avoided
+     * is sorted, so equivalent constraints share an entry.
+     */
+    public static String key(Long startId, Long endId, PathConstraints constraints) {
+        List<Long> via = constraints.via() != null ? constraints.via() : List.of();
+        return key(startId, endId)
+                + "|avoid=" + join(stream(constraints.avoidSalePoints()).sorted().distinct())
+                + "|avoidPaths=" + join(stream(constraints.avoidPaths())
+                        .map(path -> PathPK.key(path.idA(), path.idB())).sorted().distinct())
+                + "|maxHops=" + (constraints.maxHops() != null ? constraints.maxHops() : "")
+                + "|via=" + join((startId <= endId ? via : via.reversed()).stream());
+    }
+
+    private static <T> Stream<T> stream(List<T> values) {
+        return values != null ? values.stream() : Stream.empty();
+    }
+
+    private static String join(Stream<?> values) {
+        return values.map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Turns the cost of a route from one sale point to the other into the cost
+     * in the direction of the key, or back.
+     */
+    public static PathCost orient(Long startId, Long endId, PathCost pathCost) {
+        return startId <= endId ? pathCost : pathCost.reversed();
+    }
+
+    /**
+     * Caches the cost of a route computed on the given snapshot, unless a newer
+     * one has been published since.
+     */
+    public void put(Long startId, Long endId, RoutingGraph graph, Route route, PathCost pathCost) {
+        put(key(startId, endId), startId, endId, graph, route, pathCost);
+    }
+
+    public void put(Long startId, Long endId, PathConstraints constraints, RoutingGraph graph, Route route,
+            PathCost pathCost) {
+        put(key(startId, endId, constraints), startId, endId, graph, route, pathCost);
+    }
+
+    private synchronized void put(String key, Long startId, Long endId, RoutingGraph graph, Route route,
+            PathCost pathCost) {
+        if (graph.getVersion() < version)
+            return;
+        pruneCacheEvictions();
+        unindex(key);
+        int[] nodes = route.nodes();
+        long[] paths = new long[nodes.length - 1];
+        for (int i = 1; i < nodes.length; i++) {
+            paths[i - 1] = pathKey(nodes[i - 1], nodes[i]);
+            dependents.computeIfAbsent(paths[i - 1], path -> new HashSet<>()).add(key);
+        }
+        PathCost stored = orient(startId, endId, pathCost);
+        routes.put(key, new CachedRoute(nodes[0], nodes[nodes.length - 1], route.totalCost(), paths, stored));
+        cache.put(key, stored);
+    }
+
+    /**
+     * Called by the cache backend, possibly while it holds its own locks, when
+     * it evicts an entry by itself. The entry is only queued here.
+     */
+    public void onEvicted(Object key, Object value) {
+        cacheEvictions.add(new CacheEviction(key, value));
+    }
+
+    @Override
+    public synchronized void onGraphChanged(RoutingGraph graph) {
+        version = graph.getVersion();
+        cacheEvictions.clear();
+        recordWrite(routes.size(), 0);
+        routes.clear();
+        dependents.clear();
+        cache.clear();
+    }
+
+    @Override
+    public synchronized void onGraphChanged(RoutingGraph graph, List<PathChange> changes) {
+        version = graph.getVersion();
+        pruneCacheEvictions();
+        Set<String> stale = new HashSet<>();
+        List<PathChange> decreases = new ArrayList<>();
+        boolean removals = changes.isEmpty();
+        for (PathChange change : changes) {
+            if (change.isIncrease())
+                stale.addAll(dependents.getOrDefault(pathKey(change.nodeA(), change.nodeB()), Set.of()));
+            else
+                decreases.add(change);
+            removals |= change.isRemoval();
+        }
+        if (removals)
+            findRemovedEnds(graph, stale);
+        int[] renamed = graph.renamedNodes();
+        if (renamed.length > 0)
+            findRenamed(graph, renamed, stale);
+        if (!decreases.isEmpty())
+            findImprovable(graph, decreases, stale);
+
+        stale.forEach(this::evict);
+        recordWrite(stale.size(), routes.size());
+    }
+
+    /**
+     * Routes starting or ending at a removed sale point.
+     */
+    private void findRemovedEnds(RoutingGraph graph, Set<String> stale) {
+        routes.forEach((key, route) -> {
+            if (!graph.contains(route.source()) || !graph.contains(route.target()))
+                stale.add(key);
+        });
+    }
+
+    /**
+     * Routes through a renamed sale point: the ones using its paths, found in
+     * the index, and the ones that only start or end there.
+     */
+    private void findRenamed(RoutingGraph graph, int[] renamed, Set<String> stale) {
+        BitSet nodes = new BitSet();
+        for (int node : renamed) {
+            nodes.set(node);
+            for (int next : graph.neighbors(node))
+                stale.addAll(dependents.getOrDefault(pathKey(node, next), Set.of()));
+        }
+        routes.forEach((key, route) -> {
+            if (nodes.get(route.source()) || nodes.get(route.target()))
+                stale.add(key);
+        });
+    }
+
+    /**
+     * Routes that could become cheaper by going through one of the changed
+     * paths: any such route costs at least the distance from its source to the
+     * nearest end of a changed path, plus the cheapest changed path, plus the
+     * same distance from its target. Those distances come from one search
+     * started at every end at once, bounded so that farther nodes cannot make
+     * a cached route cheaper. With several changes the bound is looser, so a
+     * few routes may be evicted without need, but never one left stale.
+     */
+    private void findImprovable(RoutingGraph graph, List<PathChange> decreases, Set<String> stale) {
+        double maxCost = 0.0;
+        for (CachedRoute route : routes.values())
+            maxCost = Math.max(maxCost, route.cost());
+        double minCost = Double.POSITIVE_INFINITY;
+        for (PathChange change : decreases)
+            minCost = Math.min(minCost, change.newCost());
+        double radius = maxCost - minCost;
+        if (routes.isEmpty() || radius < 0.0)
+            return;
+
+        space.reset(graph.capacity());
+        IndexedDaryHeap heap = space.heap();
+        for (PathChange change : decreases) {
+            space.relax(change.nodeA(), -1, 0.0);
+            space.relax(change.nodeB(), -1, 0.0);
+        }
+        while (!heap.isEmpty() && heap.peekKey() <= radius) {
+            int node = heap.poll();
+            space.settle(node);
+            double distance = space.distance(node);
+            int[] neighbors = graph.neighbors(node);
+            double[] costs = graph.costs(node);
+            for (int i = 0; i < neighbors.length; i++) {
+                if (!space.isSettled(neighbors[i]))
+                    space.relax(neighbors[i], node, distance + costs[i]);
+            }
+        }
+        double bound = minCost;
+        routes.forEach((key, route) -> {
+            if (nearest(route.source()) + bound + nearest(route.target()) < route.cost())
+                stale.add(key);
+        });
+    }
+
+    /**
+     * Distance from the node to the nearest end of a changed path, or +inf if
+     * it is beyond the bound of the last search.
+     */
+    private double nearest(int node) {
+        return space.isSettled(node) ? space.distance(node) : Double.POSITIVE_INFINITY;
+    }
+
+    private void evict(String key) {
+        unindex(key);
+        cache.evict(key);
+    }
+
+    /**
+     * Unindexes the routes evicted by the cache, unless they were cached again
+     * since.
+     */
+    private void pruneCacheEvictions() {
+        CacheEviction eviction;
+        while ((eviction = cacheEvictions.poll()) != null) {
+            CachedRoute route = routes.get(eviction.key());
+            if (route != null && route.pathCost() == eviction.value())
+                unindex((String) eviction.key());
+        }
+    }
+
+    private void unindex(String key) {
+        CachedRoute route = routes.remove(key);
+        if (route == null)
+            return;
+        for (long path : route.paths()) {
+            Set<String> keys = dependents.get(path);
+            if (keys != null && keys.remove(key) && keys.isEmpty())
+                dependents.remove(path);
+        }
+    }
+
+    private void recordWrite(int writeEvicted, int writeRetained) {
+        writes++;
+        evicted += writeEvicted;
+        retained += writeRetained;
+        lastWriteEvicted = writeEvicted;
+        lastWriteRetained = writeRetained;
+    }
+
+    private static long pathKey(int nodeA, int nodeB) {
+        return (long) Math.min(nodeA, nodeB) << 32 | Math.max(nodeA, nodeB);
+    }
+
+    public synchronized int getCachedRoutes() {
+        pruneCacheEvictions();
+        return routes.size();
+    }
+
+    public synchronized int getIndexedPaths() {
+        pruneCacheEvictions();
+        return dependents.size();
+    }
+
+    public synchronized long getWrites() {
+        return writes;
+    }
+
+    public synchronized long getEvicted() {
+        return evicted;
+    }
+
+    public synchronized long getRetained() {
+        return retained;
+    }
+
+    public synchronized int getLastWriteEvicted() {
+        return lastWriteEvicted;
+    }
+
+    public synchronized int getLastWriteRetained() {
+        return lastWriteRetained;
+    }
+
+    private record CachedRoute(int source, int target, double cost, long[] paths, PathCost pathCost) {
+    }
+
+    private record CacheEviction(Object key, Object value) {
+    }
+}
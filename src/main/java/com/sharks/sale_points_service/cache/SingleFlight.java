@@ -0,0 +1,81 @@
+package com.sharks.sale_points_service.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one computation per key at a time: callers asking for a key
+ * that is already being computed wait for that result, or its exception,
+ * instead of computing it again. A caller that waited longer than the timeout
+ * computes the value itself, so a slow computation delays the others by the
+ * timeout at most.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public SingleFlight(Duration timeout) {
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    public V run(K key, Supplier<V> computation) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = flights.putIfAbsent(key, flight);
+        if (running != null)
+            return await(running, computation);
+        try {
+            V value = computation.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private V await(CompletableFuture<V> running, Supplier<V> computation) {
+        joined.increment();
+        try {
+            return running.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            return computation.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            if (e.getCause() instanceof Error error)
+                throw error;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a running computation", e);
+        }
+    }
+
+    /**
+     * Callers that waited for a running computation, including those that
+     * timed out.
+     */
+    public long getJoined() {
+        return joined.sum();
+    }
+
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    public int getInFlight() {
+        return flights.size();
+    }
+}
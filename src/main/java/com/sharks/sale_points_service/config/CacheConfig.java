@@ -0,0 +1,83 @@
+package com.sharks.sale_points_service.config;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.sharks.sale_points_service.cache.PathCostCache;
+import com.sharks.sale_points_service.cache.SingleFlight;
+import com.sharks.sale_points_service.metrics.PathSearchMetrics;
+import com.sharks.sale_points_service.models.PathCost;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Caches are declared up front, so a misspelt cache name fails instead of
+     * creating an unbounded cache, and Actuator binds their meters at startup.
+     * Caffeine's own size and expiry evictions of cached path costs are handed
+     * to {@link PathCostCache} so it drops them from its index too.
+     */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${cache.paths.spec:maximumWeight=100000,expireAfterWrite=10m}") String pathsSpec,
+            @Value("${cache.sale-points.spec:maximumWeight=10000,expireAfterWrite=10m}") String salePointsSpec,
+            @Value("${cache.path-cost.spec:maximumWeight=1000000,expireAfterAccess=1h}") String pathCostSpec,
+            ObjectProvider<PathCostCache> pathCostCache) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                caffeineCache("paths", pathsSpec, null),
+                caffeineCache("salePoints", salePointsSpec, null),
+                caffeineCache(PathCostCache.CACHE_NAME, pathCostSpec,
+                        (key, value, cause) -> pathCostCache.ifAvailable(cache -> cache.onEvicted(key, value)))));
+        return cacheManager;
+    }
+
+    /**
+     * Cheapest path searches by path cost cache key, so the queries missing the
+     * cache at once, e.g. after a write evicted a popular route, share one
+     * search.
+     */
+    @Bean
+    public SingleFlight<String, PathCost> pathCostSearches(
+            @Value("${cache.path-cost.coalescing-timeout:5s}") Duration timeout, PathSearchMetrics searchMetrics) {
+        SingleFlight<String, PathCost> searches = new SingleFlight<>(timeout);
+        searchMetrics.coalescing(searches);
+        return searches;
+    }
+
+    /**
+     * A cache bounded by the {@code maximumWeight} of a Caffeine spec, with
+     * statistics recorded. Refreshing needs a loader, which annotation driven
+     * caches do not have, so specs can expire entries but not refresh them.
+     */
+    public static CaffeineCache caffeineCache(String name, String spec,
+            RemovalListener<Object, Object> evictionListener) {
+        Caffeine<Object, Object> builder = Caffeine.from(spec).weigher(CacheConfig::weigh).recordStats();
+        if (evictionListener != null)
+            builder = builder.evictionListener(evictionListener);
+        return new CaffeineCache(name, builder.build());
+    }
+
+    /**
+     * Path costs weigh the sale points along the route and collections their
+     * size, so large entries count for what they hold.
+     */
+    private static int weigh(Object key, Object value) {
+        if (value instanceof PathCost pathCost && pathCost.getPath() != null)
+            return Math.max(1, pathCost.getPath().size());
+        if (value instanceof Collection<?> collection)
+            return Math.max(1, collection.size());
+        return 1;
+    }
+}
@@ -0,0 +1,67 @@
+package com.sharks.sale_points_service.config;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sharks.sale_points_service.routing.AltEngine;
+import com.sharks.sale_points_service.routing.BidirectionalDijkstraEngine;
+import com.sharks.sale_points_service.routing.ComponentIndex;
+import com.sharks.sale_points_service.routing.ContractionHierarchyEngine;
+import com.sharks.sale_points_service.routing.DijkstraEngine;
+import com.sharks.sale_points_service.routing.LandmarkSelection;
+import com.sharks.sale_points_service.routing.ParallelTreeSearch;
+import com.sharks.sale_points_service.routing.ShortestPathTreeCache;
+
+@Configuration
+public class RoutingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "routing.engine", havingValue = "dijkstra", matchIfMissing = true)
+    public DijkstraEngine dijkstraEngine() {
+        return new DijkstraEngine();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "routing.engine", havingValue = "bidirectional")
+    public BidirectionalDijkstraEngine bidirectionalDijkstraEngine() {
+        return new BidirectionalDijkstraEngine();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "routing.engine", havingValue = "alt")
+    public AltEngine altEngine(@Value("${routing.alt.landmarks:16}") int landmarks,
+            @Value("${routing.alt.selection:avoid}") String selection,
+            @Value("${routing.alt.sample-every:100}") int sampleEvery,
+            @Qualifier("applicationTaskExecutor") Executor executor) {
+        return new AltEngine(landmarks, LandmarkSelection.valueOf(selection.toUpperCase()), executor, sampleEvery);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "routing.engine", havingValue = "ch")
+    public ContractionHierarchyEngine contractionHierarchyEngine(
+            @Qualifier("applicationTaskExecutor") Executor executor) {
+        return new ContractionHierarchyEngine(new DijkstraEngine(), executor);
+    }
+
+    @Bean
+    public ShortestPathTreeCache shortestPathTreeCache(
+            @Value("${routing.tree-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${routing.tree-cache.grow-after:2}") int growAfter) {
+        return new ShortestPathTreeCache(maxBytes, growAfter);
+    }
+
+    @Bean
+    public ComponentIndex componentIndex(@Qualifier("applicationTaskExecutor") Executor executor) {
+        return new ComponentIndex(executor);
+    }
+
+    @Bean
+    public ParallelTreeSearch parallelTreeSearch(@Value("${routing.batch.parallelism:0}") int parallelism) {
+        return new ParallelTreeSearch(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+}
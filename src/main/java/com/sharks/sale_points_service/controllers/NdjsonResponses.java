@@ -0,0 +1,46 @@
+package com.sharks.sale_points_service.controllers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes rows to the response as NDJSON while they are being read, one JSON
+ * object per line, without flushing after every row.
+ */
+final class NdjsonResponses {
+
+    private NdjsonResponses() {
+    }
+
+    /**
+     * @param source feeds every row to the given consumer, on the thread
+     *               writing the response
+     */
+    static <T> StreamingResponseBody of(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+        return out -> {
+            try (JsonGenerator generator = writer.createGenerator(out)) {
+                source.accept(row -> {
+                    try {
+                        writer.writeValue(generator, row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (generator.getOutputContext().getEntryCount() > 0)
+                    generator.writeRaw('\n');
+            }
+        };
+    }
+}
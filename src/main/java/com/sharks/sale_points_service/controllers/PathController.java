@@ -1,23 +1,43 @@
 package com.sharks.sale_points_service.controllers;
 
+import java.io.InputStream;
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharks.sale_points_service.models.dtos.CostMatrixQuery;
+import com.sharks.sale_points_service.models.dtos.LandmarkStatsDTO;
+import com.sharks.sale_points_service.models.dtos.PathConstraints;
+import com.sharks.sale_points_service.models.dtos.PathCostBatchQuery;
+import com.sharks.sale_points_service.models.dtos.PathCostCacheStatsDTO;
 import com.sharks.sale_points_service.models.dtos.PathDTO;
+import com.sharks.sale_points_service.models.CostMatrix;
+import com.sharks.sale_points_service.models.ImportFormat;
+import com.sharks.sale_points_service.models.ImportResult;
+import com.sharks.sale_points_service.models.KeysetPage;
 import com.sharks.sale_points_service.models.PathCost;
+import com.sharks.sale_points_service.models.PathCostResult;
 import com.sharks.sale_points_service.models.dtos.NewPath;
 import com.sharks.sale_points_service.models.dtos.NewPathWithoutIds;
+import com.sharks.sale_points_service.services.ImportService;
 import com.sharks.sale_points_service.services.PathService;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.springframework.web.bind.annotation.PutMapping;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -37,9 +57,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class PathController {
 
     private final PathService pathService;
+    private final ImportService importService;
+    private final ObjectMapper objectMapper;
 
-    public PathController(PathService pathService) {
+    public PathController(PathService pathService, ImportService importService, ObjectMapper objectMapper) {
         this.pathService = pathService;
+        this.importService = importService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Get all paths", description = "Returns a list of all paths available in the system.", responses = {
@@ -51,6 +75,29 @@ public class PathController {
         return pathService.getAllPathDTOs();
     }
 
+    @Operation(summary = "Get a page of paths", description = "Returns up to limit paths ordered by their sale point IDs, starting after the given cursor. The response holds the cursor of the next page, or null on the last one.", parameters = {
+            @Parameter(name = "after", description = "Cursor returned as next by the previous page (idA-idB); omit for the first page", example = "1-4"),
+            @Parameter(name = "limit", description = "Maximum number of paths in the page (1 to 1000)", example = "100")
+    }, responses = {
+            @ApiResponse(responseCode = "200", description = "Page retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = KeysetPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit")
+    })
+    @GetMapping("/page")
+    @ResponseStatus(HttpStatus.OK)
+    public KeysetPage<PathDTO> getPathPage(@RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return pathService.getPathDTOPage(after, limit);
+    }
+
+    @Operation(summary = "Stream all paths", description = "Streams every path ordered by its sale point IDs as NDJSON, one object per line, written while they are read from the database.", responses = {
+            @ApiResponse(responseCode = "200", description = "Paths streamed successfully", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = PathDTO.class)))
+    })
+    @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public StreamingResponseBody streamAllPaths() {
+        return NdjsonResponses.of(objectMapper, pathService::forEachPathDTO);
+    }
+
     @Operation(summary = "Get paths by sale point ID", description = "Returns a list of paths associated with the given sale point ID.", parameters = {
             @Parameter(name = "id", description = "ID of the sale point", required = true, example = "1")
     }, responses = {
@@ -76,19 +123,96 @@ public class PathController {
         return pathService.getPathDTOByIds(idA, idB);
     }
 
-    @Operation(summary = "Get cost of the cheapest path between two sale points", description = "Returns the cost of the cheapest path between two sale points identified by their IDs.", parameters = {
+    @Operation(summary = "Get cost of the cheapest path between two sale points", description = "Returns the cost of the cheapest path between two sale points identified by their IDs. With trace=true, the search bypasses the caches and the response includes a trace of it: sale points in the order they were settled with the frontier size at the time, and the relaxations attempted, each capped at the first 1000.", parameters = {
             @Parameter(name = "idA", description = "ID of the first sale point", required = true, example = "1"),
-            @Parameter(name = "idB", description = "ID of the second sale point", required = true, example = "2")
+            @Parameter(name = "idB", description = "ID of the second sale point", required = true, example = "2"),
+            @Parameter(name = "trace", description = "Whether to include a trace of the search", example = "false")
     }, responses = {
             @ApiResponse(responseCode = "200", description = "Path cost retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PathCost.class))),
             @ApiResponse(responseCode = "404", description = "Path not found")
     })
     @GetMapping("/{idA}/{idB}/cost")
     @ResponseStatus(HttpStatus.OK)
-    public PathCost getPathCost(@PathVariable Long idA, @PathVariable Long idB) {
+    public PathCost getPathCost(@PathVariable Long idA, @PathVariable Long idB,
+            @RequestParam(defaultValue = "false") boolean trace) {
+        if (trace)
+            return pathService.traceCheapestPath(idA, idB);
         return pathService.findCheapestPath(idA, idB);
     }
 
+    @Operation(summary = "Get cost of the cheapest path between two sale points under constraints", description = "Returns the cost of the cheapest path between two sale points that avoids the given sale points and paths, takes at most maxHops paths and visits the via sale points in order. Constraints only apply to this search; stored paths are left untouched. At most 1000 sale points and 1000 paths to avoid and 25 via sale points.", parameters = {
+            @Parameter(name = "idA", description = "ID of the first sale point", required = true, example = "1"),
+            @Parameter(name = "idB", description = "ID of the second sale point", required = true, example = "2")
+    }, requestBody = @RequestBody(description = "Sale points and paths to avoid, maximum number of paths and sale points to visit in order, all optional", required = true, content = @Content(mediaType = "application/json", schema = @Schema(implementation = PathConstraints.class))), responses = {
+            @ApiResponse(responseCode = "200", description = "Path cost retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PathCost.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid constraints"),
+            @ApiResponse(responseCode = "404", description = "Path not found")
+    })
+    @PostMapping("/{idA}/{idB}/cost")
+    @ResponseStatus(HttpStatus.OK)
+    public PathCost getConstrainedPathCost(@PathVariable Long idA, @PathVariable Long idB,
+            @org.springframework.web.bind.annotation.RequestBody @Valid PathConstraints constraints) {
+        return pathService.findCheapestPath(idA, idB, constraints);
+    }
+
+    @Operation(summary = "Get alternative paths between two sale points", description = "Returns up to k loopless paths between two sale points, cheapest first. The first one is the cheapest path; each of the others leaves a cheaper one at some sale point and never visits a sale point twice.", parameters = {
+            @Parameter(name = "idA", description = "ID of the first sale point", required = true, example = "1"),
+            @Parameter(name = "idB", description = "ID of the second sale point", required = true, example = "2"),
+            @Parameter(name = "k", description = "Maximum number of paths to return, between 1 and 20", example = "3")
+    }, responses = {
+            @ApiResponse(responseCode = "200", description = "Paths retrieved successfully", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = PathCost.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid number of paths"),
+            @ApiResponse(responseCode = "404", description = "Path not found")
+    })
+    @GetMapping("/{idA}/{idB}/alternatives")
+    @ResponseStatus(HttpStatus.OK)
+    public List<PathCost> getAlternativePaths(@PathVariable Long idA, @PathVariable Long idB,
+            @RequestParam(defaultValue = "3") @Min(1) @Max(20) int k) {
+        return pathService.findAlternativePaths(idA, idB, k);
+    }
+
+    @Operation(summary = "Get costs of the cheapest paths for many pairs of sale points", description = "Returns one result per requested pair, in request order, with either its cheapest path or the reason it could not be found. Reversed pairs share one search, and pairs are grouped by source so each source is searched once. At most 1000 pairs.", requestBody = @RequestBody(description = "Pairs of sale point IDs, up to 1000", required = true, content = @Content(mediaType = "application/json", schema = @Schema(implementation = PathCostBatchQuery.class))), responses = {
+            @ApiResponse(responseCode = "200", description = "Batch processed successfully", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = PathCostResult.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data")
+    })
+    @PostMapping("/cost/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<PathCostResult> getPathCosts(
+            @org.springframework.web.bind.annotation.RequestBody @Valid PathCostBatchQuery query) {
+        return pathService.findCheapestPaths(query);
+    }
+
+    @Operation(summary = "Get cost matrix between sale points", description = "Returns the cost of the cheapest path from every source sale point to every target sale point, running one search per source. Unreachable pairs have a null cost. Paths are included when requested. At most 1000 sources and 1000 targets.", requestBody = @RequestBody(description = "Source and target sale point IDs, up to 1000 of each", required = true, content = @Content(mediaType = "application/json", schema = @Schema(implementation = CostMatrixQuery.class))), responses = {
+            @ApiResponse(responseCode = "200", description = "Cost matrix computed successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CostMatrix.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "404", description = "Sale point not found")
+    })
+    @PostMapping("/matrix")
+    @ResponseStatus(HttpStatus.OK)
+    public CostMatrix getCostMatrix(
+            @org.springframework.web.bind.annotation.RequestBody @Valid CostMatrixQuery query) {
+        return pathService.getCostMatrix(query);
+    }
+
+    @Operation(summary = "Get landmark routing statistics", description = "Returns the landmarks used by the ALT routing engine, the memory held by their distance tables and the average number of sale points settled per query compared with plain Dijkstra.", responses = {
+            @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = LandmarkStatsDTO.class))),
+            @ApiResponse(responseCode = "404", description = "ALT routing engine not enabled")
+    })
+    @GetMapping("/landmarks/stats")
+    @ResponseStatus(HttpStatus.OK)
+    public LandmarkStatsDTO getLandmarkStats() {
+        return pathService.getLandmarkStats();
+    }
+
+    @Operation(summary = "Get path cost cache statistics", description = "Returns how many cheapest path results are cached and, for path writes, how many cached results were evicted and how many were kept.", responses = {
+            @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PathCostCacheStatsDTO.class)))
+    })
+    @GetMapping("/cache/stats")
+    @ResponseStatus(HttpStatus.OK)
+    public PathCostCacheStatsDTO getPathCostCacheStats() {
+        return pathService.getPathCostCacheStats();
+    }
+
     @Operation(summary = "Create a new path", description = "Creates a new path between sale points with the provided details.", requestBody = @RequestBody(description = "Path data to create", required = true, content = @Content(mediaType = "application/json", schema = @Schema(implementation = NewPath.class))), responses = {
             @ApiResponse(responseCode = "201", description = "Path created successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PathDTO.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input data"),
@@ -100,6 +224,19 @@ public class PathController {
         return pathService.createPath(newPath);
     }
 
+    @Operation(summary = "Import paths in bulk", description = "Streams paths from a CSV body (idA,idB,cost per line, optional header) or an NDJSON body (one path object per line). Rows are validated and inserted in chunks; invalid or duplicate rows are skipped and reported by line number.", requestBody = @RequestBody(description = "Paths to create, one per line", required = true, content = {
+            @Content(mediaType = ImportFormat.TEXT_CSV_VALUE, schema = @Schema(type = "string", example = "idA,idB,cost\n1,2,5.0")),
+            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = NewPath.class))
+    }), responses = {
+            @ApiResponse(responseCode = "200", description = "Import finished", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ImportResult.class))),
+            @ApiResponse(responseCode = "415", description = "Unsupported body format")
+    })
+    @PostMapping(path = "/import", consumes = { ImportFormat.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @ResponseStatus(HttpStatus.OK)
+    public ImportResult importPaths(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        return importService.importPaths(body, ImportFormat.fromContentType(contentType));
+    }
+
     @Operation(summary = "Update an existing path", description = "Updates the details of an existing path between two sale points identified by their IDs.", parameters = {
             @Parameter(name = "idA", description = "ID of the first sale point", required = true, example = "1"),
             @Parameter(name = "idB", description = "ID of the second sale point", required = true, example = "2")
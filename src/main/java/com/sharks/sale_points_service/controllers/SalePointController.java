@@ -3,21 +3,38 @@ package com.sharks.sale_points_service.controllers;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.sharks.sale_points_service.models.ImportFormat;
+import com.sharks.sale_points_service.models.ImportResult;
+import com.sharks.sale_points_service.models.KeysetPage;
+import com.sharks.sale_points_service.models.ReachableSalePoint;
+import com.sharks.sale_points_service.models.SalePointComponent;
 import com.sharks.sale_points_service.models.dtos.NewSalePoint;
 import com.sharks.sale_points_service.models.dtos.SalePointDTO;
+import com.sharks.sale_points_service.services.ImportService;
 import com.sharks.sale_points_service.services.SalePointService;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
 
+import java.io.InputStream;
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -36,9 +53,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class SalePointController {
 
     private final SalePointService salePointService;
+    private final ImportService importService;
+    private final ObjectMapper objectMapper;
 
-    public SalePointController(SalePointService salePointService) {
+    public SalePointController(SalePointService salePointService, ImportService importService,
+            ObjectMapper objectMapper) {
         this.salePointService = salePointService;
+        this.importService = importService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Get all sale points", description = "Returns a list of all sale points available in the system.", responses = {
@@ -50,6 +72,29 @@ public class SalePointController {
         return salePointService.getAllSalePointDTOs();
     }
 
+    @Operation(summary = "Get a page of sale points", description = "Returns up to limit sale points ordered by ID, starting after the given cursor. The response holds the cursor of the next page, or null on the last one.", parameters = {
+            @Parameter(name = "after", description = "Cursor returned as next by the previous page; omit for the first page", example = "10"),
+            @Parameter(name = "limit", description = "Maximum number of sale points in the page (1 to 1000)", example = "100")
+    }, responses = {
+            @ApiResponse(responseCode = "200", description = "Page retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = KeysetPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit")
+    })
+    @GetMapping("/page")
+    @ResponseStatus(HttpStatus.OK)
+    public KeysetPage<SalePointDTO> getSalePointPage(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return salePointService.getSalePointDTOPage(after, limit);
+    }
+
+    @Operation(summary = "Stream all sale points", description = "Streams every sale point ordered by ID as NDJSON, one object per line, written while they are read from the database.", responses = {
+            @ApiResponse(responseCode = "200", description = "Sale points streamed successfully", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = SalePointDTO.class)))
+    })
+    @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public StreamingResponseBody streamAllSalePoints() {
+        return NdjsonResponses.of(objectMapper, salePointService::forEachSalePointDTO);
+    }
+
     @Operation(summary = "Get sale point by ID", description = "Returns a sale point identified by its unique ID.", parameters = {
             @Parameter(name = "id", description = "ID of the sale point", required = true, example = "1")
     }, responses = {
@@ -62,6 +107,33 @@ public class SalePointController {
         return salePointService.getSalePointDTOById(id);
     }
 
+    @Operation(summary = "Get the connected component of a sale point", description = "Returns the component of the sale point, the sale points it can reach through paths, itself included. The component is identified by the lowest sale point ID in it, so two sale points are connected if and only if their component IDs match.", parameters = {
+            @Parameter(name = "id", description = "ID of the sale point", required = true, example = "1")
+    }, responses = {
+            @ApiResponse(responseCode = "200", description = "Component retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SalePointComponent.class))),
+            @ApiResponse(responseCode = "404", description = "Sale point not found")
+    })
+    @GetMapping("/{id}/component")
+    @ResponseStatus(HttpStatus.OK)
+    public SalePointComponent getComponent(@PathVariable Long id) {
+        return salePointService.getComponent(id);
+    }
+
+    @Operation(summary = "Stream the sale points reachable within a cost", description = "Runs a single search from the sale point and streams every sale point whose cheapest path costs at most maxCost as NDJSON, one object per line, ordered by cost and written as the search finds them. Each one includes the sale point its cheapest path arrives from, so routes can be rebuilt by following parents back to the origin.", parameters = {
+            @Parameter(name = "id", description = "ID of the origin sale point", required = true, example = "1"),
+            @Parameter(name = "maxCost", description = "Maximum cost of the paths", required = true, example = "100")
+    }, responses = {
+            @ApiResponse(responseCode = "200", description = "Reachable sale points streamed successfully", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = ReachableSalePoint.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid maximum cost"),
+            @ApiResponse(responseCode = "404", description = "Sale point not found")
+    })
+    @GetMapping(path = "/{id}/reachable", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public StreamingResponseBody streamReachableSalePoints(@PathVariable Long id,
+            @RequestParam @PositiveOrZero double maxCost) {
+        return NdjsonResponses.of(objectMapper, salePointService.getReachableSalePoints(id, maxCost));
+    }
+
     @Operation(summary = "Create a new sale point", description = "Creates a new sale point with the provided details.", requestBody = @RequestBody(description = "Sale point data to create", required = true, content = @Content(mediaType = "application/json", schema = @Schema(implementation = NewSalePoint.class))), responses = {
             @ApiResponse(responseCode = "201", description = "Sale point created successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SalePointDTO.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input data"),
@@ -74,6 +146,20 @@ public class SalePointController {
         return salePointService.createSalePoint(newSalePoint);
     }
 
+    @Operation(summary = "Import sale points in bulk", description = "Streams sale points from a CSV body (one name per line, optional header) or an NDJSON body (one sale point object per line). Rows are validated and inserted in chunks; invalid or duplicate names are skipped and reported by line number.", requestBody = @RequestBody(description = "Sale points to create, one per line", required = true, content = {
+            @Content(mediaType = ImportFormat.TEXT_CSV_VALUE, schema = @Schema(type = "string", example = "name\nCABA")),
+            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = NewSalePoint.class))
+    }), responses = {
+            @ApiResponse(responseCode = "200", description = "Import finished", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ImportResult.class))),
+            @ApiResponse(responseCode = "415", description = "Unsupported body format")
+    })
+    @PostMapping(path = "/import", consumes = { ImportFormat.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @ResponseStatus(HttpStatus.OK)
+    public ImportResult importSalePoints(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        return importService.importSalePoints(body, ImportFormat.fromContentType(contentType));
+    }
+
     @Operation(summary = "Update an existing sale point", description = "Updates the details of an existing sale point identified by its ID.", parameters = {
             @Parameter(name = "id", description = "ID of the sale point to update", required = true, example = "1")
     }, requestBody = @RequestBody(description = "Updated sale point data", required = true, content = @Content(mediaType = "application/json", schema = @Schema(implementation = NewSalePoint.class))), responses = {
@@ -0,0 +1,12 @@
+package com.sharks.sale_points_service.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class EngineNotEnabledException extends RuntimeException {
+
+    public EngineNotEnabledException(String engine) {
+        super("Routing engine " + engine + " is not enabled");
+    }
+}
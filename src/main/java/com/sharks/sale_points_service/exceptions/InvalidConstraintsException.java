@@ -0,0 +1,12 @@
+package com.sharks.sale_points_service.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidConstraintsException extends RuntimeException {
+
+    public InvalidConstraintsException(Long id) {
+        super("Sale point with id " + id + " cannot be both avoided and part of the route");
+    }
+}
@@ -0,0 +1,110 @@
+package com.sharks.sale_points_service.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.sharks.sale_points_service.cache.SingleFlight;
+import com.sharks.sale_points_service.routing.Route;
+import com.sharks.sale_points_service.routing.ShortestPathTree;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters of the cheapest path search:
+ * <ul>
+ * <li>{@code path.search}: time to answer a query, tagged with its outcome;</li>
+ * <li>{@code path.search.settled}, {@code path.search.relaxed} and
+ * {@code path.search.frontier}: work done by the searches that ran, tagged with
+ * whether a routing engine searched or a shortest path tree was grown;</li>
+ * <li>{@code path.search.route.length}: paths along the routes found;</li>
+ * <li>{@code path.search.coalesced}, {@code path.search.coalescing.timeouts}
+ * and {@code path.search.in.flight}: queries that waited for an identical
+ * search instead of running their own, those that gave up waiting, and the
+ * searches running.</li>
+ * </ul>
+ */
+@Component
+public class PathSearchMetrics {
+
+    public static final String SEARCH = "path.search";
+
+    private final MeterRegistry registry;
+    private final Map<SearchOutcome, Timer> timers = new EnumMap<>(SearchOutcome.class);
+    private final DistributionSummary engineSettled;
+    private final DistributionSummary engineRelaxed;
+    private final DistributionSummary engineFrontier;
+    private final DistributionSummary treeSettled;
+    private final DistributionSummary routeLength;
+
+    public PathSearchMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (SearchOutcome outcome : SearchOutcome.values()) {
+            timers.put(outcome, Timer.builder(SEARCH)
+                    .description("Time to answer a cheapest path query")
+                    .tag("outcome", outcome.tag)
+                    .register(registry));
+        }
+        engineSettled = summary("settled", "engine", "nodes", "Nodes settled by a search");
+        engineRelaxed = summary("relaxed", "engine", "paths", "Paths relaxed by a search");
+        engineFrontier = summary("frontier", "engine", "nodes", "Largest number of nodes queued by a search");
+        treeSettled = summary("settled", "tree", "nodes", "Nodes settled by a search");
+        routeLength = DistributionSummary.builder(SEARCH + ".route.length")
+                .description("Paths along the cheapest routes found")
+                .baseUnit("paths")
+                .register(registry);
+    }
+
+    private DistributionSummary summary(String name, String search, String unit, String description) {
+        return DistributionSummary.builder(SEARCH + "." + name)
+                .description(description)
+                .baseUnit(unit)
+                .tag("search", search)
+                .register(registry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, SearchOutcome outcome) {
+        sample.stop(timers.get(outcome));
+    }
+
+    /**
+     * Records the work of a routing engine search.
+     */
+    public void searched(Route route) {
+        engineSettled.record(route.settled());
+        engineRelaxed.record(route.relaxed());
+        engineFrontier.record(route.peakFrontier());
+    }
+
+    /**
+     * Records the work of growing a shortest path tree.
+     */
+    public void grown(ShortestPathTree tree) {
+        treeSettled.record(tree.getSettled());
+    }
+
+    public void found(Route route) {
+        routeLength.record(route.nodes().length - 1);
+    }
+
+    public void coalescing(SingleFlight<?, ?> searches) {
+        FunctionCounter.builder(SEARCH + ".coalesced", searches, SingleFlight::getJoined)
+                .description("Queries that waited for an identical search already running")
+                .register(registry);
+        FunctionCounter.builder(SEARCH + ".coalescing.timeouts", searches, SingleFlight::getTimedOut)
+                .description("Queries that stopped waiting for an identical search and ran their own")
+                .register(registry);
+        Gauge.builder(SEARCH + ".in.flight", searches, SingleFlight::getInFlight)
+                .description("Distinct cheapest path searches running")
+                .register(registry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.sharks.sale_points_service.metrics;
+
+/**
+ * How a cheapest path query was answered, as tagged on its timer.
+ */
+public enum SearchOutcome {
+
+    /**
+     * Answered from the path cost cache without searching.
+     */
+    CACHE_HIT("cache_hit"),
+
+    /**
+     * A route was found, by a search or from a cached shortest path tree.
+     */
+    FOUND("found"),
+
+    /**
+     * One of the sale points does not exist or there is no route between them.
+     */
+    NOT_FOUND("not_found"),
+
+    /**
+     * The query failed otherwise, such as for invalid constraints.
+     */
+    ERROR("error");
+
+    final String tag;
+
+    SearchOutcome(String tag) {
+        this.tag = tag;
+    }
+}
@@ -0,0 +1,20 @@
+package com.sharks.sale_points_service.models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Cheapest path costs from every source to every target, row per source.
+ * Unreachable pairs have a null cost; paths are only filled in on request.
+ */
+@Getter
+@AllArgsConstructor
+public class CostMatrix {
+
+    private final List<Long> sources;
+    private final List<Long> targets;
+    private final List<List<Double>> costs;
+    private final List<List<PathCost>> paths;
+}
@@ -0,0 +1,17 @@
+package com.sharks.sale_points_service.models;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Body formats accepted by the bulk import endpoints, one row per line.
+ */
+public enum ImportFormat {
+
+    CSV, NDJSON;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static ImportFormat fromContentType(String contentType) {
+        return MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType)) ? NDJSON : CSV;
+    }
+}
@@ -0,0 +1,20 @@
+package com.sharks.sale_points_service.models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a bulk import: how many rows were written, how many were
+ * rejected, and the reasons for the first rejections, by line number.
+ */
+@Getter
+@AllArgsConstructor
+public class ImportResult {
+
+    private final int imported;
+    private final int rejected;
+    private final int chunks;
+    private final List<String> errors;
+}
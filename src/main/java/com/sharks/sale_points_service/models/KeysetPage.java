@@ -0,0 +1,30 @@
+package com.sharks.sale_points_service.models;
+
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One page of a listing ordered by key. {@code next} is the cursor to pass as
+ * {@code after} to get the following page, or null on the last one.
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    private final List<T> items;
+    private final String next;
+
+    /**
+     * Builds the page from rows fetched with a limit one higher than the page
+     * size, so whether there is a next page is known without another query.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<T, String> cursor) {
+        if (rows.size() <= limit)
+            return new KeysetPage<>(rows, null);
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(items, cursor.apply(items.get(limit - 1)));
+    }
+}
@@ -8,7 +8,6 @@ import jakarta.persistence.IdClass;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
-import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,7 +16,6 @@ import lombok.ToString;
 
 @Getter
 @NoArgsConstructor
-@AllArgsConstructor
 @EqualsAndHashCode
 @ToString
 @Entity
@@ -39,4 +37,14 @@ public class Path {
     @NonNull
     @Column(nullable = false)
     private Double cost;
+
+    /**
+     * Path between the two sale points, stored with the lower id first.
+     */
+    public Path(SalePoint salePointA, SalePoint salePointB, Double cost) {
+        boolean ordered = salePointA.getId() <= salePointB.getId();
+        this.salePointA = ordered ? salePointA : salePointB;
+        this.salePointB = ordered ? salePointB : salePointA;
+        this.cost = cost;
+    }
 }
@@ -1,7 +1,10 @@
 package com.sharks.sale_points_service.models;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -11,4 +14,27 @@ public class PathCost {
 
     private final List<SalePointCost> path;
     private final Double totalCost;
+
+    /**
+     * Only set when the search was traced on request.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final SearchTrace trace;
+
+    public PathCost(List<SalePointCost> path, Double totalCost) {
+        this(path, totalCost, null);
+    }
+
+    /**
+     * The same route walked from its other end: sale points in reverse order,
+     * each with the cost of the path reaching it in that direction.
+     */
+    public PathCost reversed() {
+        List<SalePointCost> reversed = new ArrayList<>(path.size());
+        for (int i = path.size() - 1; i >= 0; i--) {
+            double cost = i == path.size() - 1 ? 0.0 : path.get(i + 1).getCost();
+            reversed.add(new SalePointCost(path.get(i).getId(), path.get(i).getName(), cost));
+        }
+        return new PathCost(reversed, totalCost);
+    }
 }
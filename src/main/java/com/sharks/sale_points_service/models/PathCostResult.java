@@ -0,0 +1,18 @@
+package com.sharks.sale_points_service.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of one pair of a batch: either its cheapest path or the reason it
+ * could not be found.
+ */
+@Getter
+@AllArgsConstructor
+public class PathCostResult {
+
+    private final Long idA;
+    private final Long idB;
+    private final PathCost pathCost;
+    private final String error;
+}
@@ -6,6 +6,10 @@ import java.util.Objects;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+/**
+ * Key of a path. Paths are undirected and stored once, with the lower sale
+ * point id first, so the key of a pair is the same in both directions.
+ */
 @NoArgsConstructor
 @Getter
 public class PathPK implements Serializable {
@@ -13,6 +17,18 @@ public class PathPK implements Serializable {
     private Long salePointA;
     private Long salePointB;
 
+    public PathPK(Long idA, Long idB) {
+        this.salePointA = Math.min(idA, idB);
+        this.salePointB = Math.max(idA, idB);
+    }
+
+    /**
+     * Cache key of the pair, the same in both directions.
+     */
+    public static String key(Long idA, Long idB) {
+        return Math.min(idA, idB) + "-" + Math.max(idA, idB);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
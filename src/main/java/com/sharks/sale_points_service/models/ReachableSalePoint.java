@@ -0,0 +1,19 @@
+package com.sharks.sale_points_service.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Sale point reachable within a cost budget, with the cost of its cheapest
+ * path and the sale point that path arrives from, null for the origin, so
+ * routes can be rebuilt by following parents.
+ */
+@Getter
+@AllArgsConstructor
+public class ReachableSalePoint {
+
+    private final Long id;
+    private final String name;
+    private final double cost;
+    private final Long parentId;
+}
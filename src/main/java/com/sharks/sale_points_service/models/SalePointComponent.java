@@ -0,0 +1,17 @@
+package com.sharks.sale_points_service.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Connected component of a sale point: the sale points it can reach, itself
+ * included, identified by the lowest sale point id among them.
+ */
+@Getter
+@AllArgsConstructor
+public class SalePointComponent {
+
+    private final Long salePointId;
+    private final Long componentId;
+    private final int size;
+}
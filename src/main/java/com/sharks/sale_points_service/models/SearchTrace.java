@@ -0,0 +1,50 @@
+package com.sharks.sale_points_service.models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What a traced cheapest path search did. The totals count every step, while
+ * the lists keep only the first ones; {@code truncated} tells when some were
+ * left out.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchTrace {
+
+    private final int settledCount;
+    private final int relaxationCount;
+    private final int peakFrontier;
+    private final boolean truncated;
+    private final List<SettledSalePoint> settled;
+    private final List<Relaxation> relaxations;
+
+    /**
+     * Sale point taken off the frontier, with its final cost and how many
+     * sale points were left queued.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SettledSalePoint {
+
+        private final Long id;
+        private final Double cost;
+        private final int frontier;
+    }
+
+    /**
+     * Path looked at from a settled sale point, with the cost it offered to
+     * reach the other end and whether that was an improvement.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Relaxation {
+
+        private final Long fromId;
+        private final Long toId;
+        private final Double cost;
+        private final boolean improved;
+    }
+}
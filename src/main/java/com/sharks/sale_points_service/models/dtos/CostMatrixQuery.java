@@ -0,0 +1,11 @@
+package com.sharks.sale_points_service.models.dtos;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record CostMatrixQuery(@NotEmpty @Size(max = 1000) List<@NotNull Long> sources,
+        @NotEmpty @Size(max = 1000) List<@NotNull Long> targets, boolean includePaths) {
+}
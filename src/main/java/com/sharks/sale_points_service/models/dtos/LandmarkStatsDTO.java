@@ -0,0 +1,44 @@
+package com.sharks.sale_points_service.models.dtos;
+
+import com.sharks.sale_points_service.routing.AltEngine;
+import com.sharks.sale_points_service.routing.LandmarkTables;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+public class LandmarkStatsDTO {
+
+    private int landmarkCount;
+    private String selection;
+    private long memoryBytes;
+    private long graphVersion;
+    private Long tablesVersion;
+    private boolean upToDate;
+    private long guidedQueries;
+    private double averageSettled;
+    private long unreachableQueries;
+    private long fallbackQueries;
+    private long sampledQueries;
+    private double sampledAverageSettled;
+    private double sampledDijkstraAverageSettled;
+
+    public LandmarkStatsDTO(AltEngine engine, RoutingGraph graph) {
+        LandmarkTables tables = engine.getTables();
+        this.landmarkCount = tables != null ? tables.getLandmarkCount() : 0;
+        this.selection = engine.getSelection().name().toLowerCase();
+        this.memoryBytes = tables != null ? tables.memoryBytes() : 0;
+        this.graphVersion = graph.getVersion();
+        this.tablesVersion = tables != null ? tables.getVersion() : null;
+        this.upToDate = tables != null && tables.getVersion() == graph.getVersion();
+        this.guidedQueries = engine.getGuidedQueries();
+        this.averageSettled = engine.getAverageGuidedSettled();
+        this.unreachableQueries = engine.getUnreachableQueries();
+        this.fallbackQueries = engine.getFallbackQueries();
+        this.sampledQueries = engine.getSampledQueries();
+        this.sampledAverageSettled = engine.getSampledAverageGuidedSettled();
+        this.sampledDijkstraAverageSettled = engine.getSampledAverageBaselineSettled();
+    }
+}
@@ -0,0 +1,13 @@
+package com.sharks.sale_points_service.models.dtos;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record PathConstraints(@Size(max = 1000) List<@NotNull Long> avoidSalePoints,
+        @Size(max = 1000) List<@Valid @NotNull PathPair> avoidPaths, @Min(1) Integer maxHops,
+        @Size(max = 25) List<@NotNull Long> via) {
+}
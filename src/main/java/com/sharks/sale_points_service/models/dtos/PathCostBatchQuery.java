@@ -0,0 +1,11 @@
+package com.sharks.sale_points_service.models.dtos;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record PathCostBatchQuery(@NotEmpty @Size(max = 1000) List<@Valid @NotNull PathPair> pairs) {
+}
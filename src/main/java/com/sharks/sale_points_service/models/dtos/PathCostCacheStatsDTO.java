@@ -0,0 +1,29 @@
+package com.sharks.sale_points_service.models.dtos;
+
+import com.sharks.sale_points_service.cache.PathCostCache;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+public class PathCostCacheStatsDTO {
+
+    private int cachedRoutes;
+    private int indexedPaths;
+    private long writes;
+    private long evicted;
+    private long retained;
+    private int lastWriteEvicted;
+    private int lastWriteRetained;
+
+    public PathCostCacheStatsDTO(PathCostCache cache) {
+        this.cachedRoutes = cache.getCachedRoutes();
+        this.indexedPaths = cache.getIndexedPaths();
+        this.writes = cache.getWrites();
+        this.evicted = cache.getEvicted();
+        this.retained = cache.getRetained();
+        this.lastWriteEvicted = cache.getLastWriteEvicted();
+        this.lastWriteRetained = cache.getLastWriteRetained();
+    }
+}
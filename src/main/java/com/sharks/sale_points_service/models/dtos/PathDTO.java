@@ -13,6 +13,16 @@ public class PathDTO {
     private SalePointDTO salePointB;
     private Double cost;
 
+    /**
+     * Flat projection used by the path listing queries, which read both sale
+     * points in the same statement as the path.
+     */
+    public PathDTO(Long idA, String nameA, Long idB, String nameB, Double cost) {
+        this.salePointA = new SalePointDTO(idA, nameA);
+        this.salePointB = new SalePointDTO(idB, nameB);
+        this.cost = cost;
+    }
+
     public PathDTO(Path path) {
         this.salePointA = new SalePointDTO(path.getSalePointA());
         this.salePointB = new SalePointDTO(path.getSalePointB());
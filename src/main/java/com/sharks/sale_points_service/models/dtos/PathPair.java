@@ -0,0 +1,6 @@
+package com.sharks.sale_points_service.models.dtos;
+
+import jakarta.validation.constraints.NotNull;
+
+public record PathPair(@NotNull Long idA, @NotNull Long idB) {
+}
@@ -12,6 +12,11 @@ public class SalePointDTO {
     private Long id;
     private String name;
 
+    public SalePointDTO(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
     public SalePointDTO(SalePoint salePoint) {
         this.id = salePoint.getId();
         this.name = salePoint.getName();
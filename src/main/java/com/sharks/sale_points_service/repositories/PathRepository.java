@@ -2,19 +2,66 @@ package com.sharks.sale_points_service.repositories;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.sharks.sale_points_service.models.Path;
 import com.sharks.sale_points_service.models.PathPK;
+import com.sharks.sale_points_service.models.dtos.PathDTO;
+
+import jakarta.persistence.QueryHint;
 
 public interface PathRepository extends JpaRepository<Path, PathPK> {
 
-    List<Path> findBySalePointA_Id(Long idA);
+    List<Path> findBySalePointA_IdOrSalePointB_Id(Long idA, Long idB);
+
+    @Query("""
+            SELECT new com.sharks.sale_points_service.models.dtos.PathDTO(a.id, a.name, b.id, b.name, p.cost)
+            FROM Path p JOIN p.salePointA a JOIN p.salePointB b""")
+    List<PathDTO> findAllPathDTOs();
+
+    @Query("""
+            SELECT new com.sharks.sale_points_service.models.dtos.PathDTO(a.id, a.name, b.id, b.name, p.cost)
+            FROM Path p JOIN p.salePointA a JOIN p.salePointB b
+            WHERE a.id = :id OR b.id = :id""")
+    List<PathDTO> findPathDTOsBySalePointId(@Param("id") Long id);
 
-    List<Path> findBySalePointB_Id(Long idB);
+    /**
+     * The path stored under the given key, read from the database even if the
+     * entity is already loaded.
+     */
+    @Query("""
+            SELECT new com.sharks.sale_points_service.models.dtos.PathDTO(a.id, a.name, b.id, b.name, p.cost)
+            FROM Path p JOIN p.salePointA a JOIN p.salePointB b
+            WHERE a.id = :idA AND b.id = :idB""")
+    Optional<PathDTO> findPathDTOByKey(@Param("idA") Long idA, @Param("idB") Long idB);
 
-    Optional<Path> findBySalePointA_IdAndSalePointB_Id(Long idA, Long idB);
+    /**
+     * Paths whose key comes after the given one, in key order. The seek is a
+     * row value comparison on the path's own key columns, which the database
+     * runs as a single range scan of the primary key index.
+     */
+    @Query("""
+            SELECT new com.sharks.sale_points_service.models.dtos.PathDTO(a.id, a.name, b.id, b.name, p.cost)
+            FROM Path p JOIN p.salePointA a JOIN p.salePointB b
+            WHERE (p.salePointA.id, p.salePointB.id) > (:afterA, :afterB)
+            ORDER BY p.salePointA.id, p.salePointB.id""")
+    List<PathDTO> findPathDTOsAfter(@Param("afterA") Long afterA, @Param("afterB") Long afterB, Limit limit);
 
-    Boolean existsBySalePointA_IdAndSalePointB_Id(Long idA, Long idB);
+    /**
+     * All paths in key order, read through a forward-only cursor. Must be
+     * consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new com.sharks.sale_points_service.models.dtos.PathDTO(a.id, a.name, b.id, b.name, p.cost)
+            FROM Path p JOIN p.salePointA a JOIN p.salePointB b
+            ORDER BY a.id, b.id""")
+    Stream<PathDTO> streamAllPathDTOs();
 }
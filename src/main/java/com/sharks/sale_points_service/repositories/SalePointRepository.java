@@ -1,10 +1,49 @@
 package com.sharks.sale_points_service.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.models.dtos.SalePointDTO;
+
+import jakarta.persistence.QueryHint;
 
 public interface SalePointRepository extends JpaRepository<SalePoint, Long> {
 
     Boolean existsByName(String name);
+
+    List<SalePoint> findByNameIn(Collection<String> names);
+
+    /**
+     * The sale point with the given id, read from the database even if the
+     * entity is already loaded.
+     */
+    @Query("""
+            SELECT new com.sharks.sale_points_service.models.dtos.SalePointDTO(s.id, s.name)
+            FROM SalePoint s WHERE s.id = :id""")
+    Optional<SalePointDTO> findSalePointDTOById(@Param("id") Long id);
+
+    @Query("""
+            SELECT new com.sharks.sale_points_service.models.dtos.SalePointDTO(s.id, s.name)
+            FROM SalePoint s WHERE s.id > :after ORDER BY s.id""")
+    List<SalePointDTO> findSalePointDTOsAfter(@Param("after") Long after, Limit limit);
+
+    /**
+     * All sale points in id order, read through a forward-only cursor. Must be
+     * consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new com.sharks.sale_points_service.models.dtos.SalePointDTO(s.id, s.name)
+            FROM SalePoint s ORDER BY s.id""")
+    Stream<SalePointDTO> streamAllSalePointDTOs();
 }
@@ -0,0 +1,161 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A* search guided by landmark lower bounds (ALT).
+ * <p>
+ * Landmark tables belong to one graph snapshot and are rebuilt on a background
+ * executor every time the graph changes. Until the tables for the current
+ * snapshot are ready, queries run as plain Dijkstra, which is the same search
+ * with a zero bound. Every {@code sampleEvery}-th guided query is also run
+ * through a plain {@link DijkstraEngine} to measure how much work the
+ * landmarks save.
+ */
+public class AltEngine implements RoutingEngine, GraphListener {
+
+    private final int landmarkCount;
+    private final LandmarkSelection selection;
+    private final int sampleEvery;
+    private final BackgroundIndex<LandmarkTables> tables;
+    private final DijkstraEngine baseline = new DijkstraEngine();
+    private final ThreadLocal<SearchSpace> spaces = ThreadLocal.withInitial(SearchSpace::new);
+
+    private final AtomicLong guidedQueries = new AtomicLong();
+    private final LongAdder guidedSettled = new LongAdder();
+    private final LongAdder fallbackQueries = new LongAdder();
+    private final LongAdder unreachableQueries = new LongAdder();
+    private final LongAdder sampledQueries = new LongAdder();
+    private final LongAdder sampledGuidedSettled = new LongAdder();
+    private final LongAdder sampledBaselineSettled = new LongAdder();
+
+    public AltEngine(int landmarkCount, LandmarkSelection selection, Executor executor, int sampleEvery) {
+        this.landmarkCount = landmarkCount;
+        this.selection = selection;
+        this.sampleEvery = sampleEvery;
+        this.tables = new BackgroundIndex<>("landmark tables",
+                graph -> LandmarkTables.compute(graph, landmarkCount, selection), executor);
+    }
+
+    @Override
+    public void onGraphChanged(RoutingGraph graph) {
+        tables.schedule(graph);
+    }
+
+    /**
+     * Builds the tables for the graph right away, on the calling thread.
+     */
+    public void rebuild(RoutingGraph graph) {
+        tables.rebuild(graph);
+    }
+
+    @Override
+    public Route route(RoutingGraph graph, int source, int target) {
+        LandmarkTables current = tables.forGraph(graph);
+        if (current == null) {
+            fallbackQueries.increment();
+            return search(graph, null, source, target);
+        }
+        if (current.lowerBound(source, target) == Double.POSITIVE_INFINITY) {
+            unreachableQueries.increment();
+            return null;
+        }
+
+        Route route = search(graph, current, source, target);
+        if (route == null) {
+            unreachableQueries.increment();
+            return null;
+        }
+        long query = guidedQueries.incrementAndGet();
+        guidedSettled.add(route.settled());
+        if (sampleEvery > 0 && query % sampleEvery == 0) {
+            Route reference = baseline.route(graph, source, target);
+            sampledQueries.increment();
+            sampledGuidedSettled.add(route.settled());
+            sampledBaselineSettled.add(reference.settled());
+        }
+        return route;
+    }
+
+    private Route search(RoutingGraph graph, LandmarkTables bounds, int source, int target) {
+        SearchSpace space = spaces.get();
+        space.reset(graph.capacity());
+        IndexedDaryHeap heap = space.heap();
+        space.relax(source, -1, 0.0);
+        int settled = 0;
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            space.settle(node);
+            settled++;
+            if (node == target)
+                return Route.fromParents(space, target, settled);
+
+            double distance = space.distance(node);
+            int[] neighbors = graph.neighbors(node);
+            double[] costs = graph.costs(node);
+            for (int i = 0; i < neighbors.length; i++) {
+                int next = neighbors[i];
+                double candidate = distance + costs[i];
+                if (space.isSettled(next) || candidate >= space.distance(next))
+                    continue;
+                double bound = bounds != null ? bounds.lowerBound(next, target) : 0.0;
+                space.relax(next, node, candidate, candidate + bound);
+            }
+        }
+        return null;
+    }
+
+    public int getLandmarkCount() {
+        return landmarkCount;
+    }
+
+    public LandmarkSelection getSelection() {
+        return selection;
+    }
+
+    /**
+     * Tables in use, or null while the first ones are being computed.
+     */
+    public LandmarkTables getTables() {
+        return tables.latest();
+    }
+
+    public long getGuidedQueries() {
+        return guidedQueries.get();
+    }
+
+    public double getAverageGuidedSettled() {
+        long queries = guidedQueries.get();
+        return queries == 0 ? 0.0 : guidedSettled.doubleValue() / queries;
+    }
+
+    /**
+     * Queries with tables but no route, most of them told apart by the
+     * landmarks without searching. They are not guided queries, so they do
+     * not lower the average settled count.
+     */
+    public long getUnreachableQueries() {
+        return unreachableQueries.sum();
+    }
+
+    public long getFallbackQueries() {
+        return fallbackQueries.sum();
+    }
+
+    public long getSampledQueries() {
+        return sampledQueries.sum();
+    }
+
+    public double getSampledAverageGuidedSettled() {
+        long samples = sampledQueries.sum();
+        return samples == 0 ? 0.0 : sampledGuidedSettled.doubleValue() / samples;
+    }
+
+    public double getSampledAverageBaselineSettled() {
+        long samples = sampledQueries.sum();
+        return samples == 0 ? 0.0 : sampledBaselineSettled.doubleValue() / samples;
+    }
+}
@@ -0,0 +1,172 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The K cheapest loopless routes between two nodes, by Yen's algorithm: every
+ * route after the first is the cheapest candidate that leaves an accepted
+ * route at some node (the spur) and reaches the target without reusing the
+ * accepted prefix or any path already taken from that prefix.
+ * <p>
+ * Two things keep it well below K independent searches:
+ * <ul>
+ * <li>spur searches are A* guided by a complete shortest path tree rooted at
+ * the target, whose distances are exact on the full graph and can only
+ * underestimate once paths and nodes are blocked, so they mostly walk straight
+ * to the target;</li>
+ * <li>as in Lawler's variant, a route only spurs from the node where it left
+ * its parent route onwards, since earlier spurs were tried on the parent.</li>
+ * </ul>
+ */
+public final class AlternativeRoutes {
+
+    private final RoutingGraph graph;
+    private final ShortestPathTree toTarget;
+    private final int target;
+    private final SearchSpace space = new SearchSpace();
+    private final int[] blocked;
+    private int stamp;
+
+    private AlternativeRoutes(RoutingGraph graph, ShortestPathTree toTarget) {
+        this.graph = graph;
+        this.toTarget = toTarget;
+        this.target = toTarget.getSource();
+        this.blocked = new int[graph.capacity()];
+    }
+
+    /**
+     * Up to {@code k} loopless routes from the source to the root of the tree,
+     * cheapest first, or none if the root is unreachable.
+     *
+     * @param toTarget complete shortest path tree rooted at the target
+     */
+    public static List<Route> find(RoutingGraph graph, ShortestPathTree toTarget, int source, int k) {
+        if (!toTarget.isComplete() || toTarget.getVersion() != graph.getVersion())
+            throw new IllegalArgumentException("The tree must be complete and grown on this snapshot");
+        Route first = toTarget.route(source);
+        if (first == null || k <= 0)
+            return List.of();
+        return new AlternativeRoutes(graph, toTarget).search(first.reversed(), k);
+    }
+
+    private List<Route> search(Route first, int k) {
+        List<Route> accepted = new ArrayList<>(k);
+        List<Integer> deviations = new ArrayList<>(k);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+        Set<Sequence> seen = new HashSet<>();
+        accepted.add(first);
+        deviations.add(0);
+        seen.add(new Sequence(first.nodes()));
+
+        while (accepted.size() < k) {
+            Route previous = accepted.get(accepted.size() - 1);
+            int[] nodes = previous.nodes();
+            for (int spur = deviations.get(deviations.size() - 1); spur < nodes.length - 1; spur++) {
+                Route candidate = spurRoute(previous, spur, accepted);
+                if (candidate != null && seen.add(new Sequence(candidate.nodes())))
+                    candidates.add(new Candidate(candidate, spur));
+            }
+            Candidate next = candidates.poll();
+            if (next == null)
+                break;
+            accepted.add(next.route());
+            deviations.add(next.deviation());
+        }
+        return accepted;
+    }
+
+    /**
+     * Cheapest route that follows the given one up to the spur index and then
+     * leaves it by a path no accepted route with the same prefix takes.
+     */
+    private Route spurRoute(Route previous, int spur, List<Route> accepted) {
+        int[] root = previous.nodes();
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(blocked, 0);
+            stamp = 1;
+        }
+        for (int i = 0; i < spur; i++)
+            blocked[root[i]] = stamp;
+        Set<Integer> takenNext = new HashSet<>();
+        for (Route route : accepted) {
+            int[] nodes = route.nodes();
+            if (nodes.length > spur + 1 && Arrays.equals(nodes, 0, spur + 1, root, 0, spur + 1))
+                takenNext.add(nodes[spur + 1]);
+        }
+
+        Route spurPath = search(root[spur], takenNext);
+        if (spurPath == null)
+            return null;
+        int[] spurNodes = spurPath.nodes();
+        int length = spur + spurNodes.length;
+        int[] nodes = Arrays.copyOf(root, length);
+        double[] distances = Arrays.copyOf(previous.distances(), length);
+        for (int i = 1; i < spurNodes.length; i++) {
+            nodes[spur + i] = spurNodes[i];
+            distances[spur + i] = previous.distances()[spur] + spurPath.distances()[i];
+        }
+        return new Route(nodes, distances, spurPath.settled(), spurPath.relaxed(), spurPath.peakFrontier());
+    }
+
+    /**
+     * A* from the spur node to the target, skipping blocked nodes and the paths
+     * from the spur node to the given neighbors.
+     */
+    private Route search(int spurNode, Set<Integer> takenNext) {
+        space.reset(graph.capacity());
+        IndexedDaryHeap heap = space.heap();
+        space.relax(spurNode, -1, 0.0, toTarget.distance(spurNode));
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            space.settle(node);
+            settled++;
+            if (node == target)
+                return Route.fromParents(space, target, settled);
+
+            double distance = space.distance(node);
+            int[] neighbors = graph.neighbors(node);
+            double[] costs = graph.costs(node);
+            for (int i = 0; i < neighbors.length; i++) {
+                int next = neighbors[i];
+                if (space.isSettled(next) || blocked[next] == stamp
+                        || node == spurNode && takenNext.contains(next))
+                    continue;
+                double remaining = toTarget.distance(next);
+                if (remaining < Double.POSITIVE_INFINITY)
+                    space.relax(next, node, distance + costs[i], distance + costs[i] + remaining);
+            }
+        }
+        return null;
+    }
+
+    private record Candidate(Route route, int deviation) implements Comparable<Candidate> {
+
+        @Override
+        public int compareTo(Candidate other) {
+            return Double.compare(route.totalCost(), other.route.totalCost());
+        }
+    }
+
+    /**
+     * Node sequence compared by content, to keep a candidate from being queued
+     * twice.
+     */
+    private record Sequence(int[] nodes) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Sequence sequence && Arrays.equals(nodes, sequence.nodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(nodes);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Preprocessed data derived from a graph snapshot and rebuilt on an executor
+ * whenever a new snapshot is published. Snapshots published while a build is
+ * running are coalesced, so only the latest one is built next.
+ */
+@Slf4j
+final class BackgroundIndex<T> {
+
+    private final String name;
+    private final Function<RoutingGraph, T> builder;
+    private final Executor executor;
+    private final AtomicReference<RoutingGraph> pending = new AtomicReference<>();
+    private volatile Built<T> built;
+
+    BackgroundIndex(String name, Function<RoutingGraph, T> builder, Executor executor) {
+        this.name = name;
+        this.builder = builder;
+        this.executor = executor;
+    }
+
+    void schedule(RoutingGraph graph) {
+        if (pending.getAndSet(graph) == null)
+            executor.execute(this::rebuildPending);
+    }
+
+    /**
+     * Builds the index for the graph on the calling thread.
+     */
+    void rebuild(RoutingGraph graph) {
+        long start = System.nanoTime();
+        publish(graph, builder.apply(graph));
+        log.info("Built {} for graph version {} in {} ms", name, graph.getVersion(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Publishes an index for the graph obtained some other way, e.g. derived
+     * from the previous one, unless one for a newer snapshot is already there.
+     */
+    synchronized void publish(RoutingGraph graph, T value) {
+        Built<T> current = built;
+        if (current == null || current.version() <= graph.getVersion())
+            built = new Built<>(graph.getVersion(), value);
+    }
+
+    /**
+     * Latest index built, whatever snapshot it belongs to, or null if none is ready yet.
+     */
+    T latest() {
+        Built<T> current = built;
+        return current != null ? current.value() : null;
+    }
+
+    /**
+     * Index built for exactly this snapshot, or null if it is stale or missing.
+     */
+    T forGraph(RoutingGraph graph) {
+        Built<T> current = built;
+        return current != null && current.version() == graph.getVersion() ? current.value() : null;
+    }
+
+    private void rebuildPending() {
+        RoutingGraph graph;
+        while ((graph = pending.get()) != null) {
+            try {
+                rebuild(graph);
+            } catch (RuntimeException e) {
+                log.error("Failed to build {} for graph version {}", name, graph.getVersion(), e);
+            }
+            pending.compareAndSet(graph, null);
+        }
+    }
+
+    private record Built<T>(long version, T value) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.sharks.sale_points_service.routing;
+
+/**
+ * Dijkstra grown from both ends at once. Paths are undirected, so the backward
+ * search runs over the same adjacency rows as the forward one. The cheapest
+ * connection seen between the two searches is kept, and the search stops once
+ * the two frontier minimums add up to at least its cost, at which point no
+ * unexplored connection can be cheaper.
+ */
+public class BidirectionalDijkstraEngine implements RoutingEngine {
+
+    private final ThreadLocal<Meeting> meetings = ThreadLocal.withInitial(Meeting::new);
+
+    @Override
+    public Route route(RoutingGraph graph, int source, int target) {
+        Meeting meeting = meetings.get();
+        SearchSpace forward = meeting.forward;
+        SearchSpace backward = meeting.backward;
+        forward.reset(graph.capacity());
+        backward.reset(graph.capacity());
+        forward.relax(source, -1, 0.0);
+        backward.relax(target, -1, 0.0);
+        meeting.update(-1, -1, 0.0, Double.POSITIVE_INFINITY);
+        if (source == target)
+            meeting.update(source, target, 0.0, 0.0);
+        int settled = 0;
+
+        while (true) {
+            IndexedDaryHeap forwardHeap = forward.heap();
+            IndexedDaryHeap backwardHeap = backward.heap();
+            double forwardTop = forwardHeap.isEmpty() ? Double.POSITIVE_INFINITY : forwardHeap.peekKey();
+            double backwardTop = backwardHeap.isEmpty() ? Double.POSITIVE_INFINITY : backwardHeap.peekKey();
+            if (forwardTop + backwardTop >= meeting.cost)
+                break;
+            if (forwardTop <= backwardTop)
+                expand(graph, forward, backward, meeting, false);
+            else
+                expand(graph, backward, forward, meeting, true);
+            settled++;
+        }
+
+        if (meeting.cost == Double.POSITIVE_INFINITY)
+            return null;
+        return join(meeting, settled);
+    }
+
+    private void expand(RoutingGraph graph, SearchSpace space, SearchSpace opposite, Meeting meeting,
+            boolean reversed) {
+        int node = space.heap().poll();
+        space.settle(node);
+        double distance = space.distance(node);
+        int[] neighbors = graph.neighbors(node);
+        double[] costs = graph.costs(node);
+        for (int i = 0; i < neighbors.length; i++) {
+            int next = neighbors[i];
+            if (space.isSettled(next))
+                continue;
+            space.relax(next, node, distance + costs[i]);
+            if (opposite.isReached(next)) {
+                double cost = distance + costs[i] + opposite.distance(next);
+                if (cost < meeting.cost) {
+                    if (reversed)
+                        meeting.update(next, node, costs[i], cost);
+                    else
+                        meeting.update(node, next, costs[i], cost);
+                }
+            }
+        }
+    }
+
+    private Route join(Meeting meeting, int settled) {
+        SearchSpace forward = meeting.forward;
+        SearchSpace backward = meeting.backward;
+        int forwardLength = 0;
+        for (int node = meeting.forwardNode; node >= 0; node = forward.parent(node))
+            forwardLength++;
+        int backwardLength = 0;
+        if (meeting.backwardNode != meeting.forwardNode) {
+            for (int node = meeting.backwardNode; node >= 0; node = backward.parent(node))
+                backwardLength++;
+        }
+
+        int[] nodes = new int[forwardLength + backwardLength];
+        double[] distances = new double[nodes.length];
+        for (int node = meeting.forwardNode, i = forwardLength - 1; node >= 0; node = forward.parent(node), i--) {
+            nodes[i] = node;
+            distances[i] = forward.distance(node);
+        }
+        if (backwardLength > 0) {
+            int i = forwardLength;
+            int node = meeting.backwardNode;
+            nodes[i] = node;
+            distances[i] = distances[i - 1] + meeting.edgeCost;
+            for (int next = backward.parent(node); next >= 0; node = next, next = backward.parent(next)) {
+                i++;
+                nodes[i] = next;
+                distances[i] = distances[i - 1] + backward.distance(node) - backward.distance(next);
+            }
+        }
+        return new Route(nodes, distances, settled, forward.relaxed() + backward.relaxed(),
+                forward.peakFrontier() + backward.peakFrontier());
+    }
+
+    /**
+     * Per-thread search state: both search spaces and the cheapest connection
+     * found between them so far, given by its last forward node, first backward
+     * node and the cost of the path joining them.
+     */
+    private static final class Meeting {
+
+        private final SearchSpace forward = new SearchSpace();
+        private final SearchSpace backward = new SearchSpace();
+        private int forwardNode;
+        private int backwardNode;
+        private double edgeCost;
+        private double cost;
+
+        private void update(int forwardNode, int backwardNode, double edgeCost, double cost) {
+            this.forwardNode = forwardNode;
+            this.backwardNode = backwardNode;
+            this.edgeCost = edgeCost;
+            this.cost = cost;
+        }
+    }
+}
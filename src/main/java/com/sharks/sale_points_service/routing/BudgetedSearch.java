@@ -0,0 +1,51 @@
+package com.sharks.sale_points_service.routing;
+
+/**
+ * Dijkstra from one source that hands over every node within a cost budget as
+ * soon as it is settled, so nodes arrive cheapest first and nothing is kept
+ * besides the search state, however many of them the budget covers.
+ */
+public final class BudgetedSearch {
+
+    private BudgetedSearch() {
+    }
+
+    @FunctionalInterface
+    public interface SettledListener {
+
+        /**
+         * @param parent node the cheapest path arrives from, or -1 for the
+         *               source
+         */
+        void settled(int node, int parent, double cost);
+    }
+
+    /**
+     * Settles the nodes reachable from the source for at most the given cost,
+     * in increasing cost order, returning how many there were.
+     */
+    public static int run(RoutingGraph graph, int source, double maxCost, SettledListener listener) {
+        SearchSpace space = new SearchSpace();
+        space.reset(graph.capacity());
+        IndexedDaryHeap heap = space.heap();
+        space.relax(source, -1, 0.0);
+        int settled = 0;
+
+        while (!heap.isEmpty() && heap.peekKey() <= maxCost) {
+            int node = heap.poll();
+            space.settle(node);
+            settled++;
+            double distance = space.distance(node);
+            listener.settled(node, space.parent(node), distance);
+
+            int[] neighbors = graph.neighbors(node);
+            double[] costs = graph.costs(node);
+            for (int i = 0; i < neighbors.length; i++) {
+                int next = neighbors[i];
+                if (!space.isSettled(next) && distance + costs[i] <= maxCost)
+                    space.relax(next, node, distance + costs[i]);
+            }
+        }
+        return settled;
+    }
+}
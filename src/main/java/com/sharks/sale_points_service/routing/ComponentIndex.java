@@ -0,0 +1,52 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps the {@link ConnectedComponents} of the latest snapshot. Snapshots that
+ * only add paths or sale points get theirs right away, derived from the
+ * previous ones; any removal may split a component, so those snapshots have
+ * theirs rebuilt from scratch on the executor.
+ */
+public class ComponentIndex implements GraphListener {
+
+    private final BackgroundIndex<ConnectedComponents> components;
+    private RoutingGraph previous;
+
+    public ComponentIndex(Executor executor) {
+        this.components = new BackgroundIndex<>("connected components", ConnectedComponents::build, executor);
+    }
+
+    @Override
+    public void onGraphChanged(RoutingGraph graph) {
+        previous = graph;
+        components.schedule(graph);
+    }
+
+    @Override
+    public void onGraphChanged(RoutingGraph graph, List<PathChange> changes) {
+        ConnectedComponents current = previous != null ? components.forGraph(previous) : null;
+        previous = graph;
+        if (current == null || changes.stream().anyMatch(PathChange::isRemoval))
+            components.schedule(graph);
+        else
+            components.publish(graph, current.withAddedPaths(graph, changes));
+    }
+
+    /**
+     * Components of exactly this snapshot, or null while they are rebuilt.
+     */
+    public ConnectedComponents forGraph(RoutingGraph graph) {
+        return components.forGraph(graph);
+    }
+
+    /**
+     * Components of this snapshot, found on the calling thread if they are not
+     * ready yet.
+     */
+    public ConnectedComponents get(RoutingGraph graph) {
+        ConnectedComponents current = components.forGraph(graph);
+        return current != null ? current : ConnectedComponents.build(graph);
+    }
+}
@@ -0,0 +1,135 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Connected components of a graph snapshot, the groups of sale points that can
+ * reach each other. Every node is labelled with a representative node of its
+ * component, so telling whether two sale points are connected takes two array
+ * reads. A component is identified by the lowest sale point id in it.
+ * <p>
+ * Components are found with union-find over every path. When a snapshot only
+ * adds paths or sale points, its components are derived from the previous ones
+ * instead, merging the components the new paths join in one pass over the
+ * labels.
+ */
+public final class ConnectedComponents {
+
+    private final long version;
+    private final int[] labels;
+    private final int[] sizes;
+    private final long[] lowestIds;
+
+    private ConnectedComponents(long version, int[] labels, int[] sizes, long[] lowestIds) {
+        this.version = version;
+        this.labels = labels;
+        this.sizes = sizes;
+        this.lowestIds = lowestIds;
+    }
+
+    public static ConnectedComponents build(RoutingGraph graph) {
+        int capacity = graph.capacity();
+        int[] parents = new int[capacity];
+        int[] sizes = new int[capacity];
+        long[] lowestIds = new long[capacity];
+        for (int node = 0; node < capacity; node++) {
+            parents[node] = node;
+            sizes[node] = 1;
+            lowestIds[node] = graph.idAt(node);
+        }
+        for (int node = 0; node < capacity; node++) {
+            if (!graph.contains(node))
+                continue;
+            for (int next : graph.neighbors(node)) {
+                if (next > node)
+                    union(parents, sizes, lowestIds, node, next);
+            }
+        }
+        for (int node = 0; node < capacity; node++)
+            parents[node] = find(parents, node);
+        return new ConnectedComponents(graph.getVersion(), parents, sizes, lowestIds);
+    }
+
+    /**
+     * Components of a snapshot edited from this one without removing any path
+     * or sale point with paths.
+     */
+    public ConnectedComponents withAddedPaths(RoutingGraph graph, List<PathChange> changes) {
+        int capacity = graph.capacity();
+        int[] nextLabels = Arrays.copyOf(labels, capacity);
+        int[] nextSizes = Arrays.copyOf(sizes, capacity);
+        long[] nextLowestIds = Arrays.copyOf(lowestIds, capacity);
+        int[] parents = new int[capacity];
+        for (int node = 0; node < capacity; node++) {
+            parents[node] = node;
+            if (node >= labels.length) {
+                nextLabels[node] = node;
+                nextSizes[node] = 1;
+                nextLowestIds[node] = graph.idAt(node);
+            }
+        }
+
+        boolean merged = false;
+        for (PathChange change : changes) {
+            if (change.oldCost() == Double.POSITIVE_INFINITY && change.newCost() < Double.POSITIVE_INFINITY)
+                merged |= union(parents, nextSizes, nextLowestIds, nextLabels[change.nodeA()],
+                        nextLabels[change.nodeB()]);
+        }
+        if (merged) {
+            for (int node = 0; node < capacity; node++)
+                nextLabels[node] = find(parents, nextLabels[node]);
+        }
+        return new ConnectedComponents(graph.getVersion(), nextLabels, nextSizes, nextLowestIds);
+    }
+
+    /**
+     * Joins the components of both nodes under the root of the larger one,
+     * returning whether they were apart.
+     */
+    private static boolean union(int[] parents, int[] sizes, long[] lowestIds, int a, int b) {
+        int rootA = find(parents, a);
+        int rootB = find(parents, b);
+        if (rootA == rootB)
+            return false;
+        if (sizes[rootA] < sizes[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parents[rootB] = rootA;
+        sizes[rootA] += sizes[rootB];
+        lowestIds[rootA] = Math.min(lowestIds[rootA], lowestIds[rootB]);
+        return true;
+    }
+
+    private static int find(int[] parents, int node) {
+        while (parents[node] != node) {
+            parents[node] = parents[parents[node]];
+            node = parents[node];
+        }
+        return node;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean connected(int a, int b) {
+        return labels[a] == labels[b];
+    }
+
+    /**
+     * Lowest sale point id in the component of the node.
+     */
+    public long componentId(int node) {
+        return lowestIds[labels[node]];
+    }
+
+    /**
+     * Sale points in the component of the node.
+     */
+    public int componentSize(int node) {
+        return sizes[labels[node]];
+    }
+}
@@ -0,0 +1,102 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Cheapest route under {@link RouteConstraints}, found on the snapshot as it
+ * is: excluded nodes and paths are skipped while searching instead of being
+ * removed from the graph.
+ * <p>
+ * The search runs over labels rather than nodes. A label is a way of reaching
+ * a node, with its cost, the number of paths taken and how many via points it
+ * has visited so far, so the same node can be reached once per stage of the
+ * via list and, when hops are limited, once per hop count. Labels are settled
+ * cheapest first, fewer hops on ties, and a label is dropped when one settled
+ * at the same node and stage took no more hops, since it can go anywhere the
+ * dropped one could for less. Without a hop limit this is Dijkstra over
+ * (node, stage) pairs.
+ */
+public final class ConstrainedSearch {
+
+    private ConstrainedSearch() {
+    }
+
+    /**
+     * Cheapest route from the source to the target meeting the constraints, or
+     * null if there is none.
+     */
+    public static Route route(RoutingGraph graph, int source, int target, RouteConstraints constraints) {
+        int[] via = constraints.via();
+        int capacity = graph.capacity();
+        boolean limited = constraints.limitsHops();
+        int[] settledHops = new int[(via.length + 1) * capacity];
+        Arrays.fill(settledHops, Integer.MAX_VALUE);
+        PriorityQueue<Label> frontier = new PriorityQueue<>();
+        frontier.add(new Label(source, advance(via, 0, source), 0, 0.0, null));
+        int settled = 0;
+        int relaxed = 0;
+        int peakFrontier = 1;
+
+        while (!frontier.isEmpty()) {
+            Label label = frontier.poll();
+            int state = label.stage() * capacity + label.node();
+            if (settledHops[state] <= label.hops())
+                continue;
+            settledHops[state] = label.hops();
+            settled++;
+            if (label.node() == target && label.stage() == via.length)
+                return label.toRoute(settled, relaxed, peakFrontier);
+            if (label.hops() >= constraints.maxHops())
+                continue;
+
+            int hops = limited ? label.hops() + 1 : 0;
+            int[] neighbors = graph.neighbors(label.node());
+            double[] costs = graph.costs(label.node());
+            for (int i = 0; i < neighbors.length; i++) {
+                int next = neighbors[i];
+                if (constraints.isExcluded(next) || constraints.isExcluded(label.node(), next))
+                    continue;
+                relaxed++;
+                int stage = advance(via, label.stage(), next);
+                if (settledHops[stage * capacity + next] > hops)
+                    frontier.add(new Label(next, stage, hops, label.cost() + costs[i], label));
+            }
+            peakFrontier = Math.max(peakFrontier, frontier.size());
+        }
+        return null;
+    }
+
+    /**
+     * Stage after arriving at the node, past every via point it is next in line
+     * for.
+     */
+    private static int advance(int[] via, int stage, int node) {
+        while (stage < via.length && via[stage] == node)
+            stage++;
+        return stage;
+    }
+
+    private record Label(int node, int stage, int hops, double cost, Label parent) implements Comparable<Label> {
+
+        @Override
+        public int compareTo(Label other) {
+            int byCost = Double.compare(cost, other.cost);
+            return byCost != 0 ? byCost : Integer.compare(hops, other.hops);
+        }
+
+        Route toRoute(int settled, int relaxed, int peakFrontier) {
+            int length = 0;
+            for (Label label = this; label != null; label = label.parent)
+                length++;
+            int[] nodes = new int[length];
+            double[] distances = new double[length];
+            int i = length;
+            for (Label label = this; label != null; label = label.parent) {
+                nodes[--i] = label.node;
+                distances[i] = label.cost;
+            }
+            return new Route(nodes, distances, settled, relaxed, peakFrontier);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.Arrays;
+
+/**
+ * Contraction hierarchy of one graph snapshot.
+ * <p>
+ * Nodes are contracted one at a time in order of importance; whenever removing
+ * a node would lengthen the cheapest path between two of its remaining
+ * neighbors, a shortcut edge remembering the contracted middle node is added
+ * between them. What is kept is the upward graph: for every node, the edges to
+ * neighbors contracted after it. Since paths are undirected, the same upward
+ * graph serves the forward and the backward search of a query.
+ */
+public final class ContractionHierarchy {
+
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final long version;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final int[] middles;
+    private final int shortcutCount;
+
+    private ContractionHierarchy(long version, int[] offsets, int[] targets, double[] weights, int[] middles,
+            int shortcutCount) {
+        this.version = version;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.middles = middles;
+        this.shortcutCount = shortcutCount;
+    }
+
+    public static ContractionHierarchy build(RoutingGraph graph) {
+        return new Builder(graph).contractAll();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getShortcutCount() {
+        return shortcutCount;
+    }
+
+    public int getUpwardEdgeCount() {
+        return targets.length;
+    }
+
+    public long memoryBytes() {
+        return (long) offsets.length * Integer.BYTES + (long) targets.length * Integer.BYTES
+                + (long) weights.length * Double.BYTES + (long) middles.length * Integer.BYTES;
+    }
+
+    int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    int lastEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    int target(int edge) {
+        return targets[edge];
+    }
+
+    double weight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Contracted node a shortcut goes through, or -1 for an original path.
+     */
+    int middle(int edge) {
+        return middles[edge];
+    }
+
+    /**
+     * Upward edge between the two nodes, looked up from the one contracted first.
+     */
+    int findEdge(int lower, int upper) {
+        for (int edge = offsets[lower]; edge < offsets[lower + 1]; edge++) {
+            if (targets[edge] == upper)
+                return edge;
+        }
+        return -1;
+    }
+
+    private static final class Builder {
+
+        private final RoutingGraph graph;
+        private final int capacity;
+        private final int[][] neighbors;
+        private final double[][] costs;
+        private final int[][] viaNodes;
+        private final int[] degrees;
+        private final boolean[] contracted;
+        private final int[] deletedNeighbors;
+        private final SearchSpace witness = new SearchSpace();
+        private int[] upTargets = new int[16];
+        private double[] upWeights = new double[16];
+        private int[] upMiddles = new int[16];
+        private int upSize;
+        private int shortcuts;
+
+        private Builder(RoutingGraph graph) {
+            this.graph = graph;
+            this.capacity = graph.capacity();
+            this.neighbors = new int[capacity][];
+            this.costs = new double[capacity][];
+            this.viaNodes = new int[capacity][];
+            this.degrees = new int[capacity];
+            this.contracted = new boolean[capacity];
+            this.deletedNeighbors = new int[capacity];
+            for (int node = 0; node < capacity; node++) {
+                neighbors[node] = graph.neighbors(node).clone();
+                costs[node] = graph.costs(node).clone();
+                viaNodes[node] = new int[neighbors[node].length];
+                Arrays.fill(viaNodes[node], -1);
+                degrees[node] = neighbors[node].length;
+            }
+        }
+
+        private ContractionHierarchy contractAll() {
+            IndexedDaryHeap queue = new IndexedDaryHeap();
+            queue.ensureCapacity(capacity);
+            for (int node = 0; node < capacity; node++) {
+                if (graph.contains(node))
+                    queue.insertOrDecrease(node, priority(node));
+            }
+            int[] counts = new int[capacity + 1];
+            int[] edgeStarts = new int[capacity];
+
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                double priority = priority(node);
+                if (!queue.isEmpty() && priority > queue.peekKey()) {
+                    queue.insertOrDecrease(node, priority);
+                    continue;
+                }
+                edgeStarts[node] = upSize;
+                recordUpwardEdges(node);
+                counts[node] = upSize - edgeStarts[node];
+                contract(node, false);
+                contracted[node] = true;
+                for (int i = 0; i < degrees[node]; i++)
+                    deletedNeighbors[neighbors[node][i]]++;
+            }
+            return compact(counts, edgeStarts);
+        }
+
+        /**
+         * Edge difference plus the number of already contracted neighbors, which
+         * spreads contraction evenly over the graph.
+         */
+        private double priority(int node) {
+            int remaining = 0;
+            for (int i = 0; i < degrees[node]; i++) {
+                if (!contracted[neighbors[node][i]])
+                    remaining++;
+            }
+            return contract(node, true) - remaining + deletedNeighbors[node];
+        }
+
+        /**
+         * Adds the shortcuts needed to remove the node, or only counts them when
+         * simulating.
+         */
+        private int contract(int node, boolean simulate) {
+            int added = 0;
+            int[] row = neighbors[node];
+            double[] rowCosts = costs[node];
+            for (int i = 0; i < degrees[node]; i++) {
+                int from = row[i];
+                if (contracted[from])
+                    continue;
+                double limit = -1.0;
+                for (int j = i + 1; j < degrees[node]; j++) {
+                    if (!contracted[row[j]])
+                        limit = Math.max(limit, rowCosts[i] + rowCosts[j]);
+                }
+                if (limit < 0.0)
+                    continue;
+                witnessSearch(from, node, limit);
+                for (int j = i + 1; j < degrees[node]; j++) {
+                    int to = row[j];
+                    if (contracted[to])
+                        continue;
+                    double shortcut = rowCosts[i] + rowCosts[j];
+                    if (witness.distance(to) <= shortcut)
+                        continue;
+                    added++;
+                    if (!simulate) {
+                        addEdge(from, to, shortcut, node);
+                        addEdge(to, from, shortcut, node);
+                    }
+                }
+            }
+            return added;
+        }
+
+        /**
+         * Bounded Dijkstra from the source that ignores the node being contracted,
+         * looking for paths at most as expensive as the candidate shortcuts.
+         */
+        private void witnessSearch(int source, int excluded, double limit) {
+            witness.reset(capacity);
+            IndexedDaryHeap heap = witness.heap();
+            witness.relax(source, -1, 0.0);
+            int settled = 0;
+            while (!heap.isEmpty() && heap.peekKey() <= limit && settled < WITNESS_SETTLE_LIMIT) {
+                int node = heap.poll();
+                witness.settle(node);
+                settled++;
+                double distance = witness.distance(node);
+                for (int i = 0; i < degrees[node]; i++) {
+                    int next = neighbors[node][i];
+                    if (next != excluded && !contracted[next] && !witness.isSettled(next))
+                        witness.relax(next, node, distance + costs[node][i]);
+                }
+            }
+        }
+
+        private void addEdge(int from, int to, double cost, int via) {
+            int[] row = neighbors[from];
+            for (int i = 0; i < degrees[from]; i++) {
+                if (row[i] == to) {
+                    if (cost < costs[from][i]) {
+                        costs[from][i] = cost;
+                        viaNodes[from][i] = via;
+                    }
+                    return;
+                }
+            }
+            if (degrees[from] == row.length) {
+                int length = Math.max(4, row.length * 2);
+                neighbors[from] = Arrays.copyOf(row, length);
+                costs[from] = Arrays.copyOf(costs[from], length);
+                viaNodes[from] = Arrays.copyOf(viaNodes[from], length);
+            }
+            int position = degrees[from]++;
+            neighbors[from][position] = to;
+            costs[from][position] = cost;
+            viaNodes[from][position] = via;
+            if (via >= 0 && from < to)
+                shortcuts++;
+        }
+
+        private void recordUpwardEdges(int node) {
+            for (int i = 0; i < degrees[node]; i++) {
+                int next = neighbors[node][i];
+                if (contracted[next])
+                    continue;
+                if (upSize == upTargets.length) {
+                    upTargets = Arrays.copyOf(upTargets, upSize * 2);
+                    upWeights = Arrays.copyOf(upWeights, upSize * 2);
+                    upMiddles = Arrays.copyOf(upMiddles, upSize * 2);
+                }
+                upTargets[upSize] = next;
+                upWeights[upSize] = costs[node][i];
+                upMiddles[upSize] = viaNodes[node][i];
+                upSize++;
+            }
+        }
+
+        private ContractionHierarchy compact(int[] counts, int[] edgeStarts) {
+            int[] offsets = new int[capacity + 1];
+            for (int node = 0; node < capacity; node++)
+                offsets[node + 1] = offsets[node] + counts[node];
+            int[] targets = new int[upSize];
+            double[] weights = new double[upSize];
+            int[] middles = new int[upSize];
+            for (int node = 0; node < capacity; node++) {
+                System.arraycopy(upTargets, edgeStarts[node], targets, offsets[node], counts[node]);
+                System.arraycopy(upWeights, edgeStarts[node], weights, offsets[node], counts[node]);
+                System.arraycopy(upMiddles, edgeStarts[node], middles, offsets[node], counts[node]);
+            }
+            return new ContractionHierarchy(graph.getVersion(), offsets, targets, weights, middles, shortcuts);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * Point-to-point queries on a {@link ContractionHierarchy}: two Dijkstra
+ * searches that only follow edges towards nodes contracted later, one from each
+ * end, meet at the most important node of the route. Shortcuts on the joined
+ * route are then expanded back into the original paths.
+ * <p>
+ * The hierarchy is contracted on a background executor every time the graph
+ * changes; until the one for the current snapshot is ready, queries go to the
+ * fallback engine.
+ */
+public class ContractionHierarchyEngine implements RoutingEngine, GraphListener {
+
+    private final RoutingEngine fallback;
+    private final BackgroundIndex<ContractionHierarchy> hierarchies;
+    private final ThreadLocal<QueryState> states = ThreadLocal.withInitial(QueryState::new);
+
+    public ContractionHierarchyEngine(RoutingEngine fallback, Executor executor) {
+        this.fallback = fallback;
+        this.hierarchies = new BackgroundIndex<>("contraction hierarchy", ContractionHierarchy::build, executor);
+    }
+
+    @Override
+    public void onGraphChanged(RoutingGraph graph) {
+        hierarchies.schedule(graph);
+    }
+
+    /**
+     * Contracts the graph right away, on the calling thread.
+     */
+    public void rebuild(RoutingGraph graph) {
+        hierarchies.rebuild(graph);
+    }
+
+    /**
+     * Hierarchy in use, or null while the first one is being contracted.
+     */
+    public ContractionHierarchy getHierarchy() {
+        return hierarchies.latest();
+    }
+
+    @Override
+    public Route route(RoutingGraph graph, int source, int target) {
+        ContractionHierarchy hierarchy = hierarchies.forGraph(graph);
+        if (hierarchy == null)
+            return fallback.route(graph, source, target);
+
+        QueryState state = states.get();
+        SearchSpace forward = state.forward;
+        SearchSpace backward = state.backward;
+        forward.reset(graph.capacity());
+        backward.reset(graph.capacity());
+        forward.relax(source, -1, 0.0);
+        backward.relax(target, -1, 0.0);
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        int settled = 0;
+
+        while (true) {
+            double forwardTop = forward.heap().isEmpty() ? Double.POSITIVE_INFINITY : forward.heap().peekKey();
+            double backwardTop = backward.heap().isEmpty() ? Double.POSITIVE_INFINITY : backward.heap().peekKey();
+            if (forwardTop >= best && backwardTop >= best)
+                break;
+            SearchSpace space = forwardTop <= backwardTop ? forward : backward;
+            SearchSpace opposite = space == forward ? backward : forward;
+            int node = space.heap().poll();
+            space.settle(node);
+            settled++;
+            double distance = space.distance(node);
+            if (opposite.isReached(node) && distance + opposite.distance(node) < best) {
+                best = distance + opposite.distance(node);
+                meeting = node;
+            }
+            for (int edge = hierarchy.firstEdge(node); edge < hierarchy.lastEdge(node); edge++) {
+                int next = hierarchy.target(edge);
+                if (!space.isSettled(next))
+                    space.relax(next, node, distance + hierarchy.weight(edge));
+            }
+        }
+
+        if (meeting < 0)
+            return null;
+        return unpack(graph, hierarchy, state, meeting, settled);
+    }
+
+    /**
+     * Walks from the meeting node down both search trees, expanding every
+     * hierarchy edge into original paths.
+     */
+    private Route unpack(RoutingGraph graph, ContractionHierarchy hierarchy, QueryState state, int meeting,
+            int settled) {
+        state.clearRoute();
+        for (int node = meeting; node >= 0; node = state.forward.parent(node))
+            state.push(node);
+        state.route(state.pop());
+        while (state.stackSize > 0)
+            expand(hierarchy, state, state.lastNode(), state.pop());
+        for (int node = meeting; state.backward.parent(node) >= 0; node = state.backward.parent(node))
+            expand(hierarchy, state, node, state.backward.parent(node));
+
+        int[] nodes = Arrays.copyOf(state.routeNodes, state.routeSize);
+        double[] distances = new double[nodes.length];
+        for (int i = 1; i < nodes.length; i++)
+            distances[i] = distances[i - 1] + graph.edgeCost(nodes[i - 1], nodes[i]);
+        return new Route(nodes, distances, settled, state.forward.relaxed() + state.backward.relaxed(),
+                state.forward.peakFrontier() + state.backward.peakFrontier());
+    }
+
+    /**
+     * Appends the original nodes of the hierarchy edge between the two nodes,
+     * excluding the first one, which is already on the route.
+     */
+    private void expand(ContractionHierarchy hierarchy, QueryState state, int from, int to) {
+        int base = state.stackSize;
+        state.push(to);
+        int current = from;
+        while (state.stackSize > base) {
+            int next = state.peek();
+            int middle = middle(hierarchy, current, next);
+            if (middle < 0) {
+                state.pop();
+                state.route(next);
+                current = next;
+            } else {
+                state.push(middle);
+            }
+        }
+    }
+
+    private int middle(ContractionHierarchy hierarchy, int a, int b) {
+        int edge = hierarchy.findEdge(a, b);
+        if (edge < 0)
+            edge = hierarchy.findEdge(b, a);
+        return hierarchy.middle(edge);
+    }
+
+    /**
+     * Per-thread query state: both search spaces plus scratch stacks used to
+     * unpack shortcuts.
+     */
+    private static final class QueryState {
+
+        private final SearchSpace forward = new SearchSpace();
+        private final SearchSpace backward = new SearchSpace();
+        private int[] stack = new int[64];
+        private int stackSize;
+        private int[] routeNodes = new int[64];
+        private int routeSize;
+
+        private void clearRoute() {
+            stackSize = 0;
+            routeSize = 0;
+        }
+
+        private void push(int node) {
+            if (stackSize == stack.length)
+                stack = Arrays.copyOf(stack, stackSize * 2);
+            stack[stackSize++] = node;
+        }
+
+        private int pop() {
+            return stack[--stackSize];
+        }
+
+        private int peek() {
+            return stack[stackSize - 1];
+        }
+
+        private void route(int node) {
+            if (routeSize == routeNodes.length)
+                routeNodes = Arrays.copyOf(routeNodes, routeSize * 2);
+            routeNodes[routeSize++] = node;
+        }
+
+        private int lastNode() {
+            return routeNodes[routeSize - 1];
+        }
+    }
+}
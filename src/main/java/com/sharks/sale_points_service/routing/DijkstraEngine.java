@@ -0,0 +1,38 @@
+package com.sharks.sale_points_service.routing;
+
+/**
+ * Unidirectional Dijkstra search that stops as soon as the target is settled.
+ * Each thread reuses its own {@link SearchSpace}, so a query only allocates
+ * the returned {@link Route}.
+ */
+public class DijkstraEngine implements RoutingEngine {
+
+    private final ThreadLocal<SearchSpace> spaces = ThreadLocal.withInitial(SearchSpace::new);
+
+    @Override
+    public Route route(RoutingGraph graph, int source, int target) {
+        SearchSpace space = spaces.get();
+        space.reset(graph.capacity());
+        IndexedDaryHeap heap = space.heap();
+        space.relax(source, -1, 0.0);
+        int settled = 0;
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            space.settle(node);
+            settled++;
+            if (node == target)
+                return Route.fromParents(space, target, settled);
+
+            double distance = space.distance(node);
+            int[] neighbors = graph.neighbors(node);
+            double[] costs = graph.costs(node);
+            for (int i = 0; i < neighbors.length; i++) {
+                int next = neighbors[i];
+                if (!space.isSettled(next))
+                    space.relax(next, node, distance + costs[i]);
+            }
+        }
+        return null;
+    }
+}
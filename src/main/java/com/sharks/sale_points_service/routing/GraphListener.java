@@ -0,0 +1,25 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.List;
+
+/**
+ * Receives every new routing graph snapshot right after it is published.
+ * Implementations are called while the graph is locked for writing, so they
+ * should hand expensive work off to another thread.
+ */
+public interface GraphListener {
+
+    /**
+     * Called with a snapshot loaded from scratch, which shares nothing with the
+     * previous one.
+     */
+    void onGraphChanged(RoutingGraph graph);
+
+    /**
+     * Called with a snapshot edited from the previous one, along with every path
+     * whose cost changed, in the order the edits were made.
+     */
+    default void onGraphChanged(RoutingGraph graph, List<PathChange> changes) {
+        onGraphChanged(graph);
+    }
+}
@@ -0,0 +1,75 @@
+package com.sharks.sale_points_service.routing;
+
+/**
+ * Open-addressing map from sale point id to dense node index, backed by
+ * primitive arrays so lookups on the query path neither box nor allocate.
+ */
+final class IdIndex {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    IdIndex(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2)
+            capacity <<= 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    private IdIndex(IdIndex other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        size = other.size;
+    }
+
+    IdIndex copy() {
+        return new IdIndex(this);
+    }
+
+    int get(long id) {
+        int mask = keys.length - 1;
+        for (int i = mix(id) & mask; values[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == id)
+                return values[i] - 1;
+        }
+        return -1;
+    }
+
+    void put(long id, int node) {
+        if ((size + 1) * 2 > keys.length)
+            rehash(keys.length << 1);
+        int mask = keys.length - 1;
+        int i = mix(id) & mask;
+        while (values[i] != 0) {
+            if (keys[i] == id) {
+                values[i] = node + 1;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = id;
+        values[i] = node + 1;
+        size++;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0)
+                put(oldKeys[i], oldValues[i] - 1);
+        }
+    }
+
+    private static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,132 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.Arrays;
+
+/**
+ * Indexed 4-ary min-heap of node indices keyed by distance, with a position
+ * table so a queued node can have its key lowered in place instead of being
+ * queued again.
+ */
+public final class IndexedDaryHeap {
+
+    private static final int ARITY = 4;
+
+    private int[] nodes = new int[0];
+    private double[] keys = new double[0];
+    private int[] positions = new int[0];
+    private int size;
+
+    /**
+     * Makes room for node indices below the given capacity. Clears the heap.
+     */
+    public void ensureCapacity(int capacity) {
+        if (positions.length < capacity) {
+            int length = Math.max(capacity, positions.length + (positions.length >> 1));
+            nodes = new int[length];
+            keys = new double[length];
+            positions = new int[length];
+            Arrays.fill(positions, -1);
+            size = 0;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int node) {
+        return positions[node] >= 0;
+    }
+
+    public double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * Queues the node, or lowers its key if it is already queued with a higher one.
+     */
+    public void insertOrDecrease(int node, double key) {
+        int position = positions[node];
+        if (position < 0) {
+            position = size++;
+            nodes[position] = node;
+            positions[node] = position;
+        } else if (key >= keys[position]) {
+            return;
+        }
+        keys[position] = key;
+        siftUp(position);
+    }
+
+    /**
+     * Removes and returns the node with the smallest key.
+     */
+    public int poll() {
+        int top = nodes[0];
+        positions[top] = -1;
+        int last = --size;
+        if (last > 0) {
+            nodes[0] = nodes[last];
+            keys[0] = keys[last];
+            positions[nodes[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            positions[nodes[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int node = nodes[position];
+        double key = keys[position];
+        while (position > 0) {
+            int parent = (position - 1) / ARITY;
+            if (keys[parent] <= key)
+                break;
+            move(parent, position);
+            position = parent;
+        }
+        place(node, key, position);
+    }
+
+    private void siftDown(int position) {
+        int node = nodes[position];
+        double key = keys[position];
+        while (true) {
+            int first = position * ARITY + 1;
+            if (first >= size)
+                break;
+            int last = Math.min(first + ARITY, size);
+            int best = first;
+            for (int child = first + 1; child < last; child++) {
+                if (keys[child] < keys[best])
+                    best = child;
+            }
+            if (keys[best] >= key)
+                break;
+            move(best, position);
+            position = best;
+        }
+        place(node, key, position);
+    }
+
+    private void move(int from, int to) {
+        nodes[to] = nodes[from];
+        keys[to] = keys[from];
+        positions[nodes[to]] = to;
+    }
+
+    private void place(int node, double key, int position) {
+        nodes[position] = node;
+        keys[position] = key;
+        positions[node] = position;
+    }
+}
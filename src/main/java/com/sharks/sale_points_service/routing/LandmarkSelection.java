@@ -0,0 +1,18 @@
+package com.sharks.sale_points_service.routing;
+
+/**
+ * Strategy used to place ALT landmarks.
+ */
+public enum LandmarkSelection {
+
+    /**
+     * Each landmark is the node farthest from the ones already chosen.
+     */
+    FARTHEST,
+
+    /**
+     * Goldberg and Werneck's avoid heuristic: landmarks go where the current
+     * lower bounds are weakest, measured on a shortest path tree from a random root.
+     */
+    AVOID
+}
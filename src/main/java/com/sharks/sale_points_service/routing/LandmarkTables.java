@@ -0,0 +1,242 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Exact distances from a set of landmark nodes to every node of one graph
+ * snapshot. Because paths are undirected, the triangle inequality gives
+ * {@code |d(l, t) - d(l, v)|} as a lower bound of {@code d(v, t)} for every
+ * landmark {@code l}, which is what drives the ALT search.
+ * <p>
+ * Distances are stored node-major, so the bounds of a node are contiguous.
+ */
+public final class LandmarkTables {
+
+    private static final long SEED = 0x5A1E5L;
+
+    private final long version;
+    private final int[] landmarks;
+    private final double[] distances;
+
+    private LandmarkTables(long version, int[] landmarks, double[] distances) {
+        this.version = version;
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    public static LandmarkTables compute(RoutingGraph graph, int count, LandmarkSelection selection) {
+        return new Builder(graph).select(Math.min(count, graph.getNodeCount()), selection);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    public long memoryBytes() {
+        return (long) distances.length * Double.BYTES + (long) landmarks.length * Integer.BYTES;
+    }
+
+    /**
+     * Lower bound of the cost between the two nodes, or
+     * {@link Double#POSITIVE_INFINITY} when some landmark proves they are in
+     * different components.
+     */
+    public double lowerBound(int node, int target) {
+        int k = landmarks.length;
+        int nodeRow = node * k;
+        int targetRow = target * k;
+        double best = 0.0;
+        for (int l = 0; l < k; l++) {
+            double fromNode = distances[nodeRow + l];
+            double fromTarget = distances[targetRow + l];
+            if (fromNode == Double.POSITIVE_INFINITY || fromTarget == Double.POSITIVE_INFINITY) {
+                if (fromNode != fromTarget)
+                    return Double.POSITIVE_INFINITY;
+                continue;
+            }
+            double bound = Math.abs(fromTarget - fromNode);
+            if (bound > best)
+                best = bound;
+        }
+        return best;
+    }
+
+    private static final class Builder {
+
+        private final RoutingGraph graph;
+        private final int capacity;
+        private final SearchSpace space = new SearchSpace();
+        private final int[] order;
+        private final SplittableRandom random = new SplittableRandom(SEED);
+        private int[] landmarks = new int[0];
+        private double[][] rows = new double[0][];
+
+        private Builder(RoutingGraph graph) {
+            this.graph = graph;
+            this.capacity = graph.capacity();
+            this.order = new int[capacity];
+        }
+
+        private LandmarkTables select(int count, LandmarkSelection selection) {
+            double[] closest = new double[capacity];
+            Arrays.fill(closest, Double.POSITIVE_INFINITY);
+            int candidate = count > 0 ? farthestFrom(randomNode()) : -1;
+            while (landmarks.length < count && candidate >= 0) {
+                add(candidate, closest);
+                if (landmarks.length == count)
+                    break;
+                candidate = selection == LandmarkSelection.AVOID ? avoid(closest) : farthest(closest);
+            }
+            return new LandmarkTables(graph.getVersion(), landmarks, interleave());
+        }
+
+        private void add(int landmark, double[] closest) {
+            double[] row = new double[capacity];
+            search(landmark, row);
+            for (int node = 0; node < capacity; node++)
+                closest[node] = Math.min(closest[node], row[node]);
+            landmarks = Arrays.copyOf(landmarks, landmarks.length + 1);
+            landmarks[landmarks.length - 1] = landmark;
+            rows = Arrays.copyOf(rows, rows.length + 1);
+            rows[rows.length - 1] = row;
+        }
+
+        /**
+         * First landmark: the node farthest from a random start.
+         */
+        private int farthestFrom(int start) {
+            double[] row = new double[capacity];
+            search(start, row);
+            int best = start;
+            for (int node = 0; node < capacity; node++) {
+                if (graph.contains(node) && row[node] < Double.POSITIVE_INFINITY && row[node] > row[best])
+                    best = node;
+            }
+            return best;
+        }
+
+        /**
+         * Next landmark: the node whose closest landmark is farthest away. Nodes
+         * that no landmark reaches come first, so every component gets covered.
+         */
+        private int farthest(double[] closest) {
+            int best = -1;
+            for (int node = 0; node < capacity; node++) {
+                if (graph.contains(node) && !isLandmark(node) && (best < 0 || closest[node] > closest[best]))
+                    best = node;
+            }
+            return best;
+        }
+
+        /**
+         * Grows a shortest path tree from a random root, weighs each node by how
+         * much its distance to the root exceeds the current lower bound, and
+         * follows the heaviest subtrees that hold no landmark down to a leaf.
+         */
+        private int avoid(double[] closest) {
+            int root = randomNode();
+            if (closest[root] == Double.POSITIVE_INFINITY)
+                return farthest(closest);
+            int settled = search(root, null);
+            double[] sizes = new double[capacity];
+            boolean[] covered = new boolean[capacity];
+            for (int i = 0; i < settled; i++) {
+                int node = order[i];
+                sizes[node] = space.distance(node) - bound(node, root);
+                covered[node] = isLandmark(node);
+            }
+            for (int i = settled - 1; i > 0; i--) {
+                int node = order[i];
+                int parent = space.parent(node);
+                sizes[parent] += sizes[node];
+                covered[parent] |= covered[node];
+            }
+            int[] heaviestChild = new int[capacity];
+            Arrays.fill(heaviestChild, -1);
+            for (int i = 1; i < settled; i++) {
+                int node = order[i];
+                int parent = space.parent(node);
+                if (!covered[node] && sizes[node] > 0
+                        && (heaviestChild[parent] < 0 || sizes[node] > sizes[heaviestChild[parent]]))
+                    heaviestChild[parent] = node;
+            }
+            int node = root;
+            while (heaviestChild[node] >= 0)
+                node = heaviestChild[node];
+            return node == root && isLandmark(root) ? farthest(closest) : node;
+        }
+
+        private double bound(int node, int target) {
+            double best = 0.0;
+            for (double[] row : rows) {
+                if (row[node] < Double.POSITIVE_INFINITY && row[target] < Double.POSITIVE_INFINITY)
+                    best = Math.max(best, Math.abs(row[target] - row[node]));
+            }
+            return best;
+        }
+
+        /**
+         * Full Dijkstra from the source, recording the settle order and, when a
+         * row is given, the distance to every node.
+         */
+        private int search(int source, double[] row) {
+            space.reset(capacity);
+            IndexedDaryHeap heap = space.heap();
+            space.relax(source, -1, 0.0);
+            int settled = 0;
+            while (!heap.isEmpty()) {
+                int node = heap.poll();
+                space.settle(node);
+                order[settled++] = node;
+                double distance = space.distance(node);
+                int[] neighbors = graph.neighbors(node);
+                double[] costs = graph.costs(node);
+                for (int i = 0; i < neighbors.length; i++) {
+                    if (!space.isSettled(neighbors[i]))
+                        space.relax(neighbors[i], node, distance + costs[i]);
+                }
+            }
+            if (row != null) {
+                for (int node = 0; node < capacity; node++)
+                    row[node] = space.distance(node);
+            }
+            return settled;
+        }
+
+        private int randomNode() {
+            int node;
+            do {
+                node = random.nextInt(capacity);
+            } while (!graph.contains(node));
+            return node;
+        }
+
+        private boolean isLandmark(int node) {
+            for (int landmark : landmarks) {
+                if (landmark == node)
+                    return true;
+            }
+            return false;
+        }
+
+        private double[] interleave() {
+            int k = landmarks.length;
+            double[] distances = new double[capacity * k];
+            for (int l = 0; l < k; l++) {
+                double[] row = rows[l];
+                for (int node = 0; node < capacity; node++)
+                    distances[node * k + l] = row[node];
+            }
+            return distances;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Grows shortest path trees for many sources at once, one virtual thread per
+ * source. A fixed set of search spaces is shared by all calls: a search has to
+ * take one before running, which bounds how many run at the same time and
+ * spares virtual threads from allocating their own scratch arrays.
+ */
+public class ParallelTreeSearch {
+
+    private final int parallelism;
+    private final BlockingQueue<SearchSpace> spaces;
+
+    public ParallelTreeSearch(int parallelism) {
+        this.parallelism = parallelism;
+        this.spaces = new ArrayBlockingQueue<>(parallelism);
+        for (int i = 0; i < parallelism; i++)
+            spaces.add(new SearchSpace());
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Grows the tree of every source until its own targets are settled; trees
+     * are returned in the order of the sources.
+     */
+    public List<ShortestPathTree> growAll(RoutingGraph graph, int[] sources, BitSet[] targets) {
+        return growAll(graph, sources, targets, Function.identity());
+    }
+
+    /**
+     * Same as {@link #growAll(RoutingGraph, int[], BitSet[])}, but folds each
+     * tree into a result as soon as it is grown, so trees can be dropped
+     * instead of being held until every source is done.
+     */
+    public <R> List<R> growAll(RoutingGraph graph, int[] sources, BitSet[] targets,
+            Function<ShortestPathTree, R> fold) {
+        List<Future<R>> futures = new ArrayList<>(sources.length);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sources.length; i++) {
+                int source = sources[i];
+                BitSet sourceTargets = targets[i];
+                futures.add(executor.submit(() -> fold.apply(grow(graph, source, sourceTargets))));
+            }
+        }
+        List<R> results = new ArrayList<>(sources.length);
+        for (Future<R> future : futures)
+            results.add(join(future));
+        return results;
+    }
+
+    private ShortestPathTree grow(RoutingGraph graph, int source, BitSet targets) throws InterruptedException {
+        SearchSpace space = spaces.take();
+        try {
+            return ShortestPathTree.grow(graph, source, targets, Double.POSITIVE_INFINITY, space);
+        } finally {
+            spaces.add(space);
+        }
+    }
+
+    private static <R> R join(Future<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while growing shortest path trees", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IllegalStateException("Failed to grow shortest path tree", e.getCause());
+        }
+    }
+}
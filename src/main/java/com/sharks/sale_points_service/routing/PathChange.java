@@ -0,0 +1,20 @@
+package com.sharks.sale_points_service.routing;
+
+/**
+ * Cost change of the path between two nodes. A missing path has an infinite
+ * cost, so additions and removals are changes from or to infinity.
+ */
+public record PathChange(int nodeA, int nodeB, double oldCost, double newCost) {
+
+    public boolean isIncrease() {
+        return newCost > oldCost;
+    }
+
+    public boolean isDecrease() {
+        return newCost < oldCost;
+    }
+
+    public boolean isRemoval() {
+        return newCost == Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,54 @@
+package com.sharks.sale_points_service.routing;
+
+/**
+ * Result of a point-to-point search: the node indices along the route and the
+ * cumulative cost at each of them, plus the work the search did: nodes
+ * settled, relaxations attempted and the largest frontier it queued.
+ */
+public record Route(int[] nodes, double[] distances, int settled, int relaxed, int peakFrontier) {
+
+    /**
+     * Route whose search did not track relaxations, such as one read from a
+     * shortest path tree.
+     */
+    public Route(int[] nodes, double[] distances, int settled) {
+        this(nodes, distances, settled, 0, 0);
+    }
+
+    public double totalCost() {
+        return distances[distances.length - 1];
+    }
+
+    /**
+     * Same route walked from the target back to the source, which costs the
+     * same since paths are undirected.
+     */
+    public Route reversed() {
+        int length = nodes.length;
+        int[] reversedNodes = new int[length];
+        double[] reversedDistances = new double[length];
+        double total = totalCost();
+        for (int i = 0; i < length; i++) {
+            reversedNodes[i] = nodes[length - 1 - i];
+            reversedDistances[i] = total - distances[length - 1 - i];
+        }
+        return new Route(reversedNodes, reversedDistances, settled, relaxed, peakFrontier);
+    }
+
+    /**
+     * Rebuilds the route ending at the target by walking the parent links
+     * recorded in the search space.
+     */
+    static Route fromParents(SearchSpace space, int target, int settled) {
+        int length = 0;
+        for (int node = target; node >= 0; node = space.parent(node))
+            length++;
+        int[] nodes = new int[length];
+        double[] distances = new double[length];
+        for (int node = target, i = length - 1; node >= 0; node = space.parent(node), i--) {
+            nodes[i] = node;
+            distances[i] = space.distance(node);
+        }
+        return new Route(nodes, distances, settled, space.relaxed(), space.peakFrontier());
+    }
+}
@@ -0,0 +1,36 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * Restrictions on a route, in node indices of one snapshot: nodes and paths it
+ * must not use, the most paths it may take, and nodes it must visit in order.
+ *
+ * @param excludedPaths keys of the paths to avoid, see {@link #pathKey}
+ * @param maxHops       most paths along the route, or {@link Integer#MAX_VALUE}
+ */
+public record RouteConstraints(BitSet excludedNodes, Set<Long> excludedPaths, int maxHops, int[] via) {
+
+    public static final RouteConstraints NONE = new RouteConstraints(new BitSet(), Set.of(), Integer.MAX_VALUE,
+            new int[0]);
+
+    public boolean isExcluded(int node) {
+        return excludedNodes.get(node);
+    }
+
+    public boolean isExcluded(int nodeA, int nodeB) {
+        return !excludedPaths.isEmpty() && excludedPaths.contains(pathKey(nodeA, nodeB));
+    }
+
+    public boolean limitsHops() {
+        return maxHops < Integer.MAX_VALUE;
+    }
+
+    /**
+     * Key of the path between two nodes, the same both ways.
+     */
+    public static long pathKey(int nodeA, int nodeB) {
+        return (long) Math.min(nodeA, nodeB) << 32 | Math.max(nodeA, nodeB);
+    }
+}
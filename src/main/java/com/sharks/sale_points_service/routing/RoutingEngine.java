@@ -0,0 +1,13 @@
+package com.sharks.sale_points_service.routing;
+
+/**
+ * Point-to-point cheapest route search over a {@link RoutingGraph} snapshot.
+ */
+public interface RoutingEngine {
+
+    /**
+     * Returns the cheapest route between the two nodes, or null if the target
+     * cannot be reached from the source.
+     */
+    Route route(RoutingGraph graph, int source, int target);
+}
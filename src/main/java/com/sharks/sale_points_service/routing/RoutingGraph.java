@@ -0,0 +1,368 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable in-memory snapshot of the sale point network.
+ * <p>
+ * Sale points are addressed by a dense node index that never changes while the
+ * service is running (removed sale points leave an empty slot behind), and each
+ * node owns a pair of parallel adjacency arrays holding its neighbors and the
+ * cost to reach them. Paths are undirected, so every path is stored in the rows
+ * of both of its sale points. Changes go through an {@link Editor}, which copies
+ * only the rows it touches and produces a new snapshot with a higher version.
+ * Versions are unique across all snapshots built by the process, so they can
+ * key data derived from a snapshot.
+ */
+public final class RoutingGraph {
+
+    private static final int[] NO_NEIGHBORS = new int[0];
+    private static final double[] NO_COSTS = new double[0];
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    private static final RoutingGraph EMPTY = new RoutingGraph(0, new long[0], new String[0], new int[0][],
+            new double[0][], new IdIndex(0), 0, 0, NO_NEIGHBORS);
+
+    private final long version;
+    private final long[] ids;
+    private final String[] names;
+    private final int[][] neighbors;
+    private final double[][] costs;
+    private final IdIndex index;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int[] renamed;
+
+    private RoutingGraph(long version, long[] ids, String[] names, int[][] neighbors, double[][] costs,
+            IdIndex index, int nodeCount, int edgeCount, int[] renamed) {
+        this.version = version;
+        this.ids = ids;
+        this.names = names;
+        this.neighbors = neighbors;
+        this.costs = costs;
+        this.index = index;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.renamed = renamed;
+    }
+
+    public static RoutingGraph empty() {
+        return EMPTY;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Number of node slots, including the ones left empty by removed sale points.
+     * Per-node arrays used by searches must be at least this long.
+     */
+    public int capacity() {
+        return ids.length;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Nodes whose sale point got a new name in the edit that built this
+     * snapshot, so data holding names can tell what went stale.
+     */
+    public int[] renamedNodes() {
+        return renamed.clone();
+    }
+
+    /**
+     * Returns the node index of the given sale point, or -1 if it is not part of the graph.
+     */
+    public int indexOf(long id) {
+        int node = index.get(id);
+        return node >= 0 && names[node] != null ? node : -1;
+    }
+
+    public boolean contains(int node) {
+        return node >= 0 && node < names.length && names[node] != null;
+    }
+
+    public long idAt(int node) {
+        return ids[node];
+    }
+
+    public String nameAt(int node) {
+        return names[node];
+    }
+
+    public int degree(int node) {
+        return neighbors[node].length;
+    }
+
+    /**
+     * Neighbors of the node. The returned array is shared and must not be modified.
+     */
+    public int[] neighbors(int node) {
+        return neighbors[node];
+    }
+
+    /**
+     * Costs to the neighbors of the node, aligned with {@link #neighbors(int)}.
+     * The returned array is shared and must not be modified.
+     */
+    public double[] costs(int node) {
+        return costs[node];
+    }
+
+    /**
+     * Returns the cost of the path between the two nodes, or
+     * {@link Double#POSITIVE_INFINITY} if they are not directly connected.
+     */
+    public double edgeCost(int from, int to) {
+        int[] row = neighbors[from];
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] == to)
+                return costs[from][i];
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    public Editor edit() {
+        return new Editor(this);
+    }
+
+    /**
+     * Accumulates changes over a snapshot. Rows are copied the first time they are
+     * touched and then modified in place, so a batch of changes costs one copy
+     * per affected node. An editor can build a single snapshot, and records the
+     * path cost changes it made on the way.
+     */
+    public static final class Editor {
+
+        private long[] ids;
+        private String[] names;
+        private int[][] neighbors;
+        private double[][] costs;
+        private int[] degrees;
+        private boolean[] owned;
+        private final IdIndex index;
+        private final List<PathChange> changes = new ArrayList<>();
+        private final BitSet renamed = new BitSet();
+        private int size;
+        private int nodeCount;
+        private int edgeCount;
+        private boolean built;
+
+        private Editor(RoutingGraph base) {
+            size = base.ids.length;
+            ids = base.ids.clone();
+            names = base.names.clone();
+            neighbors = base.neighbors.clone();
+            costs = base.costs.clone();
+            degrees = new int[size];
+            for (int i = 0; i < size; i++)
+                degrees[i] = neighbors[i].length;
+            owned = new boolean[size];
+            index = base.index.copy();
+            nodeCount = base.nodeCount;
+            edgeCount = base.edgeCount;
+        }
+
+        /**
+         * Adds the sale point to the graph, or renames it if it already exists.
+         */
+        public Editor putSalePoint(long id, String name) {
+            checkNotBuilt();
+            int node = index.get(id);
+            if (node < 0) {
+                node = allocate(id);
+                index.put(id, node);
+            }
+            if (names[node] == null)
+                nodeCount++;
+            else if (!names[node].equals(name))
+                renamed.set(node);
+            names[node] = name;
+            return this;
+        }
+
+        /**
+         * Removes the sale point and every path connected to it.
+         */
+        public Editor removeSalePoint(long id) {
+            checkNotBuilt();
+            int node = liveIndex(id);
+            if (node < 0)
+                return this;
+            for (int i = degrees[node] - 1; i >= 0; i--) {
+                changes.add(new PathChange(node, neighbors[node][i], costs[node][i], Double.POSITIVE_INFINITY));
+                removeArc(neighbors[node][i], node);
+            }
+            edgeCount -= degrees[node];
+            neighbors[node] = NO_NEIGHBORS;
+            costs[node] = NO_COSTS;
+            degrees[node] = 0;
+            owned[node] = false;
+            names[node] = null;
+            nodeCount--;
+            return this;
+        }
+
+        /**
+         * Adds the path between the two sale points, or replaces its cost.
+         */
+        public Editor putPath(long idA, long idB, double cost) {
+            return putPath(idA, idB, cost, false);
+        }
+
+        /**
+         * Adds the path between the two sale points, keeping the cheaper cost if it
+         * already exists. Used when loading tables where the same pair may be stored
+         * in both orientations.
+         */
+        public Editor mergePath(long idA, long idB, double cost) {
+            return putPath(idA, idB, cost, true);
+        }
+
+        /**
+         * Removes the path between the two sale points, if present.
+         */
+        public Editor removePath(long idA, long idB) {
+            checkNotBuilt();
+            int a = liveIndex(idA);
+            int b = liveIndex(idB);
+            if (a < 0 || b < 0)
+                return this;
+            int position = find(a, b);
+            if (position >= 0) {
+                changes.add(new PathChange(a, b, costs[a][position], Double.POSITIVE_INFINITY));
+                removeArc(a, b);
+                removeArc(b, a);
+                edgeCount--;
+            }
+            return this;
+        }
+
+        /**
+         * Path cost changes made so far, in order.
+         */
+        public List<PathChange> getChanges() {
+            return List.copyOf(changes);
+        }
+
+        public RoutingGraph build() {
+            checkNotBuilt();
+            built = true;
+            long[] finalIds = Arrays.copyOf(ids, size);
+            String[] finalNames = Arrays.copyOf(names, size);
+            int[][] finalNeighbors = Arrays.copyOf(neighbors, size);
+            double[][] finalCosts = Arrays.copyOf(costs, size);
+            for (int node = 0; node < size; node++) {
+                if (owned[node] && finalNeighbors[node].length != degrees[node]) {
+                    finalNeighbors[node] = Arrays.copyOf(finalNeighbors[node], degrees[node]);
+                    finalCosts[node] = Arrays.copyOf(finalCosts[node], degrees[node]);
+                }
+            }
+            return new RoutingGraph(VERSIONS.incrementAndGet(), finalIds, finalNames, finalNeighbors, finalCosts, index,
+                    nodeCount, edgeCount, renamed.stream().filter(node -> finalNames[node] != null).toArray());
+        }
+
+        private Editor putPath(long idA, long idB, double cost, boolean keepCheaper) {
+            checkNotBuilt();
+            int a = liveIndex(idA);
+            int b = liveIndex(idB);
+            if (a < 0 || b < 0)
+                throw new IllegalArgumentException("Unknown sale point in path " + idA + "-" + idB);
+            if (a == b)
+                throw new IllegalArgumentException("Path cannot connect sale point " + idA + " to itself");
+            int position = find(a, b);
+            if (position < 0) {
+                changes.add(new PathChange(a, b, Double.POSITIVE_INFINITY, cost));
+                appendArc(a, b, cost);
+                appendArc(b, a, cost);
+                edgeCount++;
+            } else if ((!keepCheaper || cost < costs[a][position]) && cost != costs[a][position]) {
+                changes.add(new PathChange(a, b, costs[a][position], cost));
+                setArc(a, position, cost);
+                setArc(b, find(b, a), cost);
+            }
+            return this;
+        }
+
+        private int liveIndex(long id) {
+            int node = index.get(id);
+            return node >= 0 && names[node] != null ? node : -1;
+        }
+
+        private int allocate(long id) {
+            if (size == ids.length) {
+                int capacity = Math.max(16, size + (size >> 1));
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                neighbors = Arrays.copyOf(neighbors, capacity);
+                costs = Arrays.copyOf(costs, capacity);
+                degrees = Arrays.copyOf(degrees, capacity);
+                owned = Arrays.copyOf(owned, capacity);
+            }
+            int node = size++;
+            ids[node] = id;
+            neighbors[node] = NO_NEIGHBORS;
+            costs[node] = NO_COSTS;
+            return node;
+        }
+
+        private int find(int from, int to) {
+            int[] row = neighbors[from];
+            for (int i = 0; i < degrees[from]; i++) {
+                if (row[i] == to)
+                    return i;
+            }
+            return -1;
+        }
+
+        private void own(int node, int minCapacity) {
+            int capacity = neighbors[node].length;
+            if (owned[node] && capacity >= minCapacity)
+                return;
+            if (capacity < minCapacity)
+                capacity = Math.max(4, Math.max(minCapacity, capacity + (capacity >> 1)));
+            neighbors[node] = Arrays.copyOf(neighbors[node], capacity);
+            costs[node] = Arrays.copyOf(costs[node], capacity);
+            owned[node] = true;
+        }
+
+        private void appendArc(int from, int to, double cost) {
+            own(from, degrees[from] + 1);
+            neighbors[from][degrees[from]] = to;
+            costs[from][degrees[from]] = cost;
+            degrees[from]++;
+        }
+
+        private void setArc(int from, int position, double cost) {
+            own(from, degrees[from]);
+            costs[from][position] = cost;
+        }
+
+        private boolean removeArc(int from, int to) {
+            int position = find(from, to);
+            if (position < 0)
+                return false;
+            own(from, degrees[from]);
+            int last = --degrees[from];
+            neighbors[from][position] = neighbors[from][last];
+            costs[from][position] = costs[from][last];
+            return true;
+        }
+
+        private void checkNotBuilt() {
+            if (built)
+                throw new IllegalStateException("Editor has already built its snapshot");
+        }
+    }
+}
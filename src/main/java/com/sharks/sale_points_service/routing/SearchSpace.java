@@ -0,0 +1,102 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.Arrays;
+
+/**
+ * Reusable per-search state: tentative distances, parents and the frontier
+ * heap. Entries are only valid when their stamp matches the current
+ * generation, so starting a new search is O(1) instead of clearing arrays.
+ */
+public final class SearchSpace {
+
+    private double[] distances = new double[0];
+    private int[] parents = new int[0];
+    private int[] reached = new int[0];
+    private int[] settled = new int[0];
+    private int generation;
+    private int relaxed;
+    private int peakFrontier;
+    private final IndexedDaryHeap heap = new IndexedDaryHeap();
+
+    /**
+     * Starts a new search over a graph with the given node capacity.
+     */
+    public void reset(int capacity) {
+        if (distances.length < capacity) {
+            int length = Math.max(capacity, distances.length + (distances.length >> 1));
+            distances = new double[length];
+            parents = new int[length];
+            reached = new int[length];
+            settled = new int[length];
+            generation = 0;
+        }
+        heap.ensureCapacity(capacity);
+        heap.clear();
+        relaxed = 0;
+        peakFrontier = 0;
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            generation = 1;
+        }
+    }
+
+    public IndexedDaryHeap heap() {
+        return heap;
+    }
+
+    public boolean isReached(int node) {
+        return reached[node] == generation;
+    }
+
+    public boolean isSettled(int node) {
+        return settled[node] == generation;
+    }
+
+    public void settle(int node) {
+        settled[node] = generation;
+    }
+
+    public double distance(int node) {
+        return reached[node] == generation ? distances[node] : Double.POSITIVE_INFINITY;
+    }
+
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    /**
+     * Relaxation attempts since the search started, improving or not.
+     */
+    public int relaxed() {
+        return relaxed;
+    }
+
+    /**
+     * Largest number of queued nodes seen since the search started.
+     */
+    public int peakFrontier() {
+        return peakFrontier;
+    }
+
+    /**
+     * Records the distance and parent if they improve on what is known for the
+     * node, queueing it with the given priority.
+     */
+    public boolean relax(int node, int parent, double distance, double priority) {
+        relaxed++;
+        if (reached[node] == generation && distance >= distances[node])
+            return false;
+        reached[node] = generation;
+        distances[node] = distance;
+        parents[node] = parent;
+        heap.insertOrDecrease(node, priority);
+        if (heap.size() > peakFrontier)
+            peakFrontier = heap.size();
+        return true;
+    }
+
+    public boolean relax(int node, int parent, double distance) {
+        return relax(node, parent, distance, distance);
+    }
+}
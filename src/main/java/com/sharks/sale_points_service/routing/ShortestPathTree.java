@@ -0,0 +1,272 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Cheapest paths from one source to many sale points of a graph snapshot, as
+ * parent links and distances indexed by node. Nodes the search did not settle
+ * are reported as unreachable.
+ * <p>
+ * A complete tree, one whose search ran until the whole component was settled,
+ * can be repaired for a later snapshot instead of being grown again.
+ */
+public final class ShortestPathTree {
+
+    private static final ThreadLocal<SearchSpace> SPACES = ThreadLocal.withInitial(SearchSpace::new);
+
+    private final long version;
+    private final int source;
+    private final int[] parents;
+    private final double[] distances;
+    private final int settled;
+    private final boolean complete;
+
+    private ShortestPathTree(long version, int source, int[] parents, double[] distances, int settled,
+            boolean complete) {
+        this.version = version;
+        this.source = source;
+        this.parents = parents;
+        this.distances = distances;
+        this.settled = settled;
+        this.complete = complete;
+    }
+
+    /**
+     * Runs Dijkstra from the source until every node in the target set is
+     * settled, or the whole component when the target set is null.
+     */
+    public static ShortestPathTree grow(RoutingGraph graph, int source, BitSet targets) {
+        return grow(graph, source, targets, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Same as {@link #grow(RoutingGraph, int, BitSet)}, but also stops before
+     * settling nodes farther than the given distance.
+     */
+    public static ShortestPathTree grow(RoutingGraph graph, int source, BitSet targets, double maxDistance) {
+        return grow(graph, source, targets, maxDistance, SPACES.get());
+    }
+
+    static ShortestPathTree grow(RoutingGraph graph, int source, BitSet targets, double maxDistance,
+            SearchSpace space) {
+        space.reset(graph.capacity());
+        IndexedDaryHeap heap = space.heap();
+        space.relax(source, -1, 0.0);
+        int remaining = targets != null ? targets.cardinality() : Integer.MAX_VALUE;
+        int settled = 0;
+
+        while (!heap.isEmpty() && remaining > 0 && heap.peekKey() <= maxDistance) {
+            int node = heap.poll();
+            space.settle(node);
+            settled++;
+            if (targets != null && targets.get(node))
+                remaining--;
+
+            double distance = space.distance(node);
+            int[] neighbors = graph.neighbors(node);
+            double[] costs = graph.costs(node);
+            for (int i = 0; i < neighbors.length; i++) {
+                int next = neighbors[i];
+                if (!space.isSettled(next))
+                    space.relax(next, node, distance + costs[i]);
+            }
+        }
+
+        int[] parents = new int[graph.capacity()];
+        double[] distances = new double[graph.capacity()];
+        Arrays.fill(parents, -1);
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        for (int node = 0; node < parents.length; node++) {
+            if (space.isSettled(node)) {
+                parents[node] = space.parent(node);
+                distances[node] = space.distance(node);
+            }
+        }
+        return new ShortestPathTree(graph.getVersion(), source, parents, distances, settled, heap.isEmpty());
+    }
+
+    /**
+     * Tree of the same source on a snapshot edited from this tree's one, where
+     * only the nodes whose cheapest path changed are searched again:
+     * <ol>
+     * <li>the subtrees hanging from tree paths that got more expensive or were
+     * removed are cut off;</li>
+     * <li>cut off nodes are offered their best distance through neighbors still
+     * in the tree, and the ends of cheaper or new paths through each other;</li>
+     * <li>improvements are propagated Dijkstra-style until no distance changes.</li>
+     * </ol>
+     * This tree is left untouched. Returns null if it is not complete or its
+     * source was removed.
+     */
+    public ShortestPathTree repair(RoutingGraph graph, List<PathChange> changes) {
+        if (!complete || !graph.contains(source))
+            return null;
+        int capacity = graph.capacity();
+        int[] newParents = Arrays.copyOf(parents, capacity);
+        double[] newDistances = Arrays.copyOf(distances, capacity);
+        Arrays.fill(newParents, parents.length, capacity, -1);
+        Arrays.fill(newDistances, distances.length, capacity, Double.POSITIVE_INFINITY);
+        Repair repair = new Repair(graph, newParents, newDistances);
+
+        for (PathChange change : changes) {
+            if (!change.isIncrease())
+                continue;
+            if (newParents[change.nodeB()] == change.nodeA())
+                repair.cut(change.nodeB());
+            else if (newParents[change.nodeA()] == change.nodeB())
+                repair.cut(change.nodeA());
+        }
+        repair.reattachCut();
+        for (PathChange change : changes) {
+            if (change.isIncrease())
+                continue;
+            double cost = graph.edgeCost(change.nodeA(), change.nodeB());
+            repair.offer(change.nodeB(), change.nodeA(), newDistances[change.nodeA()] + cost);
+            repair.offer(change.nodeA(), change.nodeB(), newDistances[change.nodeB()] + cost);
+        }
+        int searched = repair.propagate();
+        return new ShortestPathTree(graph.getVersion(), source, newParents, newDistances, searched, true);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * Nodes settled to grow the tree, or searched again to repair it.
+     */
+    public int getSettled() {
+        return settled;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long memoryBytes() {
+        return (long) parents.length * Integer.BYTES + (long) distances.length * Double.BYTES;
+    }
+
+    /**
+     * Cost of the cheapest path to the node, or +inf if it was not reached.
+     */
+    public double distance(int node) {
+        return distances[node];
+    }
+
+    /**
+     * Route from the source to the node, or null if it was not reached.
+     */
+    public Route route(int target) {
+        if (distances[target] == Double.POSITIVE_INFINITY)
+            return null;
+        int length = 0;
+        for (int node = target; node >= 0; node = parents[node])
+            length++;
+        int[] nodes = new int[length];
+        double[] cumulative = new double[length];
+        for (int node = target, i = length - 1; node >= 0; node = parents[node], i--) {
+            nodes[i] = node;
+            cumulative[i] = distances[node];
+        }
+        return new Route(nodes, cumulative, settled);
+    }
+
+    /**
+     * Scratch state of one repair.
+     */
+    private static final class Repair {
+
+        private final RoutingGraph graph;
+        private final int[] parents;
+        private final double[] distances;
+        private final BitSet cut = new BitSet();
+        private final IndexedDaryHeap heap;
+        private int[] cutNodes = new int[16];
+        private int cutCount;
+        private int[] stack = new int[16];
+
+        private Repair(RoutingGraph graph, int[] parents, double[] distances) {
+            this.graph = graph;
+            this.parents = parents;
+            this.distances = distances;
+            SearchSpace space = SPACES.get();
+            space.reset(graph.capacity());
+            this.heap = space.heap();
+        }
+
+        /**
+         * Marks the subtree rooted at the node. Children are found through the
+         * node's paths in the new snapshot; children behind a removed path are
+         * roots of their own cut, since that removal is a change too.
+         */
+        private void cut(int root) {
+            int size = 0;
+            stack[size++] = root;
+            while (size > 0) {
+                int node = stack[--size];
+                if (cut.get(node))
+                    continue;
+                cut.set(node);
+                if (cutCount == cutNodes.length)
+                    cutNodes = Arrays.copyOf(cutNodes, cutCount * 2);
+                cutNodes[cutCount++] = node;
+                for (int child : graph.neighbors(node)) {
+                    if (parents[child] == node && !cut.get(child)) {
+                        if (size == stack.length)
+                            stack = Arrays.copyOf(stack, size * 2);
+                        stack[size++] = child;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Forgets the distances of the cut nodes and offers each of them the
+         * cheapest way back through a neighbor still in the tree.
+         */
+        private void reattachCut() {
+            for (int i = 0; i < cutCount; i++) {
+                parents[cutNodes[i]] = -1;
+                distances[cutNodes[i]] = Double.POSITIVE_INFINITY;
+            }
+            for (int i = 0; i < cutCount; i++) {
+                int node = cutNodes[i];
+                int[] neighbors = graph.neighbors(node);
+                double[] costs = graph.costs(node);
+                for (int j = 0; j < neighbors.length; j++) {
+                    if (!cut.get(neighbors[j]))
+                        offer(node, neighbors[j], distances[neighbors[j]] + costs[j]);
+                }
+            }
+        }
+
+        private void offer(int node, int parent, double distance) {
+            if (distance < distances[node]) {
+                distances[node] = distance;
+                parents[node] = parent;
+                heap.insertOrDecrease(node, distance);
+            }
+        }
+
+        private int propagate() {
+            int searched = 0;
+            while (!heap.isEmpty()) {
+                int node = heap.poll();
+                searched++;
+                double distance = distances[node];
+                int[] neighbors = graph.neighbors(node);
+                double[] costs = graph.costs(node);
+                for (int i = 0; i < neighbors.length; i++)
+                    offer(neighbors[i], node, distance + costs[i]);
+            }
+            return searched;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shortest path trees of recently queried sources, bounded by the memory their
+ * arrays take. Least recently used trees are evicted first until the total fits
+ * the budget again.
+ * <p>
+ * Since paths are undirected, a tree rooted at either end of a pair answers it.
+ * A tree is only grown once a source is queried a second time; one-off queries
+ * are left to the routing engine. Trees belong to one graph snapshot: when the
+ * graph is edited, complete trees are repaired for the new snapshot and partial
+ * ones are dropped; when it is reloaded, all of them are dropped.
+ */
+public class ShortestPathTreeCache implements GraphListener {
+
+    private static final int MAX_TRACKED_SOURCES = 4096;
+
+    private final long maxBytes;
+    private final int growAfter;
+    private final LinkedHashMap<Integer, ShortestPathTree> trees = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Integer, Integer> misses = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+            return size() > MAX_TRACKED_SOURCES;
+        }
+    };
+    private long version = -1;
+    private long bytes;
+    private long hits;
+    private long missCount;
+    private long evictions;
+    private long repairs;
+    private long repairedSettled;
+
+    /**
+     * @param maxBytes  memory budget for the cached trees
+     * @param growAfter number of queries from a source before its tree is grown
+     */
+    public ShortestPathTreeCache(long maxBytes, int growAfter) {
+        this.maxBytes = maxBytes;
+        this.growAfter = growAfter;
+    }
+
+    /**
+     * Answers the query from a cached tree rooted at either end, or returns
+     * null on a miss.
+     */
+    public synchronized Route find(RoutingGraph graph, int source, int target) {
+        if (!isCurrent(graph.getVersion())) {
+            missCount++;
+            return null;
+        }
+        ShortestPathTree tree = trees.get(source);
+        if (tree != null && tree.distance(target) < Double.POSITIVE_INFINITY) {
+            hits++;
+            return tree.route(target);
+        }
+        tree = trees.get(target);
+        if (tree != null && tree.distance(source) < Double.POSITIVE_INFINITY) {
+            hits++;
+            return tree.route(source).reversed();
+        }
+        missCount++;
+        return null;
+    }
+
+    /**
+     * Cached complete tree rooted at the node, or null.
+     */
+    public synchronized ShortestPathTree get(RoutingGraph graph, int source) {
+        if (!isCurrent(graph.getVersion()))
+            return null;
+        ShortestPathTree tree = trees.get(source);
+        return tree != null && tree.isComplete() && tree.getVersion() == graph.getVersion() ? tree : null;
+    }
+
+    /**
+     * Counts a miss for the source and tells whether its tree is now worth
+     * growing.
+     */
+    public synchronized boolean shouldGrow(RoutingGraph graph, int source) {
+        if (!isCurrent(graph.getVersion()))
+            return false;
+        int count = misses.merge(source, 1, Integer::sum);
+        return count >= growAfter;
+    }
+
+    /**
+     * Grows the full tree of the source and caches it.
+     */
+    public ShortestPathTree grow(RoutingGraph graph, int source) {
+        ShortestPathTree tree = ShortestPathTree.grow(graph, source, null);
+        put(tree);
+        return tree;
+    }
+
+    /**
+     * Caches the tree unless one that settled at least as many nodes is already
+     * cached for its source.
+     */
+    public synchronized void put(ShortestPathTree tree) {
+        if (!sync(tree.getVersion()) || tree.memoryBytes() > maxBytes)
+            return;
+        ShortestPathTree previous = trees.get(tree.getSource());
+        if (previous != null && previous.getSettled() >= tree.getSettled())
+            return;
+        trees.put(tree.getSource(), tree);
+        if (previous != null)
+            bytes -= previous.memoryBytes();
+        bytes += tree.memoryBytes();
+        misses.remove(tree.getSource());
+        trimToBudget();
+    }
+
+    @Override
+    public synchronized void onGraphChanged(RoutingGraph graph) {
+        sync(graph.getVersion());
+    }
+
+    @Override
+    public synchronized void onGraphChanged(RoutingGraph graph, List<PathChange> changes) {
+        if (graph.getVersion() <= version)
+            return;
+        version = graph.getVersion();
+        misses.clear();
+        bytes = 0;
+        Iterator<Map.Entry<Integer, ShortestPathTree>> entries = trees.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Integer, ShortestPathTree> entry = entries.next();
+            ShortestPathTree repaired = entry.getValue().repair(graph, changes);
+            if (repaired == null) {
+                entries.remove();
+                continue;
+            }
+            entry.setValue(repaired);
+            bytes += repaired.memoryBytes();
+            repairs++;
+            repairedSettled += repaired.getSettled();
+        }
+        trimToBudget();
+    }
+
+    private void trimToBudget() {
+        Iterator<ShortestPathTree> eldest = trees.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            ShortestPathTree evicted = eldest.next();
+            eldest.remove();
+            bytes -= evicted.memoryBytes();
+            evictions++;
+        }
+    }
+
+    /**
+     * Tells whether lookups on the snapshot can be answered. A newer snapshot
+     * seen before its change notification is only adopted while no tree is
+     * cached, so trees are never dropped when they could be repaired.
+     */
+    private boolean isCurrent(long graphVersion) {
+        if (graphVersion > version && trees.isEmpty()) {
+            version = graphVersion;
+            misses.clear();
+        }
+        return graphVersion == version;
+    }
+
+    /**
+     * Moves the cache to the snapshot if it is newer, dropping every tree, and
+     * tells whether the cached trees belong to it.
+     */
+    private boolean sync(long graphVersion) {
+        if (graphVersion > version) {
+            version = graphVersion;
+            trees.clear();
+            misses.clear();
+            bytes = 0;
+        }
+        return graphVersion == version;
+    }
+
+    public synchronized int getTreeCount() {
+        return trees.size();
+    }
+
+    public synchronized long getMemoryBytes() {
+        return bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return missCount;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getRepairs() {
+        return repairs;
+    }
+
+    /**
+     * Average number of nodes searched again per repaired tree.
+     */
+    public synchronized double getAverageRepairedSettled() {
+        return repairs == 0 ? 0.0 : (double) repairedSettled / repairs;
+    }
+}
@@ -0,0 +1,168 @@
+package com.sharks.sale_points_service.routing;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra search that records what it does, to explain a route: the nodes
+ * in the order they were settled, with their distance and the frontier size
+ * at that moment, and every relaxation attempted. Only the first events of
+ * each kind are kept, while the totals keep counting.
+ * <p>
+ * It allocates its own state and records on every step, so it is meant for
+ * occasional traced requests and never for the regular search path.
+ */
+public final class TracedSearch {
+
+    private final int maxEvents;
+    private int[] settledNodes = new int[16];
+    private double[] settledDistances = new double[16];
+    private int[] frontierSizes = new int[16];
+    private int settled;
+    private int[] relaxedFrom = new int[16];
+    private int[] relaxedTo = new int[16];
+    private double[] relaxedDistances = new double[16];
+    private boolean[] improvements = new boolean[16];
+    private int relaxed;
+    private int peakFrontier;
+    private Route route;
+
+    private TracedSearch(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    /**
+     * Searches the cheapest route from the source to the target, keeping up
+     * to {@code maxEvents} settled nodes and as many relaxations.
+     */
+    public static TracedSearch run(RoutingGraph graph, int source, int target, int maxEvents) {
+        TracedSearch trace = new TracedSearch(maxEvents);
+        SearchSpace space = new SearchSpace();
+        space.reset(graph.capacity());
+        IndexedDaryHeap heap = space.heap();
+        space.relax(source, -1, 0.0);
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            space.settle(node);
+            double distance = space.distance(node);
+            trace.settled(node, distance, heap.size());
+            if (node == target) {
+                trace.route = Route.fromParents(space, target, trace.settled);
+                break;
+            }
+
+            int[] neighbors = graph.neighbors(node);
+            double[] costs = graph.costs(node);
+            for (int i = 0; i < neighbors.length; i++) {
+                int next = neighbors[i];
+                if (!space.isSettled(next))
+                    trace.relaxed(node, next, distance + costs[i], space.relax(next, node, distance + costs[i]));
+            }
+            trace.peakFrontier = Math.max(trace.peakFrontier, heap.size());
+        }
+        return trace;
+    }
+
+    private void settled(int node, double distance, int frontier) {
+        if (settled < maxEvents) {
+            if (settled == settledNodes.length) {
+                int length = Math.min(maxEvents, settled * 2);
+                settledNodes = Arrays.copyOf(settledNodes, length);
+                settledDistances = Arrays.copyOf(settledDistances, length);
+                frontierSizes = Arrays.copyOf(frontierSizes, length);
+            }
+            settledNodes[settled] = node;
+            settledDistances[settled] = distance;
+            frontierSizes[settled] = frontier;
+        }
+        settled++;
+    }
+
+    private void relaxed(int from, int to, double distance, boolean improved) {
+        if (relaxed < maxEvents) {
+            if (relaxed == relaxedFrom.length) {
+                int length = Math.min(maxEvents, relaxed * 2);
+                relaxedFrom = Arrays.copyOf(relaxedFrom, length);
+                relaxedTo = Arrays.copyOf(relaxedTo, length);
+                relaxedDistances = Arrays.copyOf(relaxedDistances, length);
+                improvements = Arrays.copyOf(improvements, length);
+            }
+            relaxedFrom[relaxed] = from;
+            relaxedTo[relaxed] = to;
+            relaxedDistances[relaxed] = distance;
+            improvements[relaxed] = improved;
+        }
+        relaxed++;
+    }
+
+    /**
+     * Cheapest route, or null if the target is unreachable.
+     */
+    public Route getRoute() {
+        return route;
+    }
+
+    public int getSettled() {
+        return settled;
+    }
+
+    public int getRelaxed() {
+        return relaxed;
+    }
+
+    public int getPeakFrontier() {
+        return peakFrontier;
+    }
+
+    public boolean isTruncated() {
+        return settled > maxEvents || relaxed > maxEvents;
+    }
+
+    /**
+     * Settled nodes kept, at most {@code maxEvents}.
+     */
+    public int settledEvents() {
+        return Math.min(settled, maxEvents);
+    }
+
+    public int settledNode(int event) {
+        return settledNodes[event];
+    }
+
+    public double settledDistance(int event) {
+        return settledDistances[event];
+    }
+
+    /**
+     * Nodes queued right after the event's node was taken off the frontier.
+     */
+    public int frontierSize(int event) {
+        return frontierSizes[event];
+    }
+
+    /**
+     * Relaxations kept, at most {@code maxEvents}.
+     */
+    public int relaxedEvents() {
+        return Math.min(relaxed, maxEvents);
+    }
+
+    public int relaxedFrom(int event) {
+        return relaxedFrom[event];
+    }
+
+    public int relaxedTo(int event) {
+        return relaxedTo[event];
+    }
+
+    /**
+     * Distance to the relaxed node through the path, improving or not.
+     */
+    public double relaxedDistance(int event) {
+        return relaxedDistances[event];
+    }
+
+    public boolean improved(int event) {
+        return improvements[event];
+    }
+}
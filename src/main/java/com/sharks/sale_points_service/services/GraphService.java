@@ -0,0 +1,26 @@
+package com.sharks.sale_points_service.services;
+
+import java.util.function.Consumer;
+
+import com.sharks.sale_points_service.routing.RoutingGraph;
+
+public interface GraphService {
+
+    RoutingGraph getGraph();
+
+    void reload();
+
+    void update(Consumer<RoutingGraph.Editor> changes);
+
+    void putSalePoint(Long id, String name);
+
+    void removeSalePoint(Long id);
+
+    void putPath(Long idA, Long idB, Double cost);
+
+    void removePath(Long idA, Long idB);
+
+    void syncSalePoint(Long id);
+
+    void syncPath(Long idA, Long idB);
+}
@@ -0,0 +1,13 @@
+package com.sharks.sale_points_service.services;
+
+import java.io.InputStream;
+
+import com.sharks.sale_points_service.models.ImportFormat;
+import com.sharks.sale_points_service.models.ImportResult;
+
+public interface ImportService {
+
+    ImportResult importSalePoints(InputStream body, ImportFormat format);
+
+    ImportResult importPaths(InputStream body, ImportFormat format);
+}
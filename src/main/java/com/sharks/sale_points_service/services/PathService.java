@@ -1,9 +1,18 @@
 package com.sharks.sale_points_service.services;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.sharks.sale_points_service.models.CostMatrix;
+import com.sharks.sale_points_service.models.KeysetPage;
 import com.sharks.sale_points_service.models.Path;
 import com.sharks.sale_points_service.models.PathCost;
+import com.sharks.sale_points_service.models.PathCostResult;
+import com.sharks.sale_points_service.models.dtos.CostMatrixQuery;
+import com.sharks.sale_points_service.models.dtos.LandmarkStatsDTO;
+import com.sharks.sale_points_service.models.dtos.PathConstraints;
+import com.sharks.sale_points_service.models.dtos.PathCostBatchQuery;
+import com.sharks.sale_points_service.models.dtos.PathCostCacheStatsDTO;
 import com.sharks.sale_points_service.models.dtos.PathDTO;
 import com.sharks.sale_points_service.models.dtos.NewPath;
 import com.sharks.sale_points_service.models.dtos.NewPathWithoutIds;
@@ -12,6 +21,10 @@ public interface PathService {
 
     List<PathDTO> getAllPathDTOs();
 
+    KeysetPage<PathDTO> getPathDTOPage(String after, int limit);
+
+    void forEachPathDTO(Consumer<PathDTO> action);
+
     Path getPathByIds(Long idA, Long idB);
 
     List<Path> getPathsById(Long id);
@@ -27,4 +40,18 @@ public interface PathService {
     void deletePath(Long idA, Long idB);
 
     PathCost findCheapestPath(Long startId, Long endId);
+
+    PathCost findCheapestPath(Long startId, Long endId, PathConstraints constraints);
+
+    PathCost traceCheapestPath(Long startId, Long endId);
+
+    List<PathCost> findAlternativePaths(Long startId, Long endId, int k);
+
+    List<PathCostResult> findCheapestPaths(PathCostBatchQuery query);
+
+    CostMatrix getCostMatrix(CostMatrixQuery query);
+
+    LandmarkStatsDTO getLandmarkStats();
+
+    PathCostCacheStatsDTO getPathCostCacheStats();
 }
@@ -1,8 +1,12 @@
 package com.sharks.sale_points_service.services;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.sharks.sale_points_service.models.KeysetPage;
+import com.sharks.sale_points_service.models.ReachableSalePoint;
 import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.models.SalePointComponent;
 import com.sharks.sale_points_service.models.dtos.NewSalePoint;
 import com.sharks.sale_points_service.models.dtos.SalePointDTO;
 
@@ -10,6 +14,10 @@ public interface SalePointService {
 
     List<SalePointDTO> getAllSalePointDTOs();
 
+    KeysetPage<SalePointDTO> getSalePointDTOPage(Long after, int limit);
+
+    void forEachSalePointDTO(Consumer<SalePointDTO> action);
+
     SalePoint getSalePointById(Long id);
 
     SalePointDTO getSalePointDTOById(Long id);
@@ -19,4 +27,8 @@ public interface SalePointService {
     SalePointDTO updateSalePoint(Long id, NewSalePoint newSalePoint);
 
     void deleteSalePoint(Long id);
+
+    SalePointComponent getComponent(Long id);
+
+    Consumer<Consumer<ReachableSalePoint>> getReachableSalePoints(Long id, double maxCost);
 }
@@ -0,0 +1,135 @@
+package com.sharks.sale_points_service.services.impl;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.sharks.sale_points_service.models.PathPK;
+import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.models.dtos.PathDTO;
+import com.sharks.sale_points_service.models.dtos.SalePointDTO;
+import com.sharks.sale_points_service.repositories.PathRepository;
+import com.sharks.sale_points_service.repositories.SalePointRepository;
+import com.sharks.sale_points_service.routing.GraphListener;
+import com.sharks.sale_points_service.routing.PathChange;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+import com.sharks.sale_points_service.services.GraphService;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class GraphServiceImpl implements GraphService {
+
+    private final SalePointRepository salePointRepository;
+    private final PathRepository pathRepository;
+    private final List<GraphListener> listeners;
+
+    private volatile RoutingGraph graph;
+
+    public GraphServiceImpl(SalePointRepository salePointRepository, PathRepository pathRepository,
+            List<GraphListener> listeners) {
+        this.salePointRepository = salePointRepository;
+        this.pathRepository = pathRepository;
+        this.listeners = listeners;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        getGraph();
+    }
+
+    @Override
+    public RoutingGraph getGraph() {
+        RoutingGraph current = graph;
+        if (current != null)
+            return current;
+        synchronized (this) {
+            if (graph == null)
+                reload();
+            return graph;
+        }
+    }
+
+    /**
+     * Paths are read with their sale point ids in one joined query, since
+     * loading them as entities would fetch both sale points of every path one
+     * select at a time.
+     */
+    @Override
+    public synchronized void reload() {
+        RoutingGraph.Editor editor = RoutingGraph.empty().edit();
+        for (SalePoint salePoint : salePointRepository.findAll())
+            editor.putSalePoint(salePoint.getId(), salePoint.getName());
+        for (PathDTO path : pathRepository.findAllPathDTOs())
+            editor.mergePath(path.getSalePointA().getId(), path.getSalePointB().getId(), path.getCost());
+        graph = editor.build();
+        listeners.forEach(listener -> listener.onGraphChanged(graph));
+        log.info("Loaded routing graph with {} sale points and {} paths", graph.getNodeCount(),
+                graph.getEdgeCount());
+    }
+
+    @Override
+    public synchronized void update(Consumer<RoutingGraph.Editor> changes) {
+        RoutingGraph.Editor editor = getGraph().edit();
+        changes.accept(editor);
+        RoutingGraph next = editor.build();
+        List<PathChange> pathChanges = editor.getChanges();
+        graph = next;
+        listeners.forEach(listener -> listener.onGraphChanged(next, pathChanges));
+    }
+
+    @Override
+    public void putSalePoint(Long id, String name) {
+        update(editor -> editor.putSalePoint(id, name));
+    }
+
+    @Override
+    public void removeSalePoint(Long id) {
+        update(editor -> editor.removeSalePoint(id));
+    }
+
+    @Override
+    public void putPath(Long idA, Long idB, Double cost) {
+        update(editor -> editor.putPath(idA, idB, cost));
+    }
+
+    @Override
+    public void removePath(Long idA, Long idB) {
+        update(editor -> editor.removePath(idA, idB));
+    }
+
+    /**
+     * Brings the sale point in line with the database. Called after a write
+     * has committed, it reads the row while holding the graph lock, so of two
+     * racing writes the one applied last sees what both of them left and the
+     * graph cannot end up with the one that committed first.
+     */
+    @Override
+    public synchronized void syncSalePoint(Long id) {
+        Optional<SalePointDTO> salePoint = salePointRepository.findSalePointDTOById(id);
+        update(editor -> salePoint.ifPresentOrElse(stored -> editor.putSalePoint(id, stored.getName()),
+                () -> editor.removeSalePoint(id)));
+    }
+
+    /**
+     * Brings the path in line with the database, the same way as
+     * {@link #syncSalePoint}. A stored path's sale points are stored too, so
+     * they are put along with it in case their own writes have not reached the
+     * graph yet.
+     */
+    @Override
+    public synchronized void syncPath(Long idA, Long idB) {
+        PathPK key = new PathPK(idA, idB);
+        Optional<PathDTO> path = pathRepository.findPathDTOByKey(key.getSalePointA(), key.getSalePointB());
+        update(editor -> path.ifPresentOrElse(stored -> editor
+                .putSalePoint(stored.getSalePointA().getId(), stored.getSalePointA().getName())
+                .putSalePoint(stored.getSalePointB().getId(), stored.getSalePointB().getName())
+                .putPath(idA, idB, stored.getCost()),
+                () -> editor.removePath(idA, idB)));
+    }
+}
@@ -0,0 +1,291 @@
+package com.sharks.sale_points_service.services.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharks.sale_points_service.exceptions.NameAlreadyExistsException;
+import com.sharks.sale_points_service.exceptions.PathAlreadyExistsException;
+import com.sharks.sale_points_service.exceptions.SalePointNotFoundException;
+import com.sharks.sale_points_service.exceptions.SameSalePointException;
+import com.sharks.sale_points_service.models.ImportFormat;
+import com.sharks.sale_points_service.models.ImportResult;
+import com.sharks.sale_points_service.models.Path;
+import com.sharks.sale_points_service.models.PathPK;
+import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.models.dtos.NewPath;
+import com.sharks.sale_points_service.models.dtos.NewSalePoint;
+import com.sharks.sale_points_service.repositories.SalePointRepository;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+import com.sharks.sale_points_service.services.GraphService;
+import com.sharks.sale_points_service.services.ImportService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk imports read the body line by line and work on chunks of rows: a chunk
+ * is validated in memory (against itself, the routing graph and a single name
+ * lookup), inserted in one transaction with batched statements, and then
+ * applied to the graph as a single edit, so caches hear about it once. Invalid
+ * rows are reported and skipped without failing the rest of the import.
+ */
+@Slf4j
+@Service
+public class ImportServiceImpl implements ImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final String PATHS_CACHE = "paths";
+
+    private final SalePointRepository salePointRepository;
+    private final GraphService graphService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public ImportServiceImpl(SalePointRepository salePointRepository, GraphService graphService,
+            EntityManager entityManager, TransactionTemplate transactionTemplate, CacheManager cacheManager,
+            ObjectMapper objectMapper, @Value("${import.chunk-size:1000}") int chunkSize) {
+        this.salePointRepository = salePointRepository;
+        this.graphService = graphService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public ImportResult importSalePoints(InputStream body, ImportFormat format) {
+        ImportResult result = importRows(body, format, "name", this::parseSalePoint, this::writeSalePoints);
+        log.info("Imported {} sale points, {} rows rejected", result.getImported(), result.getRejected());
+        return result;
+    }
+
+    @Override
+    public ImportResult importPaths(InputStream body, ImportFormat format) {
+        ImportResult result = importRows(body, format, "ida,idb,cost", this::parsePath, this::writePaths);
+        log.info("Imported {} paths, {} rows rejected", result.getImported(), result.getRejected());
+        return result;
+    }
+
+    private <T> ImportResult importRows(InputStream body, ImportFormat format, String csvHeader,
+            RowParser<T> parser, ChunkWriter<T> writer) {
+        Report report = new Report();
+        List<Row<T>> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank() || number == 1 && format == ImportFormat.CSV && isHeader(line, csvHeader))
+                    continue;
+                try {
+                    chunk.add(new Row<>(number, parser.parse(line.strip(), format)));
+                } catch (IllegalArgumentException e) {
+                    report.reject(number, e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, writer, report);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty())
+            writeChunk(chunk, writer, report);
+        return report.toResult();
+    }
+
+    private <T> void writeChunk(List<Row<T>> chunk, ChunkWriter<T> writer, Report report) {
+        report.chunks++;
+        try {
+            writer.write(chunk, report);
+        } catch (PersistenceException | DataIntegrityViolationException e) {
+            // A concurrent write got in between validation and insert; the chunk was rolled back. The
+            // flush throws untranslated, while a failing commit is translated by the transaction manager
+            chunk.forEach(row -> report.reject(row.line(), "Conflicts with a concurrent change, retry the row"));
+        }
+    }
+
+    private void writeSalePoints(List<Row<String>> chunk, Report report) {
+        Set<String> names = new HashSet<>();
+        chunk.forEach(row -> names.add(row.value()));
+        Set<String> taken = new HashSet<>();
+        salePointRepository.findByNameIn(names).forEach(salePoint -> taken.add(salePoint.getName()));
+
+        List<SalePoint> salePoints = new ArrayList<>(chunk.size());
+        for (Row<String> row : chunk) {
+            if (!taken.add(row.value())) {
+                report.reject(row.line(), new NameAlreadyExistsException().getMessage());
+                continue;
+            }
+            salePoints.add(new SalePoint(row.value()));
+        }
+        if (salePoints.isEmpty())
+            return;
+
+        persist(salePoints);
+        graphService.update(editor -> salePoints
+                .forEach(salePoint -> editor.putSalePoint(salePoint.getId(), salePoint.getName())));
+        report.imported += salePoints.size();
+    }
+
+    private void writePaths(List<Row<NewPath>> chunk, Report report) {
+        RoutingGraph graph = graphService.getGraph();
+        Set<String> pairs = new HashSet<>();
+        List<NewPath> accepted = new ArrayList<>(chunk.size());
+        for (Row<NewPath> row : chunk) {
+            NewPath newPath = row.value();
+            int a = graph.indexOf(newPath.idA());
+            int b = graph.indexOf(newPath.idB());
+            String pair = PathPK.key(newPath.idA(), newPath.idB());
+            if (newPath.idA().equals(newPath.idB()))
+                report.reject(row.line(), new SameSalePointException(newPath.idA()).getMessage());
+            else if (a < 0 || b < 0)
+                report.reject(row.line(),
+                        new SalePointNotFoundException(a < 0 ? newPath.idA() : newPath.idB()).getMessage());
+            else if (graph.edgeCost(a, b) < Double.POSITIVE_INFINITY || !pairs.add(pair))
+                report.reject(row.line(),
+                        new PathAlreadyExistsException(newPath.idA(), newPath.idB()).getMessage());
+            else
+                accepted.add(newPath);
+        }
+        if (accepted.isEmpty())
+            return;
+
+        persist(accepted.stream()
+                .map(newPath -> new Path(entityManager.getReference(SalePoint.class, newPath.idA()),
+                        entityManager.getReference(SalePoint.class, newPath.idB()), newPath.cost()))
+                .toList());
+        graphService.update(editor -> accepted
+                .forEach(newPath -> editor.putPath(newPath.idA(), newPath.idB(), newPath.cost())));
+        Cache paths = cacheManager.getCache(PATHS_CACHE);
+        if (paths != null) {
+            accepted.forEach(newPath -> {
+                paths.evict(newPath.idA());
+                paths.evict(newPath.idB());
+            });
+        }
+        report.imported += accepted.size();
+    }
+
+    /**
+     * Inserts the entities in one transaction. Hibernate groups the inserts
+     * into JDBC batches, and the persistence context is cleared afterwards so
+     * it does not grow with the import.
+     */
+    private void persist(List<?> entities) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entities.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private String parseSalePoint(String line, ImportFormat format) {
+        String name = format == ImportFormat.NDJSON ? readJson(line, NewSalePoint.class).name() : unquote(line);
+        if (name == null || name.isBlank())
+            throw new IllegalArgumentException("Name is required");
+        return name;
+    }
+
+    private NewPath parsePath(String line, ImportFormat format) {
+        NewPath newPath;
+        if (format == ImportFormat.NDJSON) {
+            newPath = readJson(line, NewPath.class);
+        } else {
+            String[] fields = line.split(",", -1);
+            if (fields.length != 3)
+                throw new IllegalArgumentException("Expected idA,idB,cost");
+            try {
+                newPath = new NewPath(Long.valueOf(fields[0].strip()), Long.valueOf(fields[1].strip()),
+                        Double.valueOf(fields[2].strip()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed number in " + line);
+            }
+        }
+        if (newPath.idA() == null || newPath.idB() == null || newPath.cost() == null)
+            throw new IllegalArgumentException("idA, idB and cost are required");
+        if (newPath.cost() < 0 || newPath.cost().isNaN() || newPath.cost().isInfinite())
+            throw new IllegalArgumentException("Cost must be a non-negative number");
+        return newPath;
+    }
+
+    private <T> T readJson(String line, Class<T> type) {
+        try {
+            return objectMapper.readValue(line, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static String unquote(String field) {
+        if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\""))
+            return field.substring(1, field.length() - 1).replace("\"\"", "\"");
+        return field;
+    }
+
+    private static boolean isHeader(String line, String header) {
+        return line.replace(" ", "").replace("_", "").equalsIgnoreCase(header);
+    }
+
+    @FunctionalInterface
+    private interface RowParser<T> {
+        T parse(String line, ImportFormat format);
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        void write(List<Row<T>> chunk, Report report);
+    }
+
+    private record Row<T>(int line, T value) {
+    }
+
+    private static final class Report {
+
+        private int imported;
+        private int rejected;
+        private int chunks;
+        private final List<Row<String>> errors = new ArrayList<>();
+
+        private void reject(int line, String reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS)
+                errors.add(new Row<>(line, reason));
+        }
+
+        /**
+         * Malformed rows are reported as they are read and the others when their
+         * chunk is written, so errors are sorted back into line order.
+         */
+        private ImportResult toResult() {
+            return new ImportResult(imported, rejected, chunks, errors.stream()
+                    .sorted(Comparator.comparingInt(Row::line))
+                    .map(error -> "Line " + error.line() + ": " + error.value())
+                    .toList());
+        }
+    }
+}
@@ -1,67 +1,140 @@
 package com.sharks.sale_points_service.services.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.sharks.sale_points_service.cache.PathCostCache;
+import com.sharks.sale_points_service.cache.SingleFlight;
+import com.sharks.sale_points_service.exceptions.EngineNotEnabledException;
+import com.sharks.sale_points_service.exceptions.InvalidConstraintsException;
+import com.sharks.sale_points_service.exceptions.InvalidCursorException;
 import com.sharks.sale_points_service.exceptions.PathAlreadyExistsException;
 import com.sharks.sale_points_service.exceptions.PathNotFoundException;
+import com.sharks.sale_points_service.exceptions.SalePointNotFoundException;
 import com.sharks.sale_points_service.exceptions.SameSalePointException;
+import com.sharks.sale_points_service.metrics.PathSearchMetrics;
+import com.sharks.sale_points_service.metrics.SearchOutcome;
+import com.sharks.sale_points_service.models.CostMatrix;
+import com.sharks.sale_points_service.models.KeysetPage;
 import com.sharks.sale_points_service.models.Path;
 import com.sharks.sale_points_service.models.PathCost;
+import com.sharks.sale_points_service.models.PathCostResult;
+import com.sharks.sale_points_service.models.PathPK;
 import com.sharks.sale_points_service.models.SalePoint;
 import com.sharks.sale_points_service.models.SalePointCost;
+import com.sharks.sale_points_service.models.SearchTrace;
+import com.sharks.sale_points_service.models.dtos.CostMatrixQuery;
+import com.sharks.sale_points_service.models.dtos.LandmarkStatsDTO;
+import com.sharks.sale_points_service.models.dtos.PathConstraints;
+import com.sharks.sale_points_service.models.dtos.PathCostBatchQuery;
+import com.sharks.sale_points_service.models.dtos.PathCostCacheStatsDTO;
 import com.sharks.sale_points_service.models.dtos.PathDTO;
 import com.sharks.sale_points_service.models.dtos.NewPath;
 import com.sharks.sale_points_service.models.dtos.NewPathWithoutIds;
+import com.sharks.sale_points_service.models.dtos.PathPair;
 import com.sharks.sale_points_service.repositories.PathRepository;
+import com.sharks.sale_points_service.routing.AltEngine;
+import com.sharks.sale_points_service.routing.AlternativeRoutes;
+import com.sharks.sale_points_service.routing.ComponentIndex;
+import com.sharks.sale_points_service.routing.ConnectedComponents;
+import com.sharks.sale_points_service.routing.ConstrainedSearch;
+import com.sharks.sale_points_service.routing.ParallelTreeSearch;
+import com.sharks.sale_points_service.routing.Route;
+import com.sharks.sale_points_service.routing.RouteConstraints;
+import com.sharks.sale_points_service.routing.RoutingEngine;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+import com.sharks.sale_points_service.routing.ShortestPathTree;
+import com.sharks.sale_points_service.routing.ShortestPathTreeCache;
+import com.sharks.sale_points_service.routing.TracedSearch;
+import com.sharks.sale_points_service.services.GraphService;
 import com.sharks.sale_points_service.services.PathService;
 import com.sharks.sale_points_service.services.SalePointService;
 
-import lombok.extern.slf4j.Slf4j;
+import io.micrometer.core.instrument.Timer;
 
-@Slf4j
 @Service
 public class PathServiceImpl implements PathService {
 
+    private static final int MAX_TRACE_EVENTS = 1000;
+
     private final PathRepository pathRepository;
     private final SalePointService salePointService;
+    private final GraphService graphService;
+    private final RoutingEngine routingEngine;
+    private final ShortestPathTreeCache treeCache;
+    private final PathCostCache pathCostCache;
+    private final ParallelTreeSearch parallelTreeSearch;
+    private final PathSearchMetrics searchMetrics;
+    private final SingleFlight<String, PathCost> pathCostSearches;
+    private final ComponentIndex componentIndex;
 
-    public PathServiceImpl(PathRepository pathRepository, SalePointService salePointService) {
+    public PathServiceImpl(PathRepository pathRepository, SalePointService salePointService,
+            GraphService graphService, RoutingEngine routingEngine, ShortestPathTreeCache treeCache,
+            PathCostCache pathCostCache, ParallelTreeSearch parallelTreeSearch, PathSearchMetrics searchMetrics,
+            SingleFlight<String, PathCost> pathCostSearches, ComponentIndex componentIndex) {
         this.pathRepository = pathRepository;
         this.salePointService = salePointService;
+        this.graphService = graphService;
+        this.routingEngine = routingEngine;
+        this.treeCache = treeCache;
+        this.pathCostCache = pathCostCache;
+        this.parallelTreeSearch = parallelTreeSearch;
+        this.searchMetrics = searchMetrics;
+        this.pathCostSearches = pathCostSearches;
+        this.componentIndex = componentIndex;
     }
 
     @Override
     public List<PathDTO> getAllPathDTOs() {
-        return pathRepository.findAll().stream().map(PathDTO::new).toList();
+        return pathRepository.findAllPathDTOs();
+    }
+
+    @Override
+    public KeysetPage<PathDTO> getPathDTOPage(String after, int limit) {
+        PathPK cursor = after != null ? parseCursor(after) : new PathPK(Long.MIN_VALUE, Long.MIN_VALUE);
+        List<PathDTO> rows = pathRepository.findPathDTOsAfter(cursor.getSalePointA(), cursor.getSalePointB(),
+                Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit,
+                path -> PathPK.key(path.getSalePointA().getId(), path.getSalePointB().getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachPathDTO(Consumer<PathDTO> action) {
+        try (Stream<PathDTO> paths = pathRepository.streamAllPathDTOs()) {
+            paths.forEach(action);
+        }
     }
 
     @Override
     public Path getPathByIds(Long idA, Long idB) {
-        return pathRepository.findBySalePointA_IdAndSalePointB_Id(idA, idB)
-                .or(() -> pathRepository.findBySalePointA_IdAndSalePointB_Id(idB, idA))
-                .orElseThrow(() -> new PathNotFoundException(idA, idB));
+        return pathRepository.findById(new PathPK(idA, idB)).orElseThrow(() -> new PathNotFoundException(idA, idB));
     }
 
     @Override
     public List<Path> getPathsById(Long id) {
-        HashSet<Path> paths = new HashSet<>();
-        paths.addAll(pathRepository.findBySalePointA_Id(id));
-        paths.addAll(pathRepository.findBySalePointB_Id(id));
-        return paths.stream().toList();
+        return pathRepository.findBySalePointA_IdOrSalePointB_Id(id, id);
     }
 
     @Override
-    @Cacheable(value = "paths", key = "#idA + '-' + #idB")
+    @Cacheable(value = "paths", key = "T(com.sharks.sale_points_service.models.PathPK).key(#idA, #idB)")
     public PathDTO getPathDTOByIds(Long idA, Long idB) {
         return new PathDTO(getPathByIds(idA, idB));
     }
@@ -69,131 +142,410 @@ public class PathServiceImpl implements PathService {
     @Override
     @Cacheable(value = "paths", key = "#id")
     public List<PathDTO> getPathDTOsById(Long id) {
-        return getPathsById(id).stream().map(PathDTO::new).toList();
+        return pathRepository.findPathDTOsBySalePointId(id);
     }
 
     @Override
-    @CachePut(value = "paths", key = "#newPath.idA + '-' + #newPath.idB")
-    @CacheEvict(value = "pathCost", allEntries = true)
+    @CachePut(value = "paths", key = "T(com.sharks.sale_points_service.models.PathPK).key(#newPath.idA, #newPath.idB)")
     public PathDTO createPath(NewPath newPath) {
         validatePath(newPath);
         SalePoint salePointA = salePointService.getSalePointById(newPath.idA());
         SalePoint salePointB = salePointService.getSalePointById(newPath.idB());
         Path path = new Path(salePointA, salePointB, newPath.cost());
         Path savedPath = pathRepository.save(path);
+        graphService.syncPath(newPath.idA(), newPath.idB());
         return new PathDTO(savedPath);
     }
 
     @Override
-    @CachePut(value = "paths", key = "#idA + '-' + #idB")
-    @CacheEvict(value = "pathCost", allEntries = true)
+    @CachePut(value = "paths", key = "T(com.sharks.sale_points_service.models.PathPK).key(#idA, #idB)")
     public PathDTO updatePath(Long idA, Long idB, NewPathWithoutIds newPath) {
         Path existingPath = getPathByIds(idA, idB);
         existingPath.setCost(newPath.cost());
         Path updatedPath = pathRepository.save(existingPath);
+        graphService.syncPath(idA, idB);
         return new PathDTO(updatedPath);
     }
 
     @Override
-    @CachePut(value = "paths", key = "#idA + '-' + #idB")
-    @CacheEvict(value = "pathCost", allEntries = true)
+    @CacheEvict(value = "paths", key = "T(com.sharks.sale_points_service.models.PathPK).key(#idA, #idB)")
     public void deletePath(Long idA, Long idB) {
         Path existingPath = getPathByIds(idA, idB);
         pathRepository.delete(existingPath);
+        graphService.syncPath(idA, idB);
     }
 
+    /**
+     * Cache misses for the same pair, either way, share a single search, so a
+     * burst of queries for a route that was just evicted costs one search. The
+     * shared result is oriented like the cache entries and turned around for
+     * each query.
+     */
     @Override
-    @Cacheable(value = "pathCost", key = "#startId + '-' + #endId")
     public PathCost findCheapestPath(Long startId, Long endId) {
-        PriorityQueue<SalePointCost> queue = new PriorityQueue<>();
-        Map<Long, List<SalePointCost>> graph = new HashMap<>();
-        Map<Long, String> salePointNames = new HashMap<>();
-        Map<Long, Long> previous = new HashMap<>();
-        Map<Long, Boolean> visited = new HashMap<>();
-        Map<Long, Double> costs = new HashMap<>();
-        SalePoint startSalePoint = salePointService.getSalePointById(startId);
-        SalePoint endSalePoint = salePointService.getSalePointById(endId);
-        salePointNames.put(startId, startSalePoint.getName());
-        salePointNames.put(endId, endSalePoint.getName());
-        queue.add(new SalePointCost(startId, 0.0));
-        previous.put(startId, null);
-        visited.put(startId, false);
-        costs.put(startId, 0.0);
-
-        while (!queue.isEmpty()) {
-            SalePointCost current = queue.poll();
-            Long currentId = current.getId();
-            visited.put(currentId, true);
-            log.info("Visiting sale point ID {}", currentId);
-
-            if (currentId.equals(endId))
-                return buildPathCost(currentId, previous, costs, salePointNames, endId);
-
-            if (graph.get(currentId) == null)
-                buildGraphForCurrent(graph, salePointNames, previous, visited, costs, currentId);
-
-            processNeighbors(graph, visited, costs, previous, queue, current);
+        return findCached(startId, endId, () -> pathCostCache.get(startId, endId), PathCostCache.key(startId, endId),
+                () -> searchCheapestPath(startId, endId));
+    }
+
+    /**
+     * Constraints are applied while searching, so the stored paths, the graph
+     * and its caches stay as they are. Shortest path trees hold unconstrained
+     * distances and are not used; results are cached under keys that include
+     * the constraints.
+     */
+    @Override
+    public PathCost findCheapestPath(Long startId, Long endId, PathConstraints constraints) {
+        if (isUnconstrained(constraints))
+            return findCheapestPath(startId, endId);
+        return findCached(startId, endId, () -> pathCostCache.get(startId, endId, constraints),
+                PathCostCache.key(startId, endId, constraints),
+                () -> searchConstrainedPath(startId, endId, constraints));
+    }
+
+    private PathCost findCached(Long startId, Long endId, Supplier<PathCost> lookup, String key,
+            Supplier<PathCost> search) {
+        Timer.Sample sample = searchMetrics.start();
+        SearchOutcome outcome = SearchOutcome.ERROR;
+        try {
+            PathCost cached = lookup.get();
+            if (cached != null) {
+                outcome = SearchOutcome.CACHE_HIT;
+                return cached;
+            }
+            PathCost pathCost = PathCostCache.orient(startId, endId,
+                    pathCostSearches.run(key, () -> PathCostCache.orient(startId, endId, search.get())));
+            outcome = SearchOutcome.FOUND;
+            return pathCost;
+        } catch (SalePointNotFoundException | PathNotFoundException e) {
+            outcome = SearchOutcome.NOT_FOUND;
+            throw e;
+        } finally {
+            searchMetrics.stop(sample, outcome);
+        }
+    }
+
+    private PathCost searchCheapestPath(Long startId, Long endId) {
+        RoutingGraph graph = graphService.getGraph();
+        int start = requireSalePoint(graph, startId);
+        int end = requireSalePoint(graph, endId);
+        if (!mayBeConnected(graph, start, end))
+            throw new PathNotFoundException(startId, endId);
+        Route route = treeCache.find(graph, start, end);
+        if (route == null && treeCache.shouldGrow(graph, start)) {
+            ShortestPathTree tree = treeCache.grow(graph, start);
+            searchMetrics.grown(tree);
+            route = tree.route(end);
+        } else if (route == null) {
+            route = routingEngine.route(graph, start, end);
+            if (route != null)
+                searchMetrics.searched(route);
         }
+        if (route == null)
+            throw new PathNotFoundException(startId, endId);
+        searchMetrics.found(route);
+        PathCost pathCost = buildPathCost(graph, route);
+        pathCostCache.put(startId, endId, graph, route, pathCost);
+        return pathCost;
+    }
 
-        throw new PathNotFoundException(startId, endId);
+    private PathCost searchConstrainedPath(Long startId, Long endId, PathConstraints constraints) {
+        RoutingGraph graph = graphService.getGraph();
+        int start = requireSalePoint(graph, startId);
+        int end = requireSalePoint(graph, endId);
+        RouteConstraints routeConstraints = routeConstraints(graph, startId, endId, constraints);
+        if (!mayBeConnected(graph, start, end))
+            throw new PathNotFoundException(startId, endId);
+        Route route = ConstrainedSearch.route(graph, start, end, routeConstraints);
+        if (route == null)
+            throw new PathNotFoundException(startId, endId);
+        searchMetrics.searched(route);
+        searchMetrics.found(route);
+        PathCost pathCost = buildPathCost(graph, route);
+        pathCostCache.put(startId, endId, constraints, graph, route, pathCost);
+        return pathCost;
     }
 
-    private PathCost buildPathCost(Long currentId, Map<Long, Long> previous, Map<Long, Double> costs,
-            Map<Long, String> salePointNames, Long endId) {
-        List<SalePointCost> finalPath = new ArrayList<>();
-        Long iterId = currentId;
-        while (iterId != null) {
-            Double salePointCost = costs.get(iterId) - costs.getOrDefault(previous.get(iterId), 0.0);
-            finalPath.add(new SalePointCost(iterId, salePointNames.get(iterId), salePointCost));
-            iterId = previous.get(iterId);
+    /**
+     * Constraints in node indices of the snapshot. Via points must exist, while
+     * avoided sale points and paths that do not are simply nothing to avoid.
+     */
+    private RouteConstraints routeConstraints(RoutingGraph graph, Long startId, Long endId,
+            PathConstraints constraints) {
+        List<Long> via = constraints.via() != null ? constraints.via() : List.of();
+        BitSet excludedNodes = new BitSet();
+        for (Long id : orEmpty(constraints.avoidSalePoints())) {
+            if (id.equals(startId) || id.equals(endId) || via.contains(id))
+                throw new InvalidConstraintsException(id);
+            int node = graph.indexOf(id);
+            if (node >= 0)
+                excludedNodes.set(node);
         }
-        log.info("Final path found: {}", finalPath.reversed().stream().map(SalePointCost::getId).toList());
-        log.info("Total cost: {}", costs.get(endId));
-        return new PathCost(finalPath.reversed(), costs.get(endId));
-    }
-
-    private void buildGraphForCurrent(Map<Long, List<SalePointCost>> graph, Map<Long, String> salePointNames,
-            Map<Long, Long> previous, Map<Long, Boolean> visited, Map<Long, Double> costs, Long currentId) {
-        List<SalePointCost> salePointCosts = new ArrayList<>();
-        List<Path> paths = getPathsById(currentId);
-        for (Path path : paths) {
-            SalePoint connectedSalePoint = path.getSalePointB();
-            if (connectedSalePoint.getId().equals(currentId))
-                connectedSalePoint = path.getSalePointA();
-            Long salePointId = connectedSalePoint.getId();
-            salePointNames.putIfAbsent(salePointId, connectedSalePoint.getName());
-            previous.putIfAbsent(salePointId, null);
-            visited.putIfAbsent(salePointId, false);
-            costs.putIfAbsent(salePointId, Double.MAX_VALUE);
-            salePointCosts.add(new SalePointCost(salePointId, path.getCost()));
+        Set<Long> excludedPaths = new HashSet<>();
+        for (PathPair path : orEmpty(constraints.avoidPaths())) {
+            int nodeA = graph.indexOf(path.idA());
+            int nodeB = graph.indexOf(path.idB());
+            if (nodeA >= 0 && nodeB >= 0)
+                excludedPaths.add(RouteConstraints.pathKey(nodeA, nodeB));
         }
-        graph.put(currentId, salePointCosts);
-        log.info("Sale points connected to ID {}: {}", currentId,
-                salePointCosts.stream().map(SalePointCost::getId).toList());
+        int[] viaNodes = via.stream().mapToInt(id -> requireSalePoint(graph, id)).toArray();
+        int maxHops = constraints.maxHops() != null ? constraints.maxHops() : Integer.MAX_VALUE;
+        return new RouteConstraints(excludedNodes, excludedPaths, maxHops, viaNodes);
+    }
+
+    private static boolean isUnconstrained(PathConstraints constraints) {
+        return constraints == null || orEmpty(constraints.avoidSalePoints()).isEmpty()
+                && orEmpty(constraints.avoidPaths()).isEmpty() && constraints.maxHops() == null
+                && orEmpty(constraints.via()).isEmpty();
     }
 
-    private void processNeighbors(Map<Long, List<SalePointCost>> graph, Map<Long, Boolean> visited,
-            Map<Long, Double> costs, Map<Long, Long> previous, PriorityQueue<SalePointCost> queue,
-            SalePointCost current) {
-        Long currentId = current.getId();
-        for (SalePointCost salePointCost : graph.get(currentId)) {
-            if (Boolean.TRUE.equals(visited.get(salePointCost.getId())))
+    private static <T> List<T> orEmpty(List<T> values) {
+        return values != null ? values : List.of();
+    }
+
+    /**
+     * Runs a traced Dijkstra search, bypassing the caches and the configured
+     * engine, so the trace shows the search every engine must agree with.
+     */
+    @Override
+    public PathCost traceCheapestPath(Long startId, Long endId) {
+        RoutingGraph graph = graphService.getGraph();
+        int start = requireSalePoint(graph, startId);
+        int end = requireSalePoint(graph, endId);
+        TracedSearch search = TracedSearch.run(graph, start, end, MAX_TRACE_EVENTS);
+        if (search.getRoute() == null)
+            throw new PathNotFoundException(startId, endId);
+        PathCost pathCost = buildPathCost(graph, search.getRoute());
+        return new PathCost(pathCost.getPath(), pathCost.getTotalCost(), buildSearchTrace(graph, search));
+    }
+
+    /**
+     * Spur searches are guided by the full tree of either end, taken from the
+     * tree cache when there is one and grown and cached for the target
+     * otherwise, so repeated requests towards a sale point share it.
+     */
+    @Override
+    public List<PathCost> findAlternativePaths(Long startId, Long endId, int k) {
+        RoutingGraph graph = graphService.getGraph();
+        int start = requireSalePoint(graph, startId);
+        int end = requireSalePoint(graph, endId);
+        if (!mayBeConnected(graph, start, end))
+            throw new PathNotFoundException(startId, endId);
+        ShortestPathTree tree = treeCache.get(graph, end);
+        boolean fromStart = false;
+        if (tree == null) {
+            tree = treeCache.get(graph, start);
+            fromStart = tree != null;
+        }
+        if (tree == null)
+            tree = treeCache.grow(graph, end);
+        List<Route> routes = fromStart
+                ? AlternativeRoutes.find(graph, tree, end, k).stream().map(Route::reversed).toList()
+                : AlternativeRoutes.find(graph, tree, start, k);
+        if (routes.isEmpty())
+            throw new PathNotFoundException(startId, endId);
+        return routes.stream().map(route -> buildPathCost(graph, route)).toList();
+    }
+
+    @Override
+    public List<PathCostResult> findCheapestPaths(PathCostBatchQuery query) {
+        RoutingGraph graph = graphService.getGraph();
+        ConnectedComponents components = componentIndex.forGraph(graph);
+        Map<String, PairSearch> searches = new LinkedHashMap<>();
+        Map<String, String> errors = new HashMap<>();
+        Map<Integer, Integer> occurrences = new HashMap<>();
+        for (PathPair pair : query.pairs()) {
+            String key = PathPK.key(pair.idA(), pair.idB());
+            if (searches.containsKey(key) || errors.containsKey(key))
                 continue;
-            Double newCost = current.getCost() + salePointCost.getCost();
-            if (newCost < costs.get(salePointCost.getId())) {
-                previous.put(salePointCost.getId(), currentId);
-                costs.put(salePointCost.getId(), newCost);
-                queue.add(new SalePointCost(salePointCost.getId(), newCost));
-                log.info("New cost for sale point ID {}: {}", salePointCost.getId(), newCost);
+            int a = graph.indexOf(pair.idA());
+            int b = graph.indexOf(pair.idB());
+            if (a < 0 || b < 0) {
+                errors.put(key, new SalePointNotFoundException(a < 0 ? pair.idA() : pair.idB()).getMessage());
+                continue;
+            }
+            if (components != null && !components.connected(a, b)) {
+                errors.put(key, new PathNotFoundException(pair.idA(), pair.idB()).getMessage());
+                continue;
+            }
+            searches.put(key, new PairSearch(a, b));
+            occurrences.merge(a, 1, Integer::sum);
+            if (a != b)
+                occurrences.merge(b, 1, Integer::sum);
+        }
+
+        Map<Integer, BitSet> groups = new LinkedHashMap<>();
+        for (PairSearch search : searches.values())
+            groups.computeIfAbsent(search.source(occurrences), source -> new BitSet())
+                    .set(search.target(occurrences));
+        int[] sources = groups.keySet().stream().mapToInt(Integer::intValue).toArray();
+        BitSet[] targets = groups.values().toArray(BitSet[]::new);
+        List<Map<Integer, Route>> routes = parallelTreeSearch.growAll(graph, sources, targets,
+                tree -> routesTo(tree, groups.get(tree.getSource())));
+        Map<Integer, Map<Integer, Route>> routesBySource = new HashMap<>();
+        for (int i = 0; i < sources.length; i++)
+            routesBySource.put(sources[i], routes.get(i));
+
+        List<PathCostResult> results = new ArrayList<>(query.pairs().size());
+        for (PathPair pair : query.pairs()) {
+            String key = PathPK.key(pair.idA(), pair.idB());
+            PairSearch search = searches.get(key);
+            if (search == null) {
+                results.add(new PathCostResult(pair.idA(), pair.idB(), null, errors.get(key)));
+                continue;
+            }
+            int source = search.source(occurrences);
+            int start = graph.indexOf(pair.idA());
+            int end = graph.indexOf(pair.idB());
+            Route route = routesBySource.get(source).get(source == start ? end : start);
+            if (route == null) {
+                String error = new PathNotFoundException(pair.idA(), pair.idB()).getMessage();
+                results.add(new PathCostResult(pair.idA(), pair.idB(), null, error));
+            } else {
+                route = source == start ? route : route.reversed();
+                results.add(new PathCostResult(pair.idA(), pair.idB(), buildPathCost(graph, route), null));
             }
         }
+        return results;
+    }
+
+    /**
+     * Routes from the tree's source to each target it reached, so the tree can
+     * be dropped as soon as it is grown.
+     */
+    private Map<Integer, Route> routesTo(ShortestPathTree tree, BitSet targets) {
+        Map<Integer, Route> routes = new HashMap<>();
+        for (int target = targets.nextSetBit(0); target >= 0; target = targets.nextSetBit(target + 1)) {
+            Route route = tree.route(target);
+            if (route != null)
+                routes.put(target, route);
+        }
+        return routes;
+    }
+
+    @Override
+    public CostMatrix getCostMatrix(CostMatrixQuery query) {
+        RoutingGraph graph = graphService.getGraph();
+        int[] sources = query.sources().stream().mapToInt(id -> requireSalePoint(graph, id)).toArray();
+        int[] targets = query.targets().stream().mapToInt(id -> requireSalePoint(graph, id)).toArray();
+        BitSet targetSet = new BitSet(graph.capacity());
+        for (int target : targets)
+            targetSet.set(target);
+
+        BitSet[] targetSets = new BitSet[sources.length];
+        Arrays.fill(targetSets, targetSet);
+
+        List<MatrixRow> rows = parallelTreeSearch.growAll(graph, sources, targetSets, tree -> {
+            treeCache.put(tree);
+            return matrixRow(graph, tree, targets, query.includePaths());
+        });
+        List<List<Double>> costs = rows.stream().map(MatrixRow::costs).toList();
+        List<List<PathCost>> paths = query.includePaths() ? rows.stream().map(MatrixRow::paths).toList() : null;
+        return new CostMatrix(query.sources(), query.targets(), costs, paths);
+    }
+
+    private MatrixRow matrixRow(RoutingGraph graph, ShortestPathTree tree, int[] targets, boolean includePaths) {
+        List<Double> costs = new ArrayList<>(targets.length);
+        List<PathCost> paths = includePaths ? new ArrayList<>(targets.length) : null;
+        for (int target : targets) {
+            double distance = tree.distance(target);
+            costs.add(distance == Double.POSITIVE_INFINITY ? null : distance);
+            if (paths != null) {
+                Route route = tree.route(target);
+                paths.add(route != null ? buildPathCost(graph, route) : null);
+            }
+        }
+        return new MatrixRow(costs, paths);
+    }
+
+    @Override
+    public LandmarkStatsDTO getLandmarkStats() {
+        if (!(routingEngine instanceof AltEngine altEngine))
+            throw new EngineNotEnabledException("alt");
+        return new LandmarkStatsDTO(altEngine, graphService.getGraph());
+    }
+
+    @Override
+    public PathCostCacheStatsDTO getPathCostCacheStats() {
+        return new PathCostCacheStatsDTO(pathCostCache);
+    }
+
+    private int requireSalePoint(RoutingGraph graph, Long id) {
+        int node = graph.indexOf(id);
+        if (node < 0)
+            throw new SalePointNotFoundException(id);
+        return node;
+    }
+
+    /**
+     * False when the sale points are known to be in different components, so
+     * no search is needed to tell there is no route. Until the components of
+     * the snapshot are ready, a search has to tell.
+     */
+    private boolean mayBeConnected(RoutingGraph graph, int start, int end) {
+        ConnectedComponents components = componentIndex.forGraph(graph);
+        return components == null || components.connected(start, end);
+    }
+
+    private PathCost buildPathCost(RoutingGraph graph, Route route) {
+        int[] nodes = route.nodes();
+        double[] distances = route.distances();
+        List<SalePointCost> finalPath = new ArrayList<>(nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            double salePointCost = i == 0 ? 0.0 : distances[i] - distances[i - 1];
+            finalPath.add(new SalePointCost(graph.idAt(nodes[i]), graph.nameAt(nodes[i]), salePointCost));
+        }
+        return new PathCost(finalPath, route.totalCost());
+    }
+
+    private SearchTrace buildSearchTrace(RoutingGraph graph, TracedSearch search) {
+        List<SearchTrace.SettledSalePoint> settled = new ArrayList<>(search.settledEvents());
+        for (int i = 0; i < search.settledEvents(); i++)
+            settled.add(new SearchTrace.SettledSalePoint(graph.idAt(search.settledNode(i)),
+                    search.settledDistance(i), search.frontierSize(i)));
+        List<SearchTrace.Relaxation> relaxations = new ArrayList<>(search.relaxedEvents());
+        for (int i = 0; i < search.relaxedEvents(); i++)
+            relaxations.add(new SearchTrace.Relaxation(graph.idAt(search.relaxedFrom(i)),
+                    graph.idAt(search.relaxedTo(i)), search.relaxedDistance(i), search.improved(i)));
+        return new SearchTrace(search.getSettled(), search.getRelaxed(), search.getPeakFrontier(),
+                search.isTruncated(), settled, relaxations);
+    }
+
+    /**
+     * Parses a path cursor, the key of the last path of the previous page.
+     */
+    private static PathPK parseCursor(String cursor) {
+        String[] ids = cursor.split("-");
+        if (ids.length != 2)
+            throw new InvalidCursorException(cursor);
+        try {
+            return new PathPK(Long.valueOf(ids[0]), Long.valueOf(ids[1]));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(cursor);
+        }
     }
 
     private void validatePath(NewPath newPath) {
         if (newPath.idA().equals(newPath.idB()))
             throw new SameSalePointException(newPath.idA());
-        if (pathRepository.existsBySalePointA_IdAndSalePointB_Id(newPath.idA(), newPath.idB())
-                || pathRepository.existsBySalePointA_IdAndSalePointB_Id(newPath.idB(), newPath.idA()))
+        if (pathRepository.existsById(new PathPK(newPath.idA(), newPath.idB())))
             throw new PathAlreadyExistsException(newPath.idA(), newPath.idB());
     }
+
+    /**
+     * Pair of a batch searched from whichever end appears in more pairs, so
+     * fewer trees are grown.
+     */
+    private record PairSearch(int a, int b) {
+
+        int source(Map<Integer, Integer> occurrences) {
+            return occurrences.get(b) > occurrences.get(a) ? b : a;
+        }
+
+        int target(Map<Integer, Integer> occurrences) {
+            return source(occurrences) == a ? b : a;
+        }
+    }
+
+    private record MatrixRow(List<Double> costs, List<PathCost> paths) {
+    }
 }
@@ -1,27 +1,44 @@
 package com.sharks.sale_points_service.services.impl;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.sharks.sale_points_service.exceptions.NameAlreadyExistsException;
 import com.sharks.sale_points_service.exceptions.SalePointNotFoundException;
+import com.sharks.sale_points_service.models.KeysetPage;
+import com.sharks.sale_points_service.models.ReachableSalePoint;
 import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.models.SalePointComponent;
 import com.sharks.sale_points_service.models.dtos.NewSalePoint;
 import com.sharks.sale_points_service.models.dtos.SalePointDTO;
 import com.sharks.sale_points_service.repositories.SalePointRepository;
+import com.sharks.sale_points_service.routing.BudgetedSearch;
+import com.sharks.sale_points_service.routing.ComponentIndex;
+import com.sharks.sale_points_service.routing.ConnectedComponents;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+import com.sharks.sale_points_service.services.GraphService;
 import com.sharks.sale_points_service.services.SalePointService;
 
 @Service
 public class SalePointServiceImpl implements SalePointService {
 
     private final SalePointRepository salePointRepository;
+    private final GraphService graphService;
+    private final ComponentIndex componentIndex;
 
-    public SalePointServiceImpl(SalePointRepository salePointRepository) {
+    public SalePointServiceImpl(SalePointRepository salePointRepository, GraphService graphService,
+            ComponentIndex componentIndex) {
         this.salePointRepository = salePointRepository;
+        this.graphService = graphService;
+        this.componentIndex = componentIndex;
     }
 
     @Override
@@ -29,6 +46,21 @@ public class SalePointServiceImpl implements SalePointService {
         return salePointRepository.findAll().stream().map(SalePointDTO::new).toList();
     }
 
+    @Override
+    public KeysetPage<SalePointDTO> getSalePointDTOPage(Long after, int limit) {
+        List<SalePointDTO> rows = salePointRepository.findSalePointDTOsAfter(after != null ? after : Long.MIN_VALUE,
+                Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, salePoint -> String.valueOf(salePoint.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachSalePointDTO(Consumer<SalePointDTO> action) {
+        try (Stream<SalePointDTO> salePoints = salePointRepository.streamAllSalePointDTOs()) {
+            salePoints.forEach(action);
+        }
+    }
+
     @Override
     public SalePoint getSalePointById(Long id) {
         return salePointRepository.findById(id).orElseThrow(() -> new SalePointNotFoundException(id));
@@ -46,6 +78,7 @@ public class SalePointServiceImpl implements SalePointService {
         validateSalePoint(newSalePoint);
         SalePoint salePoint = new SalePoint(newSalePoint.name());
         SalePoint savedSalePoint = salePointRepository.save(salePoint);
+        graphService.syncSalePoint(savedSalePoint.getId());
         return new SalePointDTO(savedSalePoint);
     }
 
@@ -56,6 +89,7 @@ public class SalePointServiceImpl implements SalePointService {
         SalePoint existingSalePoint = getSalePointById(id);
         existingSalePoint.setName(newSalePoint.name());
         SalePoint updatedSalePoint = salePointRepository.save(existingSalePoint);
+        graphService.syncSalePoint(id);
         return new SalePointDTO(updatedSalePoint);
     }
 
@@ -64,6 +98,33 @@ public class SalePointServiceImpl implements SalePointService {
     public void deleteSalePoint(Long id) {
         SalePoint existingSalePoint = getSalePointById(id);
         salePointRepository.delete(existingSalePoint);
+        graphService.syncSalePoint(id);
+    }
+
+    @Override
+    public SalePointComponent getComponent(Long id) {
+        RoutingGraph graph = graphService.getGraph();
+        int node = graph.indexOf(id);
+        if (node < 0)
+            throw new SalePointNotFoundException(id);
+        ConnectedComponents components = componentIndex.get(graph);
+        return new SalePointComponent(id, components.componentId(node), components.componentSize(node));
+    }
+
+    /**
+     * The sale point is looked up right away, so an unknown one fails before
+     * anything is streamed, and the search runs on that snapshot as the
+     * returned source is read.
+     */
+    @Override
+    public Consumer<Consumer<ReachableSalePoint>> getReachableSalePoints(Long id, double maxCost) {
+        RoutingGraph graph = graphService.getGraph();
+        int source = graph.indexOf(id);
+        if (source < 0)
+            throw new SalePointNotFoundException(id);
+        return action -> BudgetedSearch.run(graph, source, maxCost, (node, parent, cost) -> action.accept(
+                new ReachableSalePoint(graph.idAt(node), graph.nameAt(node), cost,
+                        parent >= 0 ? graph.idAt(parent) : null)));
     }
 
     private void validateSalePoint(NewSalePoint newSalePoint) {
@@ -12,6 +12,31 @@ VALUES
     (9, 'Santa Cruz'),
     (10, 'Catamarca') ON CONFLICT (id) DO NOTHING;
 
+-- Paths are undirected and stored once, with the lower sale point id first.
+-- Tables from before that rule are migrated once: self loops are dropped, rows stored the other way around
+-- are flipped and pairs stored both ways keep the cheaper cost. The check constraint added at the end marks
+-- the table as migrated, so later startups skip it. The block is single quoted, which the script splitter
+-- understands, unlike dollar quoting.
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''paths_canonical_pair'') THEN
+        DELETE FROM paths WHERE id_a = id_b;
+
+        UPDATE paths p SET cost = q.cost FROM paths q
+        WHERE p.id_a < p.id_b AND q.id_a = p.id_b AND q.id_b = p.id_a AND q.cost < p.cost;
+
+        DELETE FROM paths p USING paths q
+        WHERE p.id_a > p.id_b AND q.id_a = p.id_b AND q.id_b = p.id_a;
+
+        UPDATE paths SET id_a = id_b, id_b = id_a WHERE id_a > id_b;
+
+        DROP INDEX IF EXISTS paths_pair_idx;
+        ALTER TABLE paths ADD CONSTRAINT paths_canonical_pair CHECK (id_a < id_b);
+    END IF;
+END';
+
+CREATE INDEX IF NOT EXISTS paths_id_b_idx ON paths (id_b);
+
 INSERT INTO
     paths (id_a, id_b, cost)
 VALUES
@@ -24,8 +49,10 @@ VALUES
     (2, 5, 14),
     (6, 7, 32),
     (8, 9, 11),
-    (10, 7, 5),
+    (7, 10, 5),
     (3, 8, 10),
     (5, 8, 30),
-    (10, 5, 5),
+    (5, 10, 5),
     (4, 6, 6) ON CONFLICT (id_a, id_b) DO NOTHING;
+
+SELECT setval('sale_points_seq', GREATEST((SELECT MAX(id) FROM sale_points), (SELECT last_value FROM sale_points_seq)));
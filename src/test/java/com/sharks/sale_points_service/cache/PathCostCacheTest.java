@@ -0,0 +1,183 @@
+package com.sharks.sale_points_service.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import com.sharks.sale_points_service.config.CacheConfig;
+import com.sharks.sale_points_service.models.PathCost;
+import com.sharks.sale_points_service.models.dtos.PathConstraints;
+import com.sharks.sale_points_service.models.dtos.PathPair;
+import com.sharks.sale_points_service.routing.DijkstraEngine;
+import com.sharks.sale_points_service.routing.PathChange;
+import com.sharks.sale_points_service.routing.Route;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+
+class PathCostCacheTest {
+
+    private final DijkstraEngine engine = new DijkstraEngine();
+    private PathCostCache cache;
+    private RoutingGraph graph;
+
+    /**
+     * Line 1 - 2 - 3 - 4 with costs 1, 1, 1, plus an isolated sale point 5.
+     */
+    @BeforeEach
+    void setUp() {
+        cache = new PathCostCache(new ConcurrentMapCacheManager());
+        graph = RoutingGraph.empty().edit()
+                .putSalePoint(1L, "A").putSalePoint(2L, "B").putSalePoint(3L, "C").putSalePoint(4L, "D")
+                .putSalePoint(5L, "E")
+                .putPath(1L, 2L, 1.0).putPath(2L, 3L, 1.0).putPath(3L, 4L, 1.0)
+                .build();
+        cache.onGraphChanged(graph);
+        cacheRoute(1L, 2L);
+        cacheRoute(1L, 4L);
+        cacheRoute(3L, 4L);
+    }
+
+    @Test
+    void testPathIncrease_EvictsOnlyRoutesThroughIt() {
+        RoutingGraph next = graph.edit().putPath(1L, 2L, 5.0).build();
+        cache.onGraphChanged(next, List.of(change(next, 1L, 2L, 1.0, 5.0)));
+
+        assertNull(cache.get(1L, 2L));
+        assertNull(cache.get(1L, 4L));
+        assertNotNull(cache.get(3L, 4L));
+        assertEquals(2, cache.getLastWriteEvicted());
+        assertEquals(1, cache.getLastWriteRetained());
+        assertEquals(1, cache.getIndexedPaths());
+    }
+
+    @Test
+    void testPathAdded_EvictsOnlyRoutesItShortens() {
+        RoutingGraph next = graph.edit().putPath(1L, 4L, 2.5).build();
+        cache.onGraphChanged(next, List.of(change(next, 1L, 4L, Double.POSITIVE_INFINITY, 2.5)));
+
+        assertNotNull(cache.get(1L, 2L));
+        assertNull(cache.get(1L, 4L));
+        assertNotNull(cache.get(3L, 4L));
+        assertEquals(1, cache.getLastWriteEvicted());
+        assertEquals(2, cache.getLastWriteRetained());
+    }
+
+    @Test
+    void testPathsAddedInOneWrite_EvictOnlyRoutesTheyShorten() {
+        RoutingGraph next = graph.edit().putPath(1L, 3L, 1.5).putPath(2L, 5L, 4.0).build();
+        cache.onGraphChanged(next, List.of(change(next, 1L, 3L, Double.POSITIVE_INFINITY, 1.5),
+                change(next, 2L, 5L, Double.POSITIVE_INFINITY, 4.0)));
+
+        assertNotNull(cache.get(1L, 2L));
+        assertNull(cache.get(1L, 4L));
+        assertNotNull(cache.get(3L, 4L));
+        assertEquals(1, cache.getLastWriteEvicted());
+    }
+
+    @Test
+    void testSalePointRemoved_EvictsRoutesEndingThere() {
+        cacheRoute(5L, 5L);
+        RoutingGraph next = graph.edit().removeSalePoint(5L).build();
+        cache.onGraphChanged(next, List.of());
+
+        assertNull(cache.get(5L, 5L));
+        assertEquals(3, cache.getCachedRoutes());
+    }
+
+    @Test
+    void testSalePointRenamed_EvictsRoutesThroughIt() {
+        RoutingGraph next = graph.edit().putSalePoint(2L, "B2").putSalePoint(3L, "C").build();
+        cache.onGraphChanged(next, List.of());
+
+        assertNull(cache.get(1L, 2L));
+        assertNull(cache.get(1L, 4L));
+        assertNotNull(cache.get(3L, 4L));
+        assertEquals(2, cache.getLastWriteEvicted());
+    }
+
+    @Test
+    void testPut_StaleSnapshot_NotCached() {
+        RoutingGraph next = graph.edit().putPath(2L, 3L, 9.0).build();
+        cache.onGraphChanged(next, List.of(change(next, 2L, 3L, 1.0, 9.0)));
+        cacheRoute(2L, 4L);
+
+        assertNull(cache.get(2L, 4L));
+        assertEquals(2, cache.getCachedRoutes());
+    }
+
+    @Test
+    void testReversedPair_SharesEntry() {
+        cacheRoute(4L, 1L);
+
+        assertEquals(3, cache.getCachedRoutes());
+        assertEquals(3.0, cache.get(4L, 1L).getTotalCost());
+        assertEquals(PathCostCache.key(1L, 4L), PathCostCache.key(4L, 1L));
+    }
+
+    @Test
+    void testConstrainedRoute_OwnEntryEvictedLikeOthers() {
+        PathConstraints viaThree = new PathConstraints(null, null, null, List.of(3L));
+        Route route = engine.route(graph, graph.indexOf(4L), graph.indexOf(2L));
+        cache.put(4L, 2L, viaThree, graph, route, new PathCost(List.of(), route.totalCost()));
+
+        assertNull(cache.get(2L, 4L));
+        assertEquals(2.0, cache.get(2L, 4L, viaThree).getTotalCost());
+        PathConstraints forward = new PathConstraints(List.of(7L, 5L, 5L), List.of(new PathPair(2L, 1L)), 3,
+                List.of(3L, 2L));
+        PathConstraints backward = new PathConstraints(List.of(5L, 7L), List.of(new PathPair(1L, 2L)), 3,
+                List.of(2L, 3L));
+        assertEquals(PathCostCache.key(2L, 4L, forward), PathCostCache.key(4L, 2L, backward));
+        assertNotEquals(PathCostCache.key(2L, 4L, viaThree), PathCostCache.key(2L, 4L));
+
+        RoutingGraph next = graph.edit().putPath(3L, 4L, 5.0).build();
+        cache.onGraphChanged(next, List.of(change(next, 3L, 4L, 1.0, 5.0)));
+        assertNull(cache.get(2L, 4L, viaThree));
+    }
+
+    @Test
+    void testReload_EvictsEverything() {
+        cache.onGraphChanged(graph.edit().build());
+
+        assertNull(cache.get(3L, 4L));
+        assertEquals(0, cache.getCachedRoutes());
+        assertEquals(0, cache.getIndexedPaths());
+        assertEquals(3, cache.getEvicted());
+    }
+
+    @Test
+    void testBoundedCache_EvictedRoutesLeaveTheIndex() {
+        AtomicReference<PathCostCache> bounded = new AtomicReference<>();
+        CaffeineCache backend = CacheConfig.caffeineCache(PathCostCache.CACHE_NAME, "maximumWeight=1",
+                (key, value, cause) -> bounded.get().onEvicted(key, value));
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(backend));
+        cacheManager.afterPropertiesSet();
+        cache = new PathCostCache(cacheManager);
+        bounded.set(cache);
+        cache.onGraphChanged(graph);
+
+        cacheRoute(1L, 4L);
+        cacheRoute(3L, 4L);
+        backend.getNativeCache().cleanUp();
+
+        assertEquals(1, backend.getNativeCache().estimatedSize());
+        assertEquals(1, cache.getCachedRoutes());
+        assertEquals(cache.get(1L, 4L) != null ? 3 : 1, cache.getIndexedPaths());
+        assertEquals(1, backend.getNativeCache().stats().evictionCount());
+    }
+
+    private void cacheRoute(Long startId, Long endId) {
+        Route route = engine.route(graph, graph.indexOf(startId), graph.indexOf(endId));
+        cache.put(startId, endId, graph, route, new PathCost(List.of(), route.totalCost()));
+    }
+
+    private PathChange change(RoutingGraph next, Long idA, Long idB, double oldCost, double newCost) {
+        return new PathChange(next.indexOf(idA), next.indexOf(idB), oldCost, newCost);
+    }
+}
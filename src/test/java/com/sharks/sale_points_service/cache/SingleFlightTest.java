@@ -0,0 +1,99 @@
+package com.sharks.sale_points_service.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger computations = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testRun_ConcurrentCallersShareOneComputation() throws Exception {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofSeconds(10));
+        Future<Integer> leader = executor.submit(() -> flights.run("1-2", this::blockingComputation));
+        started.await();
+        Future<Integer> follower = executor.submit(() -> flights.run("1-2", this::blockingComputation));
+        awaitJoined(flights, 1);
+        release.countDown();
+
+        assertEquals(42, leader.get(10, TimeUnit.SECONDS));
+        assertEquals(42, follower.get(10, TimeUnit.SECONDS));
+        assertEquals(1, computations.get());
+        assertEquals(0, flights.getInFlight());
+    }
+
+    @Test
+    void testRun_FollowerGetsTheException() throws Exception {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofSeconds(10));
+        Future<Integer> leader = executor.submit(() -> flights.run("1-2", () -> {
+            blockingComputation();
+            throw new IllegalArgumentException("no route");
+        }));
+        started.await();
+        Future<Integer> follower = executor.submit(() -> flights.run("1-2", this::blockingComputation));
+        awaitJoined(flights, 1);
+        release.countDown();
+
+        assertEquals("no route", assertThrows(Exception.class, () -> leader.get(10, TimeUnit.SECONDS))
+                .getCause().getMessage());
+        assertEquals("no route", assertThrows(Exception.class, () -> follower.get(10, TimeUnit.SECONDS))
+                .getCause().getMessage());
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    void testRun_TimedOutFollowerComputesItself() throws Exception {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofMillis(50));
+        executor.submit(() -> flights.run("1-2", this::blockingComputation));
+        started.await();
+
+        assertEquals(7, flights.run("1-2", () -> 7));
+        assertEquals(1, flights.getJoined());
+        assertEquals(1, flights.getTimedOut());
+    }
+
+    @Test
+    void testRun_DifferentKeysAndLaterCallsComputeAgain() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofSeconds(10));
+
+        assertEquals(1, flights.run("1-2", computations::incrementAndGet));
+        assertEquals(2, flights.run("1-2", computations::incrementAndGet));
+        assertEquals(3, flights.run("2-1", computations::incrementAndGet));
+        assertEquals(0, flights.getJoined());
+    }
+
+    private Integer blockingComputation() {
+        computations.incrementAndGet();
+        started.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 42;
+    }
+
+    private static void awaitJoined(SingleFlight<?, ?> flights, long joined) throws InterruptedException {
+        while (flights.getJoined() < joined)
+            Thread.sleep(1);
+    }
+}
@@ -0,0 +1,301 @@
+package com.sharks.sale_points_service.loadtest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.sharks.sale_points_service.synthetic.SyntheticNetwork;
+
+/**
+ * Closed-loop load generator for a service started by
+ * {@link LoadTestApplication}. Each worker thread sends one request at a
+ * time, picking the endpoint from a weighted mix, for a warmup period and
+ * then a measured one, and the latency and throughput of each endpoint are
+ * reported at the end.
+ * <p>
+ * Options, as {@code --name=value}:
+ * <ul>
+ * <li>{@code base-url}: where the service listens, http://localhost:8090 by default;</li>
+ * <li>{@code shape} and {@code nodes}: the network the service was seeded with;</li>
+ * <li>{@code concurrency}: worker threads, 32 by default;</li>
+ * <li>{@code warmup} and {@code duration}: seconds, 10 and 60 by default;</li>
+ * <li>{@code pairs}: distinct sale point pairs asked for their cheapest path;</li>
+ * <li>{@code mix}: endpoint weights, e.g. {@code cost=75,sale-points-page=10,paths-by-sale-point=10,update-path=5}.</li>
+ * </ul>
+ */
+public class LoadDriver {
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "base-url", "http://localhost:8090",
+            "shape", "geometric",
+            "nodes", "10000",
+            "concurrency", "32",
+            "warmup", "10",
+            "duration", "60",
+            "pairs", "10000",
+            "mix", "cost=75,sale-points-page=10,paths-by-sale-point=10,update-path=5");
+
+    private static final int PAGE_SIZE = 100;
+
+    private final String baseUrl;
+    private final SyntheticNetwork network;
+    private final long[][] pairs;
+    private final Operation[] mix;
+    private final HttpClient client;
+
+    private LoadDriver(String baseUrl, SyntheticNetwork network, long[][] pairs, Operation[] mix) {
+        this.baseUrl = baseUrl;
+        this.network = network;
+        this.pairs = pairs;
+        this.mix = mix;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+
+        SyntheticNetwork network = LoadTestSeed.network(options.get("shape"), Integer.parseInt(options.get("nodes")));
+        LoadDriver driver = new LoadDriver(options.get("base-url"), network,
+                network.samplePairs(Integer.parseInt(options.get("pairs")), 7), parseMix(options.get("mix")));
+        driver.awaitService(Duration.ofMinutes(2));
+        System.out.printf("Running %d workers against %s: %ds warmup, %ds measured, mix %s%n", concurrency,
+                options.get("base-url"), warmup.toSeconds(), duration.toSeconds(), options.get("mix"));
+
+        List<Recorder> recorders = driver.run(concurrency, warmup, duration);
+        System.out.print(report(recorders, duration));
+    }
+
+    private List<Recorder> run(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long until = measureFrom + duration.toNanos();
+        List<Recorder> recorders = new ArrayList<>(concurrency);
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Recorder recorder = new Recorder();
+            SplittableRandom random = new SplittableRandom(1000L + i);
+            recorders.add(recorder);
+            workers.add(Thread.ofPlatform().name("load-driver-" + i)
+                    .start(() -> work(random, recorder, measureFrom, until)));
+        }
+        for (Thread worker : workers)
+            worker.join();
+        return recorders;
+    }
+
+    private void work(SplittableRandom random, Recorder recorder, long measureFrom, long until) {
+        long start;
+        while ((start = System.nanoTime()) < until) {
+            Operation operation = mix[random.nextInt(mix.length)];
+            HttpRequest request = request(operation, random);
+            boolean ok;
+            try {
+                ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2;
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (start >= measureFrom)
+                recorder.record(operation, System.nanoTime() - start, ok);
+        }
+    }
+
+    private HttpRequest request(Operation operation, SplittableRandom random) {
+        return switch (operation) {
+            case COST -> {
+                long[] pair = pairs[random.nextInt(pairs.length)];
+                yield get("/api/paths/" + pair[0] + "/" + pair[1] + "/cost");
+            }
+            case SALE_POINTS_PAGE -> get("/api/sale-points/page?after=" + random.nextInt(network.nodeCount())
+                    + "&limit=" + PAGE_SIZE);
+            case PATHS_BY_SALE_POINT -> get("/api/paths/" + (1 + random.nextInt(network.nodeCount())));
+            case UPDATE_PATH -> {
+                int edge = random.nextInt(network.edgeCount());
+                double cost = Math.max(1, Math.round(network.cost(edge) * (0.5 + random.nextDouble())));
+                yield HttpRequest.newBuilder(uri("/api/paths/" + network.idA(edge) + "/" + network.idB(edge)))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString("{\"cost\":" + cost + "}"))
+                        .build();
+            }
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    /**
+     * Waits until the service answers, since seeding a large network takes a
+     * while after it is started.
+     */
+    private void awaitService(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            try {
+                if (client.send(get("/api/sale-points/page?limit=1"), HttpResponse.BodyHandlers.discarding())
+                        .statusCode() == 200)
+                    return;
+            } catch (ConnectException e) {
+                // not listening yet
+            } catch (IOException e) {
+                throw new IllegalStateException("Service at " + baseUrl + " is not responding", e);
+            }
+            if (System.nanoTime() > deadline)
+                throw new IllegalStateException("Service at " + baseUrl + " did not start in " + timeout);
+            Thread.sleep(1000);
+        }
+    }
+
+    static String report(List<Recorder> recorders, Duration duration) {
+        StringBuilder report = new StringBuilder(String.format("%n%-36s %10s %8s %10s %9s %9s %9s %9s%n",
+                "endpoint", "ok", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        List<long[]> all = new ArrayList<>();
+        int allErrors = 0;
+        for (Operation operation : Operation.values()) {
+            long[] latencies = recorders.stream()
+                    .flatMapToLong(recorder -> Arrays.stream(recorder.latencies(operation)))
+                    .toArray();
+            int errors = recorders.stream().mapToInt(recorder -> recorder.errors(operation)).sum();
+            if (latencies.length == 0)
+                continue;
+            all.add(latencies);
+            allErrors += errors;
+            report.append(line(operation.label, latencies, errors, duration));
+        }
+        long[] total = all.stream().flatMapToLong(Arrays::stream).toArray();
+        if (total.length > 0)
+            report.append(line("all", total, allErrors, duration));
+        return report.toString();
+    }
+
+    private static String line(String label, long[] latencies, int errors, Duration duration) {
+        Arrays.sort(latencies);
+        return String.format("%-36s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", label, latencies.length, errors,
+                latencies.length / (duration.toNanos() / 1e9), millis(percentile(latencies, 50)),
+                millis(percentile(latencies, 95)), millis(percentile(latencies, 99)),
+                millis(latencies[latencies.length - 1]));
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values.
+     */
+    static long percentile(long[] sorted, double percent) {
+        int rank = (int) Math.ceil(percent / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String name = arg.startsWith("--") && equals > 2 ? arg.substring(2, equals) : null;
+            if (name == null || !DEFAULTS.containsKey(name))
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected --name=value with name in "
+                        + DEFAULTS.keySet());
+            options.put(name, arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Expands the weights into a table indexed by a random number, so picking
+     * an operation costs one array read.
+     */
+    static Operation[] parseMix(String mix) {
+        List<Operation> table = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.strip().split("=");
+            if (weight.length != 2)
+                throw new IllegalArgumentException("Malformed mix entry " + entry);
+            Operation operation = Operation.fromName(weight[0].strip());
+            for (int i = Integer.parseInt(weight[1].strip()); i > 0; i--)
+                table.add(operation);
+        }
+        if (table.isEmpty())
+            throw new IllegalArgumentException("The mix has no operation with a positive weight");
+        return table.toArray(Operation[]::new);
+    }
+
+    enum Operation {
+
+        COST("cost", "GET /api/paths/{idA}/{idB}/cost"),
+        SALE_POINTS_PAGE("sale-points-page", "GET /api/sale-points/page"),
+        PATHS_BY_SALE_POINT("paths-by-sale-point", "GET /api/paths/{id}"),
+        UPDATE_PATH("update-path", "PUT /api/paths/{idA}/{idB}");
+
+        private final String name;
+        private final String label;
+
+        Operation(String name, String label) {
+            this.name = name;
+            this.label = label;
+        }
+
+        static Operation fromName(String name) {
+            for (Operation operation : values()) {
+                if (operation.name.equals(name))
+                    return operation;
+            }
+            throw new IllegalArgumentException("Unknown operation " + name);
+        }
+    }
+
+    /**
+     * Latencies seen by one worker, so workers never contend on recording.
+     */
+    static final class Recorder {
+
+        private final Map<Operation, long[]> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> errors = new EnumMap<>(Operation.class);
+
+        void record(Operation operation, long nanos, boolean ok) {
+            if (!ok) {
+                errors.merge(operation, 1, Integer::sum);
+                return;
+            }
+            int count = counts.getOrDefault(operation, 0);
+            long[] values = latencies.computeIfAbsent(operation, key -> new long[1024]);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                latencies.put(operation, values);
+            }
+            values[count] = nanos;
+            counts.put(operation, count + 1);
+        }
+
+        long[] latencies(Operation operation) {
+            return Arrays.copyOf(latencies.getOrDefault(operation, new long[0]), counts.getOrDefault(operation, 0));
+        }
+
+        int errors(Operation operation) {
+            return errors.getOrDefault(operation, 0);
+        }
+    }
+}
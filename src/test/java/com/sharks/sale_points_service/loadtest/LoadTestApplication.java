@@ -0,0 +1,40 @@
+package com.sharks.sale_points_service.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.boot.SpringApplication;
+
+import com.sharks.sale_points_service.SalePointsServiceApplication;
+import com.sharks.sale_points_service.synthetic.SyntheticNetwork;
+
+/**
+ * Runs the service with the {@code loadtest} profile: an in-memory H2
+ * database seeded with a synthetic network, and no Eureka. The network is
+ * chosen with the {@code loadtest.shape} and {@code loadtest.nodes} system
+ * properties, which the load driver must be given too.
+ */
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws IOException {
+        String shape = System.getProperty("loadtest.shape", "geometric");
+        int nodes = Integer.getInteger("loadtest.nodes", 10_000);
+        Path seedFile = Path.of(System.getProperty("loadtest.seed-file", "target/loadtest/data.sql"));
+
+        SyntheticNetwork network = LoadTestSeed.network(shape, nodes);
+        LoadTestSeed.write(network, seedFile);
+        System.out.printf("Seeded %s network with %d sale points and %d paths in %s%n", shape,
+                network.nodeCount(), network.edgeCount(), seedFile.toAbsolutePath());
+
+        SpringApplication.from(SalePointsServiceApplication::main)
+                .withAdditionalProfiles("loadtest")
+                .run(append(args, "--loadtest.seed-file=" + seedFile.toAbsolutePath()));
+    }
+
+    private static String[] append(String[] args, String arg) {
+        String[] all = new String[args.length + 1];
+        System.arraycopy(args, 0, all, 0, args.length);
+        all[args.length] = arg;
+        return all;
+    }
+}
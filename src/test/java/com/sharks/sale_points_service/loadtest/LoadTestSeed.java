@@ -0,0 +1,59 @@
+package com.sharks.sale_points_service.loadtest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.sharks.sale_points_service.synthetic.SyntheticNetwork;
+
+/**
+ * Writes a synthetic network as a {@code data.sql} style script: multi-row
+ * inserts of sale points and paths, then the sale point sequence moved past
+ * the seeded ids so new sale points do not collide with them.
+ */
+public final class LoadTestSeed {
+
+    /**
+     * Shared by the server and the load driver, so the driver knows the ids
+     * and paths the server was seeded with.
+     */
+    public static final long RANDOM_SEED = 42;
+
+    private static final int ROWS_PER_INSERT = 1000;
+    private static final int SEQUENCE_ALLOCATION = 50;
+
+    private LoadTestSeed() {
+    }
+
+    public static SyntheticNetwork network(String shape, int nodes) {
+        return SyntheticNetwork.generate(shape, nodes, RANDOM_SEED);
+    }
+
+    public static void write(SyntheticNetwork network, Path file) throws IOException {
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int node = 0; node < network.nodeCount(); node++) {
+                long id = node + 1L;
+                row(writer, node, network.nodeCount(), "sale_points (id, name)",
+                        "(" + id + ", '" + SyntheticNetwork.name(id) + "')");
+            }
+            for (int edge = 0; edge < network.edgeCount(); edge++)
+                row(writer, edge, network.edgeCount(), "paths (id_a, id_b, cost)",
+                        "(" + network.idA(edge) + ", " + network.idB(edge) + ", " + network.cost(edge) + ")");
+            // Hibernate's pooled optimizer hands out the block of ids ending at the value it reads
+            writer.write("ALTER SEQUENCE sale_points_seq RESTART WITH "
+                    + (network.nodeCount() + SEQUENCE_ALLOCATION) + ";\n");
+        }
+    }
+
+    private static void row(Writer writer, int row, int rows, String table, String values) throws IOException {
+        writer.write(row % ROWS_PER_INSERT == 0 ? "INSERT INTO " + table + " VALUES\n    " : ",\n    ");
+        writer.write(values);
+        if (row % ROWS_PER_INSERT == ROWS_PER_INSERT - 1 || row == rows - 1)
+            writer.write(";\n\n");
+    }
+}
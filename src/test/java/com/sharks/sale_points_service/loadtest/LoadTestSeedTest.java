@@ -0,0 +1,50 @@
+package com.sharks.sale_points_service.loadtest;
+
+import com.sharks.sale_points_service.models.PathPK;
+import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.repositories.PathRepository;
+import com.sharks.sale_points_service.repositories.SalePointRepository;
+import com.sharks.sale_points_service.synthetic.SyntheticNetwork;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+class LoadTestSeedTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private SalePointRepository salePointRepository;
+
+    @Autowired
+    private PathRepository pathRepository;
+
+    @Test
+    void testWrite_SeedLoadsAndNewSalePointsGetFreshIds(@TempDir Path directory) throws IOException {
+        SyntheticNetwork network = LoadTestSeed.network("scale-free", 2500);
+        Path seed = directory.resolve("data.sql");
+        LoadTestSeed.write(network, seed);
+
+        new ResourceDatabasePopulator(new FileSystemResource(seed)).execute(dataSource);
+
+        assertEquals(network.nodeCount(), salePointRepository.count());
+        assertEquals(network.edgeCount(), pathRepository.count());
+        assertEquals(network.cost(0),
+                pathRepository.findById(new PathPK(network.idB(0), network.idA(0))).orElseThrow().getCost());
+        SalePoint created = salePointRepository.saveAndFlush(new SalePoint("New sale point"));
+        assertTrue(created.getId() > network.nodeCount());
+    }
+}
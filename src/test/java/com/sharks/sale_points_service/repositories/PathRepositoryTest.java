@@ -0,0 +1,134 @@
+package com.sharks.sale_points_service.repositories;
+
+import com.sharks.sale_points_service.models.Path;
+import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.models.dtos.PathDTO;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the path listings against N+1 selects: they must run a single
+ * statement however many paths and sale points there are.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class PathRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PathRepository pathRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 5, 50 })
+    void testFindAllPathDTOs_SingleStatement(int size) {
+        List<SalePoint> salePoints = chain(size);
+        statistics.clear();
+
+        List<PathDTO> result = pathRepository.findAllPathDTOs();
+
+        assertEquals(size - 1, result.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        PathDTO first = result.stream().filter(dto -> dto.getSalePointA().getId().equals(salePoints.get(0).getId()))
+                .findFirst().orElseThrow();
+        assertEquals(salePoints.get(0).getName(), first.getSalePointA().getName());
+        assertEquals(salePoints.get(1).getName(), first.getSalePointB().getName());
+        assertEquals(1.0, first.getCost());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 5, 50 })
+    void testFindPathDTOsBySalePointId_SingleStatement(int size) {
+        List<SalePoint> salePoints = chain(size);
+        SalePoint middle = salePoints.get(size / 2);
+        statistics.clear();
+
+        List<PathDTO> result = pathRepository.findPathDTOsBySalePointId(middle.getId());
+
+        assertEquals(2, result.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(result.stream().allMatch(dto -> dto.getSalePointA().getId().equals(middle.getId())
+                || dto.getSalePointB().getId().equals(middle.getId())));
+    }
+
+    @Test
+    void testFindPathDTOsAfter_PagesCoverEveryPathInKeyOrder() {
+        List<SalePoint> salePoints = chain(7);
+        entityManager.persist(new Path(entityManager.find(SalePoint.class, salePoints.get(0).getId()),
+                entityManager.find(SalePoint.class, salePoints.get(6).getId()), 9.0));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<PathDTO> seen = new ArrayList<>();
+        Long afterA = Long.MIN_VALUE;
+        Long afterB = Long.MIN_VALUE;
+        while (true) {
+            List<PathDTO> page = pathRepository.findPathDTOsAfter(afterA, afterB, Limit.of(3));
+            if (page.isEmpty())
+                break;
+            seen.addAll(page);
+            afterA = page.get(page.size() - 1).getSalePointA().getId();
+            afterB = page.get(page.size() - 1).getSalePointB().getId();
+        }
+
+        assertEquals(7, seen.size());
+        assertEquals(salePoints.get(6).getId(), seen.get(1).getSalePointB().getId());
+        for (int i = 1; i < seen.size(); i++) {
+            PathDTO previous = seen.get(i - 1);
+            PathDTO current = seen.get(i);
+            assertTrue(previous.getSalePointA().getId() < current.getSalePointA().getId()
+                    || previous.getSalePointA().getId().equals(current.getSalePointA().getId())
+                            && previous.getSalePointB().getId() < current.getSalePointB().getId());
+        }
+    }
+
+    @Test
+    void testStreamAllPathDTOs_ReadsEveryPath() {
+        chain(20);
+
+        try (Stream<PathDTO> paths = pathRepository.streamAllPathDTOs()) {
+            assertEquals(19, paths.count());
+        }
+    }
+
+    /**
+     * Sale points connected in a line, flushed and detached so nothing is
+     * served from the persistence context.
+     */
+    private List<SalePoint> chain(int size) {
+        List<SalePoint> salePoints = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            salePoints.add(entityManager.persist(new SalePoint("Sale point " + i)));
+        for (int i = 1; i < size; i++)
+            entityManager.persist(new Path(salePoints.get(i - 1), salePoints.get(i), (double) i));
+        entityManager.flush();
+        entityManager.clear();
+        return salePoints;
+    }
+}
@@ -0,0 +1,83 @@
+package com.sharks.sale_points_service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class AltEngineTest {
+
+    @Test
+    void testLowerBound_NeverExceedsDistance() {
+        Random random = new Random(7);
+        for (LandmarkSelection selection : LandmarkSelection.values()) {
+            RoutingGraph graph = RoutingEngineTest.randomGraph(random, 80, 3);
+            LandmarkTables tables = LandmarkTables.compute(graph, 6, selection);
+            assertEquals(6, tables.getLandmarkCount());
+            for (int source = 0; source < graph.capacity(); source += 7) {
+                double[] distances = RoutingEngineTest.referenceDistances(graph, source);
+                for (int node = 0; node < graph.capacity(); node++)
+                    assertTrue(tables.lowerBound(node, source) <= distances[node]);
+            }
+        }
+    }
+
+    @Test
+    void testLandmarkCount_CappedByNodeCount() {
+        RoutingGraph graph = RoutingGraph.empty().edit()
+                .putSalePoint(1L, "A").putSalePoint(2L, "B")
+                .putPath(1L, 2L, 3.0)
+                .build();
+
+        assertEquals(2, LandmarkTables.compute(graph, 8, LandmarkSelection.AVOID).getLandmarkCount());
+    }
+
+    @Test
+    void testOnGraphChanged_RebuildsTablesForNewVersion() {
+        AltEngine engine = new AltEngine(4, LandmarkSelection.FARTHEST, Runnable::run, 0);
+        RoutingGraph graph = RoutingEngineTest.grid(10);
+
+        engine.onGraphChanged(graph);
+        assertEquals(graph.getVersion(), engine.getTables().getVersion());
+
+        RoutingGraph next = graph.edit().putPath(1L, 2L, 50.0).build();
+        engine.route(next, 0, next.capacity() - 1);
+        assertEquals(1, engine.getFallbackQueries());
+
+        engine.onGraphChanged(next);
+        assertEquals(next.getVersion(), engine.getTables().getVersion());
+        engine.route(next, 0, next.capacity() - 1);
+        assertEquals(1, engine.getGuidedQueries());
+    }
+
+    @Test
+    void testRoute_UnreachableTarget_NotCountedAsGuided() {
+        AltEngine engine = new AltEngine(4, LandmarkSelection.AVOID, Runnable::run, 0);
+        RoutingGraph graph = RoutingGraph.empty().edit()
+                .putSalePoint(1L, "A").putSalePoint(2L, "B").putSalePoint(3L, "C")
+                .putPath(1L, 2L, 3.0)
+                .build();
+        engine.onGraphChanged(graph);
+
+        assertNull(engine.route(graph, graph.indexOf(1L), graph.indexOf(3L)));
+        assertNotNull(engine.route(graph, graph.indexOf(1L), graph.indexOf(2L)));
+        assertEquals(1, engine.getUnreachableQueries());
+        assertEquals(1, engine.getGuidedQueries());
+        assertEquals(2.0, engine.getAverageGuidedSettled());
+    }
+
+    @Test
+    void testSampledStats_GuidedSettlesFewerNodes() {
+        AltEngine engine = new AltEngine(8, LandmarkSelection.AVOID, Runnable::run, 1);
+        RoutingGraph graph = RoutingEngineTest.grid(30);
+        engine.onGraphChanged(graph);
+
+        Random random = new Random(3);
+        for (int i = 0; i < 50; i++)
+            engine.route(graph, random.nextInt(graph.capacity()), random.nextInt(graph.capacity()));
+
+        assertEquals(50, engine.getSampledQueries());
+        assertTrue(engine.getSampledAverageGuidedSettled() < engine.getSampledAverageBaselineSettled());
+    }
+}
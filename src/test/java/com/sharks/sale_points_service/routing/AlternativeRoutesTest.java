@@ -0,0 +1,77 @@
+package com.sharks.sale_points_service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class AlternativeRoutesTest {
+
+    @Test
+    void testFind_MatchesEnumerationOfLooplessRoutes() {
+        Random random = new Random(23);
+        for (int round = 0; round < 40; round++) {
+            RoutingGraph graph = RoutingEngineTest.randomGraph(random, 6 + random.nextInt(5), 3);
+            int source = random.nextInt(graph.capacity());
+            int target = random.nextInt(graph.capacity());
+            int k = 1 + random.nextInt(8);
+            List<Double> expected = looplessCosts(graph, source, target);
+
+            List<Route> routes = AlternativeRoutes.find(graph, ShortestPathTree.grow(graph, target, null), source, k);
+            assertEquals(Math.min(k, expected.size()), routes.size());
+            Set<List<Integer>> distinct = new HashSet<>();
+            for (int i = 0; i < routes.size(); i++) {
+                Route route = routes.get(i);
+                assertEquals(expected.get(i), route.totalCost(), 1e-9);
+                RoutingEngineTest.assertValidRoute(graph, route, source, target);
+                List<Integer> nodes = Arrays.stream(route.nodes()).boxed().toList();
+                assertEquals(nodes.size(), new HashSet<>(nodes).size());
+                assertTrue(distinct.add(nodes));
+            }
+        }
+    }
+
+    @Test
+    void testFind_UnreachableTargetOrStaleTree() {
+        RoutingGraph graph = RoutingGraph.empty().edit()
+                .putSalePoint(1L, "SP1").putSalePoint(2L, "SP2").putSalePoint(3L, "SP3")
+                .putPath(1L, 2L, 5).build();
+        ShortestPathTree tree = ShortestPathTree.grow(graph, graph.indexOf(3L), null);
+
+        assertTrue(AlternativeRoutes.find(graph, tree, graph.indexOf(1L), 3).isEmpty());
+        RoutingGraph next = graph.edit().putPath(2L, 3L, 1).build();
+        assertThrows(IllegalArgumentException.class, () -> AlternativeRoutes.find(next, tree, 0, 3));
+    }
+
+    /**
+     * Costs of every loopless route between both nodes, cheapest first.
+     */
+    private static List<Double> looplessCosts(RoutingGraph graph, int source, int target) {
+        List<Double> costs = new ArrayList<>();
+        enumerate(graph, source, target, new boolean[graph.capacity()], 0.0, costs);
+        costs.sort(null);
+        return costs;
+    }
+
+    private static void enumerate(RoutingGraph graph, int node, int target, boolean[] visited, double cost,
+            List<Double> costs) {
+        if (node == target) {
+            costs.add(cost);
+            return;
+        }
+        visited[node] = true;
+        int[] neighbors = graph.neighbors(node);
+        double[] edgeCosts = graph.costs(node);
+        for (int i = 0; i < neighbors.length; i++) {
+            if (!visited[neighbors[i]])
+                enumerate(graph, neighbors[i], target, visited, cost + edgeCosts[i], costs);
+        }
+        visited[node] = false;
+    }
+}
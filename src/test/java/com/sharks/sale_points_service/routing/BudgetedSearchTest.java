@@ -0,0 +1,46 @@
+package com.sharks.sale_points_service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BudgetedSearchTest {
+
+    @Test
+    void testRun_SettlesNodesWithinBudgetCheapestFirst() {
+        Random random = new Random(37);
+        for (int round = 0; round < 30; round++) {
+            RoutingGraph graph = RoutingEngineTest.randomGraph(random, 30 + random.nextInt(50), 3);
+            int source = random.nextInt(graph.capacity());
+            double maxCost = random.nextInt(80);
+            double[] expected = RoutingEngineTest.referenceDistances(graph, source);
+            double[] seen = new double[graph.capacity()];
+            Arrays.fill(seen, Double.POSITIVE_INFINITY);
+            double[] last = { 0.0 };
+
+            int settled = BudgetedSearch.run(graph, source, maxCost, (node, parent, cost) -> {
+                assertTrue(cost >= last[0]);
+                last[0] = cost;
+                seen[node] = cost;
+                if (node == source)
+                    assertEquals(-1, parent);
+                else
+                    assertEquals(seen[parent] + graph.edgeCost(parent, node), cost, 1e-9);
+            });
+
+            int within = 0;
+            for (int node = 0; node < graph.capacity(); node++) {
+                if (expected[node] <= maxCost) {
+                    within++;
+                    assertEquals(expected[node], seen[node], 1e-9);
+                } else {
+                    assertEquals(Double.POSITIVE_INFINITY, seen[node]);
+                }
+            }
+            assertEquals(within, settled);
+        }
+    }
+}
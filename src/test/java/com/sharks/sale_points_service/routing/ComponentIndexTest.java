@@ -0,0 +1,109 @@
+package com.sharks.sale_points_service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ComponentIndexTest {
+
+    @Test
+    void testBuild_MatchesBreadthFirstSearch() {
+        RoutingGraph graph = RoutingEngineTest.randomGraph(new Random(3), 300, 1);
+
+        assertMatchesGraph(graph, ConnectedComponents.build(graph));
+    }
+
+    @Test
+    void testAddedPaths_DerivedRightAway() {
+        List<Runnable> scheduled = new ArrayList<>();
+        ComponentIndex index = new ComponentIndex(scheduled::add);
+        RoutingGraph graph = RoutingEngineTest.randomGraph(new Random(4), 200, 1);
+        index.onGraphChanged(graph);
+        scheduled.remove(0).run();
+
+        Random random = new Random(5);
+        for (int i = 0; i < 50; i++) {
+            RoutingGraph.Editor editor = graph.edit();
+            if (i % 10 == 0)
+                editor.putSalePoint(1000L + i, "New " + i);
+            long a = 1 + random.nextInt(200);
+            long b = i % 10 == 0 ? 1000L + i : 1 + random.nextInt(200);
+            if (a != b)
+                editor.putPath(a, b, 1.0);
+            graph = editor.build();
+            index.onGraphChanged(graph, editor.getChanges());
+
+            assertMatchesGraph(graph, index.forGraph(graph));
+        }
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    void testRemovedPath_RebuiltOnExecutor() {
+        List<Runnable> scheduled = new ArrayList<>();
+        ComponentIndex index = new ComponentIndex(scheduled::add);
+        RoutingGraph graph = RoutingGraph.empty().edit()
+                .putSalePoint(1L, "A").putSalePoint(2L, "B").putSalePoint(3L, "C")
+                .putPath(1L, 2L, 1.0).putPath(2L, 3L, 1.0)
+                .build();
+        index.onGraphChanged(graph);
+        scheduled.remove(0).run();
+        assertTrue(index.forGraph(graph).connected(graph.indexOf(1L), graph.indexOf(3L)));
+
+        RoutingGraph.Editor editor = graph.edit().removePath(2L, 3L);
+        RoutingGraph next = editor.build();
+        index.onGraphChanged(next, editor.getChanges());
+        assertNull(index.forGraph(next));
+        assertFalse(index.get(next).connected(next.indexOf(1L), next.indexOf(3L)));
+
+        scheduled.remove(0).run();
+        ConnectedComponents components = index.forGraph(next);
+        assertFalse(components.connected(next.indexOf(1L), next.indexOf(3L)));
+        assertEquals(2, components.componentSize(next.indexOf(2L)));
+        assertEquals(3L, components.componentId(next.indexOf(3L)));
+    }
+
+    /**
+     * Compares every component against a breadth-first search from one of its
+     * sale points.
+     */
+    private static void assertMatchesGraph(RoutingGraph graph, ConnectedComponents components) {
+        assertEquals(graph.getVersion(), components.getVersion());
+        boolean[] seen = new boolean[graph.capacity()];
+        for (int start = 0; start < graph.capacity(); start++) {
+            if (!graph.contains(start) || seen[start])
+                continue;
+            List<Integer> members = new ArrayList<>();
+            ArrayDeque<Integer> queue = new ArrayDeque<>(List.of(start));
+            seen[start] = true;
+            long lowestId = Long.MAX_VALUE;
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                members.add(node);
+                lowestId = Math.min(lowestId, graph.idAt(node));
+                for (int next : graph.neighbors(node)) {
+                    if (!seen[next]) {
+                        seen[next] = true;
+                        queue.add(next);
+                    }
+                }
+            }
+            for (int member : members) {
+                assertTrue(components.connected(start, member));
+                assertEquals(members.size(), components.componentSize(member));
+                assertEquals(lowestId, components.componentId(member));
+            }
+        }
+        for (int a = 0; a < graph.capacity(); a += 7) {
+            for (int b = 0; b < graph.capacity(); b += 11) {
+                if (graph.contains(a) && graph.contains(b) && components.connected(a, b))
+                    assertEquals(components.componentId(a), components.componentId(b));
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.sharks.sale_points_service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class ConstrainedSearchTest {
+
+    @Test
+    void testRoute_ExclusionsAndMaxHops_MatchEnumeration() {
+        Random random = new Random(29);
+        for (int round = 0; round < 60; round++) {
+            RoutingGraph graph = RoutingEngineTest.randomGraph(random, 6 + random.nextInt(6), 3);
+            int source = random.nextInt(graph.capacity());
+            int target = random.nextInt(graph.capacity());
+            BitSet excludedNodes = new BitSet();
+            int excluded = random.nextInt(graph.capacity());
+            if (excluded != source && excluded != target)
+                excludedNodes.set(excluded);
+            Set<Long> excludedPaths = new HashSet<>();
+            int[] neighbors = graph.neighbors(source);
+            if (neighbors.length > 0)
+                excludedPaths.add(RouteConstraints.pathKey(source, neighbors[random.nextInt(neighbors.length)]));
+            int maxHops = random.nextBoolean() ? 1 + random.nextInt(4) : Integer.MAX_VALUE;
+            RouteConstraints constraints = new RouteConstraints(excludedNodes, excludedPaths, maxHops, new int[0]);
+
+            double expected = cheapest(graph, source, target, constraints, new boolean[graph.capacity()], 0, 0.0);
+            Route route = ConstrainedSearch.route(graph, source, target, constraints);
+            if (expected == Double.POSITIVE_INFINITY) {
+                assertNull(route);
+                continue;
+            }
+            assertEquals(expected, route.totalCost(), 1e-9);
+            RoutingEngineTest.assertValidRoute(graph, route, source, target);
+            int[] nodes = route.nodes();
+            assertTrue(nodes.length - 1 <= maxHops);
+            for (int i = 0; i < nodes.length; i++) {
+                assertFalse(constraints.isExcluded(nodes[i]));
+                if (i > 0)
+                    assertFalse(constraints.isExcluded(nodes[i - 1], nodes[i]));
+            }
+        }
+    }
+
+    @Test
+    void testRoute_ViaPoints_VisitedInOrder() {
+        Random random = new Random(31);
+        for (int round = 0; round < 40; round++) {
+            RoutingGraph graph = RoutingEngineTest.randomGraph(random, 20 + random.nextInt(30), 3);
+            int source = random.nextInt(graph.capacity());
+            int target = random.nextInt(graph.capacity());
+            int[] via = { random.nextInt(graph.capacity()), random.nextInt(graph.capacity()) };
+            RouteConstraints constraints = new RouteConstraints(new BitSet(), Set.of(), Integer.MAX_VALUE, via);
+
+            double expected = RoutingEngineTest.referenceDistances(graph, source)[via[0]]
+                    + RoutingEngineTest.referenceDistances(graph, via[0])[via[1]]
+                    + RoutingEngineTest.referenceDistances(graph, via[1])[target];
+            Route route = ConstrainedSearch.route(graph, source, target, constraints);
+            if (expected == Double.POSITIVE_INFINITY) {
+                assertNull(route);
+                continue;
+            }
+            assertEquals(expected, route.totalCost(), 1e-9);
+            RoutingEngineTest.assertValidRoute(graph, route, source, target);
+            int stage = 0;
+            for (int node : route.nodes()) {
+                while (stage < via.length && node == via[stage])
+                    stage++;
+            }
+            assertEquals(via.length, stage);
+        }
+    }
+
+    @Test
+    void testRoute_MaxHopsTradesCostForFewerPaths() {
+        RoutingGraph graph = RoutingGraph.empty().edit()
+                .putSalePoint(1L, "SP1").putSalePoint(2L, "SP2").putSalePoint(3L, "SP3").putSalePoint(4L, "SP4")
+                .putPath(1L, 2L, 1).putPath(2L, 3L, 1).putPath(3L, 4L, 1).putPath(1L, 4L, 10)
+                .build();
+        int source = graph.indexOf(1L);
+        int target = graph.indexOf(4L);
+
+        assertEquals(3.0, ConstrainedSearch.route(graph, source, target, RouteConstraints.NONE).totalCost());
+        RouteConstraints twoHops = new RouteConstraints(new BitSet(), Set.of(), 2, new int[0]);
+        assertEquals(10.0, ConstrainedSearch.route(graph, source, target, twoHops).totalCost());
+        Set<Long> direct = Set.of(RouteConstraints.pathKey(source, target));
+        assertNull(ConstrainedSearch.route(graph, source, target, new RouteConstraints(new BitSet(), direct, 2,
+                new int[0])));
+    }
+
+    /**
+     * Cheapest loopless route meeting the constraints, by trying every one.
+     */
+    private static double cheapest(RoutingGraph graph, int node, int target, RouteConstraints constraints,
+            boolean[] visited, int hops, double cost) {
+        if (node == target)
+            return cost;
+        if (hops == constraints.maxHops())
+            return Double.POSITIVE_INFINITY;
+        visited[node] = true;
+        double best = Double.POSITIVE_INFINITY;
+        int[] neighbors = graph.neighbors(node);
+        double[] costs = graph.costs(node);
+        for (int i = 0; i < neighbors.length; i++) {
+            int next = neighbors[i];
+            if (!visited[next] && !constraints.isExcluded(next) && !constraints.isExcluded(node, next))
+                best = Math.min(best,
+                        cheapest(graph, next, target, constraints, visited, hops + 1, cost + costs[i]));
+        }
+        visited[node] = false;
+        return best;
+    }
+}
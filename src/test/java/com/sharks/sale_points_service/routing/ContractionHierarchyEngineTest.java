@@ -0,0 +1,68 @@
+package com.sharks.sale_points_service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ContractionHierarchyEngineTest {
+
+    @Test
+    void testRoute_StaleHierarchy_UsesFallback() {
+        ContractionHierarchyEngine engine = new ContractionHierarchyEngine(new DijkstraEngine(), Runnable::run);
+        RoutingGraph graph = RoutingEngineTest.grid(10);
+        engine.onGraphChanged(graph);
+        assertEquals(graph.getVersion(), engine.getHierarchy().getVersion());
+
+        RoutingGraph next = graph.edit().putPath(1L, 100L, 1.0).build();
+        Route route = engine.route(next, next.indexOf(1L), next.indexOf(100L));
+        assertEquals(1.0, route.totalCost());
+        assertEquals(graph.getVersion(), engine.getHierarchy().getVersion());
+
+        engine.onGraphChanged(next);
+        assertEquals(next.getVersion(), engine.getHierarchy().getVersion());
+        assertEquals(1.0, engine.route(next, next.indexOf(100L), next.indexOf(1L)).totalCost());
+    }
+
+    @Test
+    void testRoute_UnpacksShortcutsAndSettlesFewerNodes() {
+        ContractionHierarchyEngine engine = new ContractionHierarchyEngine(new DijkstraEngine(), Runnable::run);
+        DijkstraEngine dijkstra = new DijkstraEngine();
+        RoutingGraph graph = RoutingEngineTest.grid(30);
+        engine.rebuild(graph);
+        assertTrue(engine.getHierarchy().getShortcutCount() > 0);
+
+        Random random = new Random(5);
+        long contracted = 0;
+        long plain = 0;
+        for (int i = 0; i < 50; i++) {
+            int source = random.nextInt(graph.capacity());
+            int target = random.nextInt(graph.capacity());
+            Route route = engine.route(graph, source, target);
+            Route expected = dijkstra.route(graph, source, target);
+            assertEquals(expected.totalCost(), route.totalCost(), 1e-9);
+            RoutingEngineTest.assertValidRoute(graph, route, source, target);
+            contracted += route.settled();
+            plain += expected.settled();
+        }
+        assertTrue(contracted < plain);
+    }
+
+    @Test
+    void testRoute_SkipsRemovedSalePoints() {
+        ContractionHierarchyEngine engine = new ContractionHierarchyEngine(new DijkstraEngine(), Runnable::run);
+        RoutingGraph graph = RoutingEngineTest.grid(5).edit().removeSalePoint(7L).removeSalePoint(13L).build();
+        engine.rebuild(graph);
+
+        for (int source = 0; source < graph.capacity(); source++) {
+            if (!graph.contains(source))
+                continue;
+            double[] expected = RoutingEngineTest.referenceDistances(graph, source);
+            for (int target = 0; target < graph.capacity(); target++) {
+                if (graph.contains(target))
+                    assertEquals(expected[target], engine.route(graph, source, target).totalCost(), 1e-9);
+            }
+        }
+    }
+}
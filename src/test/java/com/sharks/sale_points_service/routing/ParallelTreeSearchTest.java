@@ -0,0 +1,35 @@
+package com.sharks.sale_points_service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ParallelTreeSearchTest {
+
+    @Test
+    void testGrowAll_MatchesSequentialTrees() {
+        RoutingGraph graph = RoutingEngineTest.randomGraph(new Random(23), 300, 3);
+        Random random = new Random(29);
+        int[] sources = new int[40];
+        BitSet[] targets = new BitSet[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = random.nextInt(graph.capacity());
+            targets[i] = new BitSet();
+            for (int j = 0; j < 5; j++)
+                targets[i].set(random.nextInt(graph.capacity()));
+        }
+
+        List<ShortestPathTree> trees = new ParallelTreeSearch(3).growAll(graph, sources, targets);
+        assertEquals(sources.length, trees.size());
+        for (int i = 0; i < sources.length; i++) {
+            double[] expected = RoutingEngineTest.referenceDistances(graph, sources[i]);
+            assertEquals(sources[i], trees.get(i).getSource());
+            for (int target = targets[i].nextSetBit(0); target >= 0; target = targets[i].nextSetBit(target + 1))
+                assertEquals(expected[target], trees.get(i).distance(target), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.sharks.sale_points_service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class RoutingEngineTest {
+
+    static Stream<RoutingEngine> engines() {
+        return Stream.of(new DijkstraEngine(), new BidirectionalDijkstraEngine(),
+                prepared(new AltEngine(4, LandmarkSelection.FARTHEST, Runnable::run, 1)),
+                prepared(new AltEngine(4, LandmarkSelection.AVOID, Runnable::run, 1)),
+                prepared(new ContractionHierarchyEngine(new DijkstraEngine(), Runnable::run)));
+    }
+
+    private static RoutingEngine prepared(AltEngine engine) {
+        return prepared(engine, engine::rebuild);
+    }
+
+    private static RoutingEngine prepared(ContractionHierarchyEngine engine) {
+        return prepared(engine, engine::rebuild);
+    }
+
+    /**
+     * Redoes preprocessing whenever a different graph is queried, as the
+     * service does on every graph change.
+     */
+    private static RoutingEngine prepared(RoutingEngine engine, Consumer<RoutingGraph> rebuild) {
+        RoutingGraph[] prepared = new RoutingGraph[1];
+        return (graph, source, target) -> {
+            if (prepared[0] != graph) {
+                rebuild.accept(graph);
+                prepared[0] = graph;
+            }
+            return engine.route(graph, source, target);
+        };
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void testRoute_SameSourceAndTarget(RoutingEngine engine) {
+        RoutingGraph graph = randomGraph(new Random(1), 5, 4);
+
+        Route route = engine.route(graph, 2, 2);
+        assertArrayEquals(new int[] { 2 }, route.nodes());
+        assertEquals(0.0, route.totalCost());
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void testRoute_Unreachable_ReturnsNull(RoutingEngine engine) {
+        RoutingGraph graph = RoutingGraph.empty().edit()
+                .putSalePoint(1L, "A").putSalePoint(2L, "B").putSalePoint(3L, "C")
+                .putPath(1L, 2L, 1.0)
+                .build();
+
+        assertNull(engine.route(graph, graph.indexOf(1L), graph.indexOf(3L)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void testRoute_MatchesReferenceOnRandomGraphs(RoutingEngine engine) {
+        Random random = new Random(42);
+        for (int round = 0; round < 30; round++) {
+            RoutingGraph graph = randomGraph(random, 40 + random.nextInt(60), 2 + random.nextInt(3));
+            for (int query = 0; query < 20; query++) {
+                int source = random.nextInt(graph.capacity());
+                int target = random.nextInt(graph.capacity());
+                double[] expected = referenceDistances(graph, source);
+
+                Route route = engine.route(graph, source, target);
+                if (expected[target] == Double.POSITIVE_INFINITY) {
+                    assertNull(route);
+                    continue;
+                }
+                assertEquals(expected[target], route.totalCost(), 1e-9);
+                assertValidRoute(graph, route, source, target);
+            }
+        }
+    }
+
+    static RoutingGraph randomGraph(Random random, int nodes, int averageDegree) {
+        RoutingGraph.Editor editor = RoutingGraph.empty().edit();
+        for (long id = 1; id <= nodes; id++)
+            editor.putSalePoint(id, "SP" + id);
+        for (int i = 0; i < nodes * averageDegree / 2; i++) {
+            long a = 1 + random.nextInt(nodes);
+            long b = 1 + random.nextInt(nodes);
+            if (a != b)
+                editor.putPath(a, b, random.nextInt(50));
+        }
+        return editor.build();
+    }
+
+    static RoutingGraph grid(int size) {
+        Random random = new Random(size);
+        RoutingGraph.Editor editor = RoutingGraph.empty().edit();
+        for (long id = 1; id <= size * size; id++)
+            editor.putSalePoint(id, "SP" + id);
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                long id = (long) row * size + column + 1;
+                if (column + 1 < size)
+                    editor.putPath(id, id + 1, 1 + random.nextInt(9));
+                if (row + 1 < size)
+                    editor.putPath(id, id + size, 1 + random.nextInt(9));
+            }
+        }
+        return editor.build();
+    }
+
+    static double[] referenceDistances(RoutingGraph graph, int source) {
+        double[] distances = new double[graph.capacity()];
+        boolean[] done = new boolean[graph.capacity()];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[source] = 0.0;
+        while (true) {
+            int best = -1;
+            for (int node = 0; node < distances.length; node++) {
+                if (!done[node] && distances[node] < Double.POSITIVE_INFINITY
+                        && (best < 0 || distances[node] < distances[best]))
+                    best = node;
+            }
+            if (best < 0)
+                return distances;
+            done[best] = true;
+            for (int i = 0; i < graph.degree(best); i++) {
+                int next = graph.neighbors(best)[i];
+                distances[next] = Math.min(distances[next], distances[best] + graph.costs(best)[i]);
+            }
+        }
+    }
+
+    static void assertValidRoute(RoutingGraph graph, Route route, int source, int target) {
+        int[] nodes = route.nodes();
+        double[] distances = route.distances();
+        assertEquals(source, nodes[0]);
+        assertEquals(target, nodes[nodes.length - 1]);
+        assertEquals(0.0, distances[0]);
+        for (int i = 1; i < nodes.length; i++)
+            assertEquals(graph.edgeCost(nodes[i - 1], nodes[i]), distances[i] - distances[i - 1], 1e-9);
+    }
+}
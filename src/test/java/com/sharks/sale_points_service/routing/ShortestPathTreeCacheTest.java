@@ -0,0 +1,77 @@
+package com.sharks.sale_points_service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+
+class ShortestPathTreeCacheTest {
+
+    @Test
+    void testFind_AnswersBothDirections() {
+        RoutingGraph graph = RoutingEngineTest.grid(10);
+        ShortestPathTreeCache cache = new ShortestPathTreeCache(1 << 20, 2);
+        assertNull(cache.find(graph, 0, 99));
+        assertFalse(cache.shouldGrow(graph, 0));
+        assertTrue(cache.shouldGrow(graph, 0));
+        cache.grow(graph, 0);
+
+        Route forward = cache.find(graph, 0, 99);
+        Route backward = cache.find(graph, 99, 0);
+        assertEquals(forward.totalCost(), backward.totalCost(), 1e-9);
+        RoutingEngineTest.assertValidRoute(graph, forward, 0, 99);
+        RoutingEngineTest.assertValidRoute(graph, backward, 99, 0);
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedOverBudget() {
+        RoutingGraph graph = RoutingEngineTest.grid(10);
+        long treeBytes = ShortestPathTree.grow(graph, 0, null).memoryBytes();
+        ShortestPathTreeCache cache = new ShortestPathTreeCache(treeBytes * 2, 1);
+        cache.grow(graph, 0);
+        cache.grow(graph, 1);
+        cache.find(graph, 0, 50);
+        cache.grow(graph, 2);
+
+        assertEquals(2, cache.getTreeCount());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(treeBytes * 2, cache.getMemoryBytes());
+        assertNotNull(cache.find(graph, 0, 50));
+        assertNull(cache.find(graph, 1, 50));
+    }
+
+    @Test
+    void testOnGraphChanged_RepairsCompleteTrees() {
+        RoutingGraph graph = RoutingEngineTest.grid(10);
+        ShortestPathTreeCache cache = new ShortestPathTreeCache(1 << 20, 1);
+        cache.onGraphChanged(graph);
+        cache.grow(graph, 0);
+        cache.put(ShortestPathTree.grow(graph, 5, new BitSet()));
+
+        RoutingGraph.Editor editor = graph.edit().putPath(1L, 100L, 1.0);
+        RoutingGraph next = editor.build();
+        cache.onGraphChanged(next, editor.getChanges());
+
+        assertEquals(1, cache.getTreeCount());
+        assertEquals(1, cache.getRepairs());
+        assertEquals(1.0, cache.find(next, 0, 99).totalCost());
+        assertEquals(1.0, cache.find(next, 99, 0).totalCost());
+        assertNull(cache.find(graph, 0, 99));
+    }
+
+    @Test
+    void testOnGraphChanged_ReloadDropsTrees() {
+        RoutingGraph graph = RoutingEngineTest.grid(10);
+        ShortestPathTreeCache cache = new ShortestPathTreeCache(1 << 20, 1);
+        cache.grow(graph, 0);
+
+        RoutingGraph next = graph.edit().putPath(1L, 100L, 1.0).build();
+        cache.onGraphChanged(next);
+        assertEquals(0, cache.getTreeCount());
+        assertNull(cache.find(graph, 0, 99));
+        assertNull(cache.find(next, 0, 99));
+    }
+}
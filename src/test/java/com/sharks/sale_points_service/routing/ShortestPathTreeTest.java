@@ -0,0 +1,128 @@
+package com.sharks.sale_points_service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ShortestPathTreeTest {
+
+    @Test
+    void testGrow_FullTree_MatchesReference() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            RoutingGraph graph = RoutingEngineTest.randomGraph(random, 30 + random.nextInt(50), 3);
+            int source = random.nextInt(graph.capacity());
+            double[] expected = RoutingEngineTest.referenceDistances(graph, source);
+
+            ShortestPathTree tree = ShortestPathTree.grow(graph, source, null);
+            for (int node = 0; node < graph.capacity(); node++) {
+                assertEquals(expected[node], tree.distance(node), 1e-9);
+                if (expected[node] == Double.POSITIVE_INFINITY)
+                    assertNull(tree.route(node));
+                else
+                    RoutingEngineTest.assertValidRoute(graph, tree.route(node), source, node);
+            }
+        }
+    }
+
+    @Test
+    void testGrow_StopsOnceTargetsSettled() {
+        RoutingGraph graph = RoutingEngineTest.grid(20);
+        BitSet targets = new BitSet();
+        targets.set(1);
+        targets.set(20);
+
+        ShortestPathTree tree = ShortestPathTree.grow(graph, 0, targets);
+        double[] expected = RoutingEngineTest.referenceDistances(graph, 0);
+        assertEquals(expected[1], tree.distance(1));
+        assertEquals(expected[20], tree.distance(20));
+        assertTrue(tree.getSettled() < graph.getNodeCount());
+        assertEquals(Double.POSITIVE_INFINITY, tree.distance(graph.capacity() - 1));
+    }
+
+    @Test
+    void testRepair_MatchesRecomputationAfterRandomEdits() {
+        Random random = new Random(17);
+        for (int round = 0; round < 40; round++) {
+            RoutingGraph graph = RoutingEngineTest.randomGraph(random, 20 + random.nextInt(60), 2 + random.nextInt(3));
+            int source = random.nextInt(graph.capacity());
+            ShortestPathTree tree = ShortestPathTree.grow(graph, source, null);
+            for (int step = 0; step < 15 && tree != null; step++) {
+                RoutingGraph.Editor editor = graph.edit();
+                int edits = 1 + random.nextInt(4);
+                for (int i = 0; i < edits; i++)
+                    randomEdit(random, graph, editor);
+                RoutingGraph next = editor.build();
+
+                ShortestPathTree repaired = tree.repair(next, editor.getChanges());
+                if (!next.contains(source)) {
+                    assertNull(repaired);
+                    break;
+                }
+                assertRepaired(next, repaired, source);
+                assertTrue(repaired.getSettled() <= next.getNodeCount());
+                graph = next;
+                tree = repaired;
+            }
+        }
+    }
+
+    @Test
+    void testRepair_PartialTree_ReturnsNull() {
+        RoutingGraph graph = RoutingEngineTest.grid(10);
+        BitSet targets = new BitSet();
+        targets.set(1);
+        ShortestPathTree tree = ShortestPathTree.grow(graph, 0, targets);
+        RoutingGraph.Editor editor = graph.edit().putPath(1L, 2L, 100.0);
+
+        assertFalse(tree.isComplete());
+        assertNull(tree.repair(editor.build(), editor.getChanges()));
+    }
+
+    @Test
+    void testRepair_SingleCostChange_SearchesOnlyAffectedNodes() {
+        RoutingGraph graph = RoutingEngineTest.grid(30);
+        ShortestPathTree tree = ShortestPathTree.grow(graph, 0, null);
+        int node = graph.capacity() - 1;
+        int parent = tree.route(node).nodes()[tree.route(node).nodes().length - 2];
+        RoutingGraph.Editor editor = graph.edit()
+                .putPath(graph.idAt(parent), graph.idAt(node), graph.edgeCost(parent, node) + 5.0);
+        RoutingGraph next = editor.build();
+
+        ShortestPathTree repaired = tree.repair(next, editor.getChanges());
+        assertRepaired(next, repaired, 0);
+        assertTrue(repaired.getSettled() < graph.getNodeCount() / 10);
+    }
+
+    private void assertRepaired(RoutingGraph graph, ShortestPathTree tree, int source) {
+        double[] expected = RoutingEngineTest.referenceDistances(graph, source);
+        for (int node = 0; node < graph.capacity(); node++) {
+            assertEquals(expected[node], tree.distance(node), 1e-9);
+            if (expected[node] < Double.POSITIVE_INFINITY)
+                RoutingEngineTest.assertValidRoute(graph, tree.route(node), source, node);
+            else
+                assertNull(tree.route(node));
+        }
+    }
+
+    private void randomEdit(Random random, RoutingGraph graph, RoutingGraph.Editor editor) {
+        long a = graph.idAt(random.nextInt(graph.capacity()));
+        long b = graph.idAt(random.nextInt(graph.capacity()));
+        int kind = random.nextInt(10);
+        try {
+            if (kind < 5)
+                editor.putPath(a, b, random.nextInt(50));
+            else if (kind < 8)
+                editor.removePath(a, b);
+            else if (kind < 9)
+                editor.removeSalePoint(a);
+            else
+                editor.putSalePoint(1000L + b, "New").putPath(a, 1000L + b, random.nextInt(50));
+        } catch (IllegalArgumentException e) {
+            // same or removed sale point picked, nothing to edit
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.sharks.sale_points_service.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TracedSearchTest {
+
+    @Test
+    void testRun_MatchesDijkstraAndRecordsEveryStep() {
+        Random random = new Random(23);
+        for (int round = 0; round < 20; round++) {
+            RoutingGraph graph = RoutingEngineTest.randomGraph(random, 20 + random.nextInt(40), 3);
+            int source = random.nextInt(graph.capacity());
+            int target = random.nextInt(graph.capacity());
+            Route expected = new DijkstraEngine().route(graph, source, target);
+
+            TracedSearch search = TracedSearch.run(graph, source, target, Integer.MAX_VALUE);
+            if (expected == null) {
+                assertNull(search.getRoute());
+                continue;
+            }
+            RoutingEngineTest.assertValidRoute(graph, search.getRoute(), source, target);
+            assertEquals(expected.totalCost(), search.getRoute().totalCost(), 1e-9);
+            assertEquals(expected.settled(), search.getSettled());
+            assertEquals(expected.relaxed() - 1, search.getRelaxed());
+            assertFalse(search.isTruncated());
+            assertEquals(source, search.settledNode(0));
+            assertEquals(target, search.settledNode(search.settledEvents() - 1));
+            for (int i = 1; i < search.settledEvents(); i++)
+                assertTrue(search.settledDistance(i - 1) <= search.settledDistance(i));
+        }
+    }
+
+    @Test
+    void testRun_KeepsOnlyFirstEvents() {
+        RoutingGraph graph = RoutingEngineTest.grid(20);
+
+        TracedSearch search = TracedSearch.run(graph, 0, graph.capacity() - 1, 10);
+
+        assertNotNull(search.getRoute());
+        assertTrue(search.isTruncated());
+        assertEquals(10, search.settledEvents());
+        assertEquals(10, search.relaxedEvents());
+        assertTrue(search.getSettled() > 10);
+        assertTrue(search.getRelaxed() > search.getSettled());
+        assertTrue(search.getPeakFrontier() > 1);
+    }
+}
@@ -0,0 +1,214 @@
+package com.sharks.sale_points_service.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sharks.sale_points_service.models.Path;
+import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.models.dtos.PathDTO;
+import com.sharks.sale_points_service.models.dtos.SalePointDTO;
+import com.sharks.sale_points_service.repositories.PathRepository;
+import com.sharks.sale_points_service.repositories.SalePointRepository;
+import com.sharks.sale_points_service.routing.GraphListener;
+import com.sharks.sale_points_service.routing.PathChange;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+import com.sharks.sale_points_service.services.impl.GraphServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+class GraphServiceTest {
+
+    @Mock
+    private SalePointRepository salePointRepository;
+
+    @Mock
+    private PathRepository pathRepository;
+
+    @Mock
+    private GraphListener listener;
+
+    @Spy
+    private List<GraphListener> listeners = new ArrayList<>();
+
+    @InjectMocks
+    private GraphServiceImpl graphService;
+
+    private SalePoint a;
+    private SalePoint b;
+    private SalePoint c;
+
+    @BeforeEach
+    void setUp() {
+        listeners.add(listener);
+        a = salePoint(1L, "A");
+        b = salePoint(2L, "B");
+        c = salePoint(3L, "C");
+    }
+
+    @Test
+    void testGetGraph_LoadsFromRepositoriesOnce() {
+        when(salePointRepository.findAll()).thenReturn(List.of(a, b, c));
+        when(pathRepository.findAllPathDTOs()).thenReturn(List.of(path(a, b, 2.0), path(b, c, 3.0)));
+
+        RoutingGraph graph = graphService.getGraph();
+        assertSame(graph, graphService.getGraph());
+        assertEquals(3, graph.getNodeCount());
+        assertEquals(2, graph.getEdgeCount());
+        assertEquals("B", graph.nameAt(graph.indexOf(2L)));
+        assertEquals(3.0, graph.edgeCost(graph.indexOf(3L), graph.indexOf(2L)));
+        verify(pathRepository, times(1)).findAllPathDTOs();
+    }
+
+    @Test
+    void testGetGraph_BothOrientationsStored_KeepsCheaper() {
+        when(salePointRepository.findAll()).thenReturn(List.of(a, b));
+        when(pathRepository.findAllPathDTOs()).thenReturn(List.of(path(a, b, 7.0), path(b, a, 4.0)));
+
+        RoutingGraph graph = graphService.getGraph();
+        assertEquals(1, graph.getEdgeCount());
+        assertEquals(4.0, graph.edgeCost(graph.indexOf(1L), graph.indexOf(2L)));
+    }
+
+    @Test
+    void testPutAndRemovePath_UpdatesGraph() {
+        when(salePointRepository.findAll()).thenReturn(List.of(a, b));
+        when(pathRepository.findAllPathDTOs()).thenReturn(List.of());
+
+        graphService.putPath(1L, 2L, 5.0);
+        RoutingGraph graph = graphService.getGraph();
+        assertEquals(5.0, graph.edgeCost(graph.indexOf(2L), graph.indexOf(1L)));
+
+        graphService.putPath(2L, 1L, 8.0);
+        graph = graphService.getGraph();
+        assertEquals(1, graph.getEdgeCount());
+        assertEquals(8.0, graph.edgeCost(graph.indexOf(1L), graph.indexOf(2L)));
+
+        graphService.removePath(1L, 2L);
+        assertEquals(0, graphService.getGraph().getEdgeCount());
+        verify(listener, times(1)).onGraphChanged(any(RoutingGraph.class));
+        verify(listener, times(3)).onGraphChanged(any(RoutingGraph.class), anyList());
+        int nodeA = graph.indexOf(1L);
+        int nodeB = graph.indexOf(2L);
+        verify(listener).onGraphChanged(graphService.getGraph(),
+                List.of(new PathChange(nodeA, nodeB, 8.0, Double.POSITIVE_INFINITY)));
+    }
+
+    @Test
+    void testUpdate_ReportsPathChanges() {
+        when(salePointRepository.findAll()).thenReturn(List.of(a, b, c));
+        when(pathRepository.findAllPathDTOs()).thenReturn(List.of(path(a, b, 2.0), path(b, c, 3.0)));
+        RoutingGraph graph = graphService.getGraph();
+        int nodeA = graph.indexOf(1L);
+        int nodeB = graph.indexOf(2L);
+        int nodeC = graph.indexOf(3L);
+
+        graphService.update(editor -> editor.putPath(1L, 3L, 4.0).putPath(2L, 1L, 1.0).putPath(1L, 2L, 1.0));
+        verify(listener).onGraphChanged(graphService.getGraph(),
+                List.of(new PathChange(nodeA, nodeC, Double.POSITIVE_INFINITY, 4.0),
+                        new PathChange(nodeB, nodeA, 2.0, 1.0)));
+
+        graphService.removeSalePoint(3L);
+        verify(listener).onGraphChanged(eq(graphService.getGraph()), argThat(changes -> changes.size() == 2
+                && changes.stream().allMatch(PathChange::isRemoval)));
+    }
+
+    @Test
+    void testRemoveSalePoint_DropsConnectedPaths() {
+        when(salePointRepository.findAll()).thenReturn(List.of(a, b, c));
+        when(pathRepository.findAllPathDTOs()).thenReturn(List.of(path(a, b, 2.0), path(b, c, 3.0)));
+
+        RoutingGraph before = graphService.getGraph();
+        graphService.removeSalePoint(2L);
+        RoutingGraph after = graphService.getGraph();
+
+        assertEquals(-1, after.indexOf(2L));
+        assertEquals(2, after.getNodeCount());
+        assertEquals(0, after.getEdgeCount());
+        assertEquals(0, after.degree(after.indexOf(1L)));
+        assertEquals(2, before.getEdgeCount());
+        assertTrue(after.getVersion() > before.getVersion());
+    }
+
+    @Test
+    void testPutSalePoint_AddsAndRenames() {
+        when(salePointRepository.findAll()).thenReturn(List.of(a));
+        when(pathRepository.findAllPathDTOs()).thenReturn(List.of());
+
+        graphService.putSalePoint(4L, "D");
+        graphService.putSalePoint(1L, "A2");
+
+        RoutingGraph graph = graphService.getGraph();
+        assertEquals(2, graph.getNodeCount());
+        assertEquals("D", graph.nameAt(graph.indexOf(4L)));
+        assertEquals("A2", graph.nameAt(graph.indexOf(1L)));
+    }
+
+    @Test
+    void testSyncPath_AppliesStoredStateWhateverOrderWritesArrive() {
+        when(salePointRepository.findAll()).thenReturn(List.of(a, b));
+        when(pathRepository.findAllPathDTOs()).thenReturn(List.of(path(a, b, 2.0)));
+        when(pathRepository.findPathDTOByKey(1L, 2L)).thenReturn(Optional.of(path(a, b, 7.0)));
+
+        graphService.syncPath(2L, 1L);
+        graphService.syncPath(1L, 2L);
+        RoutingGraph graph = graphService.getGraph();
+        assertEquals(7.0, graph.edgeCost(graph.indexOf(1L), graph.indexOf(2L)));
+
+        when(pathRepository.findPathDTOByKey(1L, 2L)).thenReturn(Optional.empty());
+        graphService.syncPath(1L, 2L);
+        assertEquals(0, graphService.getGraph().getEdgeCount());
+    }
+
+    @Test
+    void testSyncPath_SalePointNotInGraphYet_AddsIt() {
+        when(salePointRepository.findAll()).thenReturn(List.of(a));
+        when(pathRepository.findAllPathDTOs()).thenReturn(List.of());
+        when(pathRepository.findPathDTOByKey(1L, 2L)).thenReturn(Optional.of(path(a, b, 3.0)));
+
+        assertDoesNotThrow(() -> graphService.syncPath(1L, 2L));
+        RoutingGraph graph = graphService.getGraph();
+        assertEquals("B", graph.nameAt(graph.indexOf(2L)));
+        assertEquals(3.0, graph.edgeCost(graph.indexOf(1L), graph.indexOf(2L)));
+    }
+
+    @Test
+    void testSyncSalePoint_PutsOrRemovesAsStored() {
+        when(salePointRepository.findAll()).thenReturn(List.of(a, b));
+        when(pathRepository.findAllPathDTOs()).thenReturn(List.of(path(a, b, 2.0)));
+        when(salePointRepository.findSalePointDTOById(1L)).thenReturn(Optional.of(new SalePointDTO(1L, "A2")));
+        when(salePointRepository.findSalePointDTOById(2L)).thenReturn(Optional.empty());
+
+        graphService.syncSalePoint(1L);
+        graphService.syncSalePoint(2L);
+        RoutingGraph graph = graphService.getGraph();
+        assertEquals("A2", graph.nameAt(graph.indexOf(1L)));
+        assertEquals(-1, graph.indexOf(2L));
+        assertEquals(0, graph.getEdgeCount());
+    }
+
+    private PathDTO path(SalePoint salePointA, SalePoint salePointB, double cost) {
+        return new PathDTO(new Path(salePointA, salePointB, cost));
+    }
+
+    private SalePoint salePoint(Long id, String name) {
+        SalePoint salePoint = new SalePoint(name);
+        ReflectionTestUtils.setField(salePoint, "id", id);
+        return salePoint;
+    }
+}
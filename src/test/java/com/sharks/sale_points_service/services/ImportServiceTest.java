@@ -0,0 +1,234 @@
+package com.sharks.sale_points_service.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharks.sale_points_service.models.ImportFormat;
+import com.sharks.sale_points_service.models.ImportResult;
+import com.sharks.sale_points_service.models.Path;
+import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.models.dtos.PathDTO;
+import com.sharks.sale_points_service.repositories.PathRepository;
+import com.sharks.sale_points_service.repositories.SalePointRepository;
+import com.sharks.sale_points_service.routing.GraphListener;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+import com.sharks.sale_points_service.services.impl.GraphServiceImpl;
+import com.sharks.sale_points_service.services.impl.ImportServiceImpl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServiceTest {
+
+    @Mock
+    private SalePointRepository salePointRepository;
+
+    @Mock
+    private PathRepository pathRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private GraphListener listener;
+
+    private final Map<String, SalePoint> stored = new HashMap<>();
+    private final List<Object> persisted = new ArrayList<>();
+    private ConcurrentMapCacheManager cacheManager;
+    private GraphService graphService;
+    private ImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        stored.put("A", salePoint(1L, "A"));
+        stored.put("B", salePoint(2L, "B"));
+        stored.put("C", salePoint(3L, "C"));
+        when(salePointRepository.findAll()).thenReturn(new ArrayList<>(stored.values()));
+        when(pathRepository.findAllPathDTOs())
+                .thenReturn(List.of(new PathDTO(new Path(stored.get("A"), stored.get("B"), 5.0))));
+        graphService = new GraphServiceImpl(salePointRepository, pathRepository, List.of(listener));
+        graphService.getGraph();
+
+        cacheManager = new ConcurrentMapCacheManager();
+        importService = new ImportServiceImpl(salePointRepository, graphService, entityManager, transactionTemplate,
+                cacheManager, new ObjectMapper(), 2);
+    }
+
+    @Test
+    void testImportSalePoints_Csv_RejectsTakenNamesAndWritesPerChunk() {
+        stubTransactions();
+        stubSalePointStore();
+
+        ImportResult result = importService.importSalePoints(body("name\nD\nE\n\nD\nF\nA\n"), ImportFormat.CSV);
+
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(3, result.getChunks());
+        assertEquals(List.of("Line 5: Name is already in use", "Line 7: Name is already in use"),
+                result.getErrors());
+        verify(salePointRepository, times(3)).findByNameIn(any());
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(entityManager, times(2)).clear();
+        verify(listener, times(2)).onGraphChanged(any(RoutingGraph.class), anyList());
+
+        RoutingGraph graph = graphService.getGraph();
+        assertEquals(6, graph.getNodeCount());
+        for (String name : List.of("D", "E", "F"))
+            assertEquals(name, graph.nameAt(graph.indexOf(stored.get(name).getId())));
+    }
+
+    @Test
+    void testImportSalePoints_ConstraintViolation_RejectsChunkAndContinues() {
+        stubTransactions();
+        stubSalePointStore();
+        doThrow(new PersistenceException("duplicate key value violates unique constraint"))
+                .doNothing()
+                .when(entityManager).flush();
+
+        ImportResult result = importService.importSalePoints(body("D\nE\nF\n"), ImportFormat.CSV);
+
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(2, result.getChunks());
+        assertEquals(List.of("Line 1: Conflicts with a concurrent change, retry the row",
+                "Line 2: Conflicts with a concurrent change, retry the row"), result.getErrors());
+        verify(listener, times(1)).onGraphChanged(any(RoutingGraph.class), anyList());
+
+        RoutingGraph graph = graphService.getGraph();
+        assertEquals(4, graph.getNodeCount());
+        assertEquals("F", graph.nameAt(graph.indexOf(stored.get("F").getId())));
+    }
+
+    @Test
+    void testImportSalePoints_Ndjson_RejectsDuplicatesWithinChunkAndMalformedRows() {
+        stubTransactions();
+        stubSalePointStore();
+        importService = new ImportServiceImpl(salePointRepository, graphService, entityManager, transactionTemplate,
+                cacheManager, new ObjectMapper(), 10);
+
+        ImportResult result = importService.importSalePoints(
+                body("{\"name\":\"X\"}\n{\"name\":\"X\"}\nnot json\n{\"name\":\"\"}\n{\"name\":\"Y\"}\n"),
+                ImportFormat.NDJSON);
+
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals(1, result.getChunks());
+        assertTrue(result.getErrors().get(0).startsWith("Line 2:"));
+        assertTrue(result.getErrors().get(1).startsWith("Line 3: Malformed JSON"));
+        assertEquals("Line 4: Name is required", result.getErrors().get(2));
+        assertEquals(2, persisted.size());
+        verify(listener, times(1)).onGraphChanged(any(RoutingGraph.class), anyList());
+    }
+
+    @Test
+    void testImportPaths_Csv_ValidatesAgainstGraphAndChunk() {
+        stubTransactions();
+        when(entityManager.getReference(eq(SalePoint.class), anyLong()))
+                .thenAnswer(invocation -> salePoint(invocation.getArgument(1), "ref"));
+        Cache paths = cacheManager.getCache("paths");
+        paths.put(1L, List.of());
+        paths.put(2L, List.of());
+        paths.put(3L, List.of());
+        importService = new ImportServiceImpl(salePointRepository, graphService, entityManager, transactionTemplate,
+                cacheManager, new ObjectMapper(), 10);
+
+        ImportResult result = importService.importPaths(
+                body("idA,idB,cost\n1,3,4\n2,1,7\n3,3,1\n1,9,2\n3,1,6\n2,3,-1\nx,y,z\n"), ImportFormat.CSV);
+
+        assertEquals(1, result.getImported());
+        assertEquals(6, result.getRejected());
+        assertEquals(List.of(
+                "Line 3: Path already exists for sale points with ids 2 and 1",
+                "Line 4: Sale point with id 3 cannot be the same as the other sale point",
+                "Line 5: Sale point not found with id: 9",
+                "Line 6: Path already exists for sale points with ids 3 and 1",
+                "Line 7: Cost must be a non-negative number",
+                "Line 8: Malformed number in x,y,z"), result.getErrors());
+        assertEquals(1, persisted.size());
+        Path path = (Path) persisted.get(0);
+        assertEquals(1L, path.getSalePointA().getId());
+        assertEquals(3L, path.getSalePointB().getId());
+
+        RoutingGraph graph = graphService.getGraph();
+        assertEquals(4.0, graph.edgeCost(graph.indexOf(1L), graph.indexOf(3L)));
+        assertNull(paths.get(1L));
+        assertNotNull(paths.get(2L));
+        assertNull(paths.get(3L));
+    }
+
+    @Test
+    void testImportPaths_Ndjson_NothingValidWritesNothing() {
+        ImportResult result = importService.importPaths(body("{\"idA\":1,\"idB\":2,\"cost\":3}\n{\"idA\":1}\n"),
+                ImportFormat.NDJSON);
+
+        assertEquals(0, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals("Line 2: idA, idB and cost are required", result.getErrors().get(1));
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+        verify(listener, never()).onGraphChanged(any(RoutingGraph.class), anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubTransactions() {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        doAnswer(invocation -> {
+            Object entity = invocation.getArgument(0);
+            if (entity instanceof SalePoint salePoint) {
+                ReflectionTestUtils.setField(salePoint, "id", 100L + persisted.size());
+                stored.put(salePoint.getName(), salePoint);
+            }
+            persisted.add(entity);
+            return null;
+        }).when(entityManager).persist(any());
+    }
+
+    private void stubSalePointStore() {
+        when(salePointRepository.findByNameIn(any())).thenAnswer(invocation -> {
+            Collection<String> names = invocation.getArgument(0);
+            return names.stream().filter(stored::containsKey).map(stored::get).toList();
+        });
+    }
+
+    private static SalePoint salePoint(Long id, String name) {
+        SalePoint salePoint = new SalePoint(name);
+        ReflectionTestUtils.setField(salePoint, "id", id);
+        return salePoint;
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,33 +1,65 @@
 package com.sharks.sale_points_service.services;
 
+import com.sharks.sale_points_service.cache.PathCostCache;
+import com.sharks.sale_points_service.cache.SingleFlight;
+import com.sharks.sale_points_service.exceptions.EngineNotEnabledException;
+import com.sharks.sale_points_service.exceptions.InvalidConstraintsException;
+import com.sharks.sale_points_service.exceptions.InvalidCursorException;
 import com.sharks.sale_points_service.exceptions.PathAlreadyExistsException;
 import com.sharks.sale_points_service.exceptions.PathNotFoundException;
 import com.sharks.sale_points_service.exceptions.SalePointNotFoundException;
 import com.sharks.sale_points_service.exceptions.SameSalePointException;
+import com.sharks.sale_points_service.metrics.PathSearchMetrics;
+import com.sharks.sale_points_service.models.CostMatrix;
+import com.sharks.sale_points_service.models.KeysetPage;
 import com.sharks.sale_points_service.models.Path;
 import com.sharks.sale_points_service.models.PathCost;
+import com.sharks.sale_points_service.models.PathCostResult;
+import com.sharks.sale_points_service.models.PathPK;
 import com.sharks.sale_points_service.models.SalePoint;
 import com.sharks.sale_points_service.models.SalePointCost;
+import com.sharks.sale_points_service.models.SearchTrace;
+import com.sharks.sale_points_service.models.dtos.CostMatrixQuery;
 import com.sharks.sale_points_service.models.dtos.NewPath;
 import com.sharks.sale_points_service.models.dtos.NewPathWithoutIds;
+import com.sharks.sale_points_service.models.dtos.PathConstraints;
+import com.sharks.sale_points_service.models.dtos.PathCostBatchQuery;
+import com.sharks.sale_points_service.models.dtos.PathPair;
 import com.sharks.sale_points_service.models.dtos.PathDTO;
 import com.sharks.sale_points_service.repositories.PathRepository;
+import com.sharks.sale_points_service.routing.ComponentIndex;
+import com.sharks.sale_points_service.routing.DijkstraEngine;
+import com.sharks.sale_points_service.routing.ParallelTreeSearch;
+import com.sharks.sale_points_service.routing.PathChange;
+import com.sharks.sale_points_service.routing.RoutingEngine;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+import com.sharks.sale_points_service.routing.ShortestPathTreeCache;
 import com.sharks.sale_points_service.services.impl.PathServiceImpl;
 import com.sharks.sale_points_service.services.impl.SalePointServiceImpl;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +71,32 @@ class PathServiceTest {
     @Mock
     private SalePointServiceImpl salePointService;
 
+    @Mock
+    private GraphService graphService;
+
+    @Spy
+    private RoutingEngine routingEngine = new DijkstraEngine();
+
+    @Spy
+    private ShortestPathTreeCache treeCache = new ShortestPathTreeCache(1 << 20, 2);
+
+    @Spy
+    private PathCostCache pathCostCache = new PathCostCache(new ConcurrentMapCacheManager());
+
+    @Spy
+    private ParallelTreeSearch parallelTreeSearch = new ParallelTreeSearch(2);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PathSearchMetrics searchMetrics = new PathSearchMetrics(meterRegistry);
+
+    @Spy
+    private SingleFlight<String, PathCost> pathCostSearches = new SingleFlight<>(Duration.ofSeconds(1));
+
+    @Spy
+    private ComponentIndex componentIndex = new ComponentIndex(Runnable::run);
+
     @InjectMocks
     private PathServiceImpl pathService;
 
@@ -57,26 +115,54 @@ class PathServiceTest {
 
     @Test
     void testGetAllPathDTOs_ReturnsList() {
-        when(pathRepository.findAll()).thenReturn(List.of(path));
+        when(pathRepository.findAllPathDTOs()).thenReturn(List.of(new PathDTO(1L, "A", 2L, "B", 10.0)));
 
         List<PathDTO> result = pathService.getAllPathDTOs();
         assertEquals(1, result.size());
         assertEquals(1L, result.get(0).getSalePointA().getId());
         assertEquals(2L, result.get(0).getSalePointB().getId());
+        verify(pathRepository, never()).findAll();
     }
 
     @Test
     void testGetAllPathDTOs_ReturnsEmptyList() {
-        when(pathRepository.findAll()).thenReturn(Collections.emptyList());
+        when(pathRepository.findAllPathDTOs()).thenReturn(Collections.emptyList());
 
         List<PathDTO> result = pathService.getAllPathDTOs();
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void testGetPathDTOPage_FetchesOneMoreToFindNextCursor() {
+        when(pathRepository.findPathDTOsAfter(Long.MIN_VALUE, Long.MIN_VALUE, Limit.of(3))).thenReturn(List.of(
+                new PathDTO(1L, "A", 2L, "B", 1.0), new PathDTO(1L, "A", 3L, "C", 2.0),
+                new PathDTO(2L, "B", 3L, "C", 3.0)));
+
+        KeysetPage<PathDTO> page = pathService.getPathDTOPage(null, 2);
+        assertEquals(2, page.getItems().size());
+        assertEquals("1-3", page.getNext());
+    }
+
+    @Test
+    void testGetPathDTOPage_ResumesAfterCursor() {
+        when(pathRepository.findPathDTOsAfter(1L, 3L, Limit.of(3)))
+                .thenReturn(List.of(new PathDTO(2L, "B", 3L, "C", 3.0)));
+
+        KeysetPage<PathDTO> page = pathService.getPathDTOPage("1-3", 2);
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void testGetPathDTOPage_InvalidCursor_ThrowsException() {
+        assertThrows(InvalidCursorException.class, () -> pathService.getPathDTOPage("1-x", 2));
+        assertThrows(InvalidCursorException.class, () -> pathService.getPathDTOPage("12", 2));
+    }
+
     @Test
     void testGetPathByIds_Found() {
-        when(pathRepository.findBySalePointA_IdAndSalePointB_Id(1L, 2L)).thenReturn(Optional.of(path));
+        when(pathRepository.findById(new PathPK(1L, 2L))).thenReturn(Optional.of(path));
 
         Path result = pathService.getPathByIds(1L, 2L);
         assertNotNull(result);
@@ -86,41 +172,50 @@ class PathServiceTest {
 
     @Test
     void testGetPathByIds_FoundAnyDirection() {
-        Path reversePath = new Path(b, a, 10.0);
-
-        when(pathRepository.findBySalePointA_IdAndSalePointB_Id(1L, 2L)).thenReturn(Optional.empty());
-        when(pathRepository.findBySalePointA_IdAndSalePointB_Id(2L, 1L)).thenReturn(Optional.of(reversePath));
+        when(pathRepository.findById(new PathPK(1L, 2L))).thenReturn(Optional.of(path));
 
-        Path result = pathService.getPathByIds(1L, 2L);
+        Path result = pathService.getPathByIds(2L, 1L);
         assertNotNull(result);
-        assertEquals(2L, result.getSalePointA().getId());
-        assertEquals(1L, result.getSalePointB().getId());
+        assertEquals(1L, result.getSalePointA().getId());
+        assertEquals(2L, result.getSalePointB().getId());
+        verify(pathRepository, times(1)).findById(any());
     }
 
     @Test
     void testGetPathByIds_NotFound_ThrowsException() {
-        when(pathRepository.findBySalePointA_IdAndSalePointB_Id(1L, 2L)).thenReturn(Optional.empty());
-        when(pathRepository.findBySalePointA_IdAndSalePointB_Id(2L, 1L)).thenReturn(Optional.empty());
+        when(pathRepository.findById(new PathPK(1L, 2L))).thenReturn(Optional.empty());
 
         assertThrows(PathNotFoundException.class, () -> pathService.getPathByIds(1L, 2L));
     }
 
     @Test
     void testGetPathsById_ReturnsBothDirectionsList() {
+        SalePoint z = new SalePoint("Z");
+        ReflectionTestUtils.setField(z, "id", 0L);
         Path ab = new Path(a, b, 10.0);
-        Path ba = new Path(b, a, 15.0);
+        Path az = new Path(a, z, 15.0);
 
-        when(pathRepository.findBySalePointA_Id(1L)).thenReturn(List.of(ab));
-        when(pathRepository.findBySalePointB_Id(1L)).thenReturn(List.of(ba));
+        when(pathRepository.findBySalePointA_IdOrSalePointB_Id(1L, 1L)).thenReturn(List.of(ab, az));
 
         List<Path> result = pathService.getPathsById(1L);
         assertEquals(2, result.size());
+        assertEquals(0L, az.getSalePointA().getId());
+        assertEquals(1L, az.getSalePointB().getId());
+    }
+
+    @Test
+    void testGetPathDTOsById_UsesProjection() {
+        when(pathRepository.findPathDTOsBySalePointId(1L)).thenReturn(List.of(new PathDTO(1L, "A", 2L, "B", 10.0)));
+
+        List<PathDTO> result = pathService.getPathDTOsById(1L);
+        assertEquals(1, result.size());
+        assertEquals("B", result.get(0).getSalePointB().getName());
+        verify(pathRepository, never()).findBySalePointA_IdOrSalePointB_Id(any(), any());
     }
 
     @Test
     void testGetPathsById_ReturnsEmptyList() {
-        when(pathRepository.findBySalePointA_Id(1L)).thenReturn(Collections.emptyList());
-        when(pathRepository.findBySalePointB_Id(1L)).thenReturn(Collections.emptyList());
+        when(pathRepository.findBySalePointA_IdOrSalePointB_Id(1L, 1L)).thenReturn(Collections.emptyList());
 
         List<Path> result = pathService.getPathsById(1L);
         assertEquals(0, result.size());
@@ -130,8 +225,7 @@ class PathServiceTest {
     void testCreatePath_Success() {
         NewPath newPath = new NewPath(1L, 2L, 10.0);
 
-        when(pathRepository.existsBySalePointA_IdAndSalePointB_Id(1L, 2L)).thenReturn(false);
-        when(pathRepository.existsBySalePointA_IdAndSalePointB_Id(2L, 1L)).thenReturn(false);
+        when(pathRepository.existsById(new PathPK(1L, 2L))).thenReturn(false);
         when(salePointService.getSalePointById(1L)).thenReturn(a);
         when(salePointService.getSalePointById(2L)).thenReturn(b);
         when(pathRepository.save(any(Path.class))).thenReturn(path);
@@ -142,6 +236,7 @@ class PathServiceTest {
         assertEquals(1L, result.getSalePointA().getId());
         assertEquals(2L, result.getSalePointB().getId());
         assertEquals(10.0, result.getCost());
+        verify(graphService).syncPath(1L, 2L);
     }
 
     @Test
@@ -153,45 +248,60 @@ class PathServiceTest {
     @Test
     void testCreatePath_PathAlreadyExists_ThrowsException() {
         NewPath newPath = new NewPath(1L, 2L, 10.0);
-        when(pathRepository.existsBySalePointA_IdAndSalePointB_Id(1L, 2L)).thenReturn(true);
+        when(pathRepository.existsById(new PathPK(1L, 2L))).thenReturn(true);
         assertThrows(PathAlreadyExistsException.class, () -> pathService.createPath(newPath));
     }
 
+    @Test
+    void testCreatePath_ReversedIds_StoredWithLowerIdFirst() {
+        NewPath newPath = new NewPath(2L, 1L, 10.0);
+
+        when(pathRepository.existsById(new PathPK(1L, 2L))).thenReturn(false);
+        when(salePointService.getSalePointById(1L)).thenReturn(a);
+        when(salePointService.getSalePointById(2L)).thenReturn(b);
+        when(pathRepository.save(any(Path.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PathDTO result = pathService.createPath(newPath);
+        assertEquals(1L, result.getSalePointA().getId());
+        assertEquals(2L, result.getSalePointB().getId());
+        verify(pathRepository).save(argThat((Path saved) -> saved.getSalePointA() == a && saved.getSalePointB() == b));
+    }
+
     @Test
     void testUpdatePath_Success() {
         NewPathWithoutIds newPath = new NewPathWithoutIds(20.0);
 
-        when(pathRepository.findBySalePointA_IdAndSalePointB_Id(1L, 2L)).thenReturn(Optional.of(path));
+        when(pathRepository.findById(new PathPK(1L, 2L))).thenReturn(Optional.of(path));
         when(pathRepository.save(any(Path.class))).thenReturn(new Path(a, b, 20.0));
 
         PathDTO result = pathService.updatePath(1L, 2L, newPath);
         assertEquals(PathDTO.class, result.getClass());
         assertEquals(20.0, result.getCost());
+        verify(graphService).syncPath(1L, 2L);
     }
 
     @Test
     void testUpdatePath_NotFound_ThrowsException() {
         NewPathWithoutIds newPath = new NewPathWithoutIds(20.0);
 
-        when(pathRepository.findBySalePointA_IdAndSalePointB_Id(1L, 2L)).thenReturn(Optional.empty());
-        when(pathRepository.findBySalePointA_IdAndSalePointB_Id(2L, 1L)).thenReturn(Optional.empty());
+        when(pathRepository.findById(new PathPK(1L, 2L))).thenReturn(Optional.empty());
 
         assertThrows(PathNotFoundException.class, () -> pathService.updatePath(1L, 2L, newPath));
     }
 
     @Test
     void testDeletePath_Success() {
-        when(pathRepository.findBySalePointA_IdAndSalePointB_Id(1L, 2L)).thenReturn(Optional.of(path));
+        when(pathRepository.findById(new PathPK(1L, 2L))).thenReturn(Optional.of(path));
         doNothing().when(pathRepository).delete(path);
 
         assertDoesNotThrow(() -> pathService.deletePath(1L, 2L));
         verify(pathRepository, times(1)).delete(path);
+        verify(graphService).syncPath(1L, 2L);
     }
 
     @Test
     void testDeletePath_NotFound_ThrowsException() {
-        when(pathRepository.findBySalePointA_IdAndSalePointB_Id(1L, 2L)).thenReturn(Optional.empty());
-        when(pathRepository.findBySalePointA_IdAndSalePointB_Id(2L, 1L)).thenReturn(Optional.empty());
+        when(pathRepository.findById(new PathPK(1L, 2L))).thenReturn(Optional.empty());
 
         assertThrows(PathNotFoundException.class, () -> pathService.deletePath(1L, 2L));
     }
@@ -200,16 +310,14 @@ class PathServiceTest {
     void testFindCheapestPath_SinglePath() {
         Path testPath = new Path(a, b, 5.0);
 
-        when(salePointService.getSalePointById(1L)).thenReturn(a);
-        when(salePointService.getSalePointById(2L)).thenReturn(b);
-        when(pathRepository.findBySalePointA_Id(1L)).thenReturn(List.of(testPath));
-        when(pathRepository.findBySalePointB_Id(1L)).thenReturn(Collections.emptyList());
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a, b), List.of(testPath)));
 
         PathCost result = pathService.findCheapestPath(1L, 2L);
         assertEquals(5.0, result.getTotalCost());
         assertEquals(2, result.getPath().size());
         assertEquals(1L, result.getPath().get(0).getId());
         assertEquals(2L, result.getPath().get(1).getId());
+        verifyNoInteractions(pathRepository, salePointService);
     }
 
     @Test
@@ -220,34 +328,275 @@ class PathServiceTest {
         Path bc = new Path(b, c, 2.0);
         Path ac = new Path(a, c, 10.0);
 
-        when(salePointService.getSalePointById(1L)).thenReturn(a);
-        when(salePointService.getSalePointById(3L)).thenReturn(c);
-        when(pathRepository.findBySalePointA_Id(1L)).thenReturn(List.of(ab, ac));
-        when(pathRepository.findBySalePointB_Id(1L)).thenReturn(Collections.emptyList());
-        when(pathRepository.findBySalePointA_Id(2L)).thenReturn(List.of(bc));
-        when(pathRepository.findBySalePointB_Id(2L)).thenReturn(List.of(ab));
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a, b, c), List.of(ab, bc, ac)));
 
         PathCost result = pathService.findCheapestPath(1L, 3L);
         assertEquals(4.0, result.getTotalCost());
         List<Long> ids = result.getPath().stream().map(SalePointCost::getId).toList();
         assertEquals(List.of(1L, 2L, 3L), ids);
+        assertEquals("B", result.getPath().get(1).getName());
+        assertEquals(2.0, result.getPath().get(2).getCost());
+    }
+
+    @Test
+    void testFindCheapestPath_CachedUntilPathChanges() {
+        RoutingGraph graph = graphOf(List.of(a, b), List.of(path));
+        when(graphService.getGraph()).thenReturn(graph);
+
+        PathCost first = pathService.findCheapestPath(1L, 2L);
+        assertSame(first, pathService.findCheapestPath(1L, 2L));
+        verify(graphService, times(1)).getGraph();
+
+        RoutingGraph cheaper = graph.edit().putPath(1L, 2L, 3.0).build();
+        pathCostCache.onGraphChanged(cheaper, List.of());
+        assertSame(first, pathService.findCheapestPath(1L, 2L));
+        pathCostCache.onGraphChanged(cheaper,
+                List.of(new PathChange(cheaper.indexOf(1L), cheaper.indexOf(2L), 10.0, 3.0)));
+        when(graphService.getGraph()).thenReturn(cheaper);
+        assertEquals(3.0, pathService.findCheapestPath(1L, 2L).getTotalCost());
+    }
+
+    @Test
+    void testFindCheapestPath_ReversedQuery_ServedFromCache() {
+        SalePoint c = new SalePoint("C");
+        ReflectionTestUtils.setField(c, "id", 3L);
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a, b, c),
+                List.of(new Path(a, b, 2.0), new Path(b, c, 3.0), new Path(a, c, 10.0))));
+
+        PathCost forward = pathService.findCheapestPath(3L, 1L);
+        PathCost backward = pathService.findCheapestPath(1L, 3L);
+
+        assertEquals(List.of(3L, 2L, 1L), forward.getPath().stream().map(SalePointCost::getId).toList());
+        assertEquals(List.of(0.0, 3.0, 2.0), forward.getPath().stream().map(SalePointCost::getCost).toList());
+        assertEquals(List.of(1L, 2L, 3L), backward.getPath().stream().map(SalePointCost::getId).toList());
+        assertEquals(List.of(0.0, 2.0, 3.0), backward.getPath().stream().map(SalePointCost::getCost).toList());
+        assertEquals("C", backward.getPath().get(2).getName());
+        assertEquals(5.0, backward.getTotalCost());
+        assertSame(backward, pathCostCache.get(1L, 3L));
+        verify(graphService, times(1)).getGraph();
     }
 
     @Test
     void testFindCheapestPath_SalePointNotFound_ThrowsException() {
-        when(salePointService.getSalePointById(1L)).thenReturn(a);
-        when(salePointService.getSalePointById(2L)).thenThrow(SalePointNotFoundException.class);
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a), Collections.emptyList()));
 
         assertThrows(SalePointNotFoundException.class, () -> pathService.findCheapestPath(1L, 2L));
     }
 
     @Test
     void testFindCheapestPath_PathNotFound_ThrowsException() {
-        when(salePointService.getSalePointById(1L)).thenReturn(a);
-        when(salePointService.getSalePointById(2L)).thenReturn(b);
-        when(pathRepository.findBySalePointA_Id(1L)).thenReturn(Collections.emptyList());
-        when(pathRepository.findBySalePointB_Id(1L)).thenReturn(Collections.emptyList());
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a, b), Collections.emptyList()));
 
         assertThrows(PathNotFoundException.class, () -> pathService.findCheapestPath(1L, 2L));
     }
+
+    @Test
+    void testFindCheapestPath_OtherComponent_RejectedWithoutSearching() {
+        SalePoint c = new SalePoint("C");
+        ReflectionTestUtils.setField(c, "id", 3L);
+        RoutingGraph graph = graphOf(List.of(a, b, c), List.of(new Path(a, b, 2.0)));
+        when(graphService.getGraph()).thenReturn(graph);
+        componentIndex.onGraphChanged(graph);
+
+        assertThrows(PathNotFoundException.class, () -> pathService.findCheapestPath(1L, 3L));
+        assertEquals(2.0, pathService.findCheapestPath(2L, 1L).getTotalCost());
+        verify(routingEngine, times(1)).route(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testFindCheapestPath_RecordsOutcomesAndSearchWork() {
+        SalePoint c = new SalePoint("C");
+        ReflectionTestUtils.setField(c, "id", 3L);
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a, b, c), List.of(new Path(a, b, 2.0))));
+
+        pathService.findCheapestPath(1L, 2L);
+        pathService.findCheapestPath(1L, 2L);
+        assertThrows(PathNotFoundException.class, () -> pathService.findCheapestPath(1L, 3L));
+        assertThrows(SalePointNotFoundException.class, () -> pathService.findCheapestPath(1L, 9L));
+
+        assertEquals(1, meterRegistry.get(PathSearchMetrics.SEARCH).tag("outcome", "found").timer().count());
+        assertEquals(1, meterRegistry.get(PathSearchMetrics.SEARCH).tag("outcome", "cache_hit").timer().count());
+        assertEquals(2, meterRegistry.get(PathSearchMetrics.SEARCH).tag("outcome", "not_found").timer().count());
+        DistributionSummary settled = meterRegistry.get(PathSearchMetrics.SEARCH + ".settled").tag("search", "engine")
+                .summary();
+        assertEquals(1, settled.count());
+        assertEquals(2.0, settled.totalAmount());
+        assertEquals(1.0, meterRegistry.get(PathSearchMetrics.SEARCH + ".route.length").summary().totalAmount());
+    }
+
+    @Test
+    void testTraceCheapestPath_ReturnsTraceWithoutCaching() {
+        SalePoint c = new SalePoint("C");
+        ReflectionTestUtils.setField(c, "id", 3L);
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a, b, c),
+                List.of(new Path(a, b, 2.0), new Path(b, c, 2.0), new Path(a, c, 10.0))));
+
+        PathCost result = pathService.traceCheapestPath(1L, 3L);
+
+        assertEquals(4.0, result.getTotalCost());
+        SearchTrace trace = result.getTrace();
+        assertEquals(List.of(1L, 2L, 3L),
+                trace.getSettled().stream().map(SearchTrace.SettledSalePoint::getId).toList());
+        assertEquals(trace.getRelaxationCount(), trace.getRelaxations().size());
+        assertFalse(trace.isTruncated());
+        SearchTrace.Relaxation direct = trace.getRelaxations().stream()
+                .filter(relaxation -> relaxation.getToId().equals(3L) && relaxation.getFromId().equals(1L))
+                .findFirst().orElseThrow();
+        assertEquals(10.0, direct.getCost());
+        assertTrue(direct.isImproved());
+        assertNull(pathCostCache.get(1L, 3L));
+        assertNull(pathService.findCheapestPath(1L, 3L).getTrace());
+        verify(routingEngine, times(1)).route(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testFindCheapestPath_RepeatedSource_ServedFromTree() {
+        SalePoint c = new SalePoint("C");
+        ReflectionTestUtils.setField(c, "id", 3L);
+        Path ab = new Path(a, b, 2.0);
+        Path bc = new Path(b, c, 2.0);
+        Path ac = new Path(a, c, 10.0);
+
+        RoutingGraph graph = graphOf(List.of(a, b, c), List.of(ab, bc, ac));
+        when(graphService.getGraph()).thenReturn(graph);
+
+        assertEquals(2.0, pathService.findCheapestPath(1L, 2L).getTotalCost());
+        assertEquals(4.0, pathService.findCheapestPath(1L, 3L).getTotalCost());
+        assertEquals(1, treeCache.getTreeCount());
+
+        // Drop the cached costs so only the tree can answer
+        pathCostCache.onGraphChanged(graph);
+        PathCost reversed = pathService.findCheapestPath(3L, 1L);
+        assertEquals(4.0, reversed.getTotalCost());
+        assertEquals(List.of(3L, 2L, 1L), reversed.getPath().stream().map(SalePointCost::getId).toList());
+        assertEquals(List.of(0.0, 2.0, 2.0), reversed.getPath().stream().map(SalePointCost::getCost).toList());
+        verify(routingEngine, times(1)).route(any(), anyInt(), anyInt());
+        assertEquals(1, treeCache.getHits());
+    }
+
+    @Test
+    void testFindCheapestPath_Constrained_CachedSeparately() {
+        SalePoint c = new SalePoint("C");
+        ReflectionTestUtils.setField(c, "id", 3L);
+        Path ab = new Path(a, b, 2.0);
+        Path bc = new Path(b, c, 2.0);
+        Path ac = new Path(a, c, 10.0);
+
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a, b, c), List.of(ab, bc, ac)));
+        PathConstraints avoidB = new PathConstraints(List.of(2L), null, null, null);
+
+        assertEquals(10.0, pathService.findCheapestPath(1L, 3L, avoidB).getTotalCost());
+        assertEquals(10.0, pathService.findCheapestPath(3L, 1L, avoidB).getTotalCost());
+        assertEquals(4.0, pathService.findCheapestPath(1L, 3L).getTotalCost());
+        assertEquals(10.0, pathService.findCheapestPath(1L, 3L, new PathConstraints(null, null, 1, null))
+                .getTotalCost());
+        assertEquals(1, meterRegistry.get(PathSearchMetrics.SEARCH).tag("outcome", "cache_hit").timer().count());
+        assertThrows(InvalidConstraintsException.class,
+                () -> pathService.findCheapestPath(1L, 3L, new PathConstraints(List.of(1L), null, null, null)));
+        assertEquals(1, meterRegistry.get(PathSearchMetrics.SEARCH).tag("outcome", "error").timer().count());
+        assertThrows(PathNotFoundException.class, () -> pathService.findCheapestPath(1L, 3L,
+                new PathConstraints(List.of(2L), List.of(new PathPair(1L, 3L)), null, null)));
+    }
+
+    @Test
+    void testFindAlternativePaths_CheapestFirstAndReusingTree() {
+        SalePoint c = new SalePoint("C");
+        ReflectionTestUtils.setField(c, "id", 3L);
+        SalePoint d = new SalePoint("D");
+        ReflectionTestUtils.setField(d, "id", 4L);
+        Path ab = new Path(a, b, 2.0);
+        Path bc = new Path(b, c, 2.0);
+        Path ac = new Path(a, c, 10.0);
+
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a, b, c, d), List.of(ab, bc, ac)));
+
+        List<PathCost> routes = pathService.findAlternativePaths(1L, 3L, 3);
+        assertEquals(List.of(4.0, 10.0), routes.stream().map(PathCost::getTotalCost).toList());
+        assertEquals(List.of(1L, 3L), routes.get(1).getPath().stream().map(SalePointCost::getId).toList());
+
+        List<PathCost> reversed = pathService.findAlternativePaths(3L, 1L, 1);
+        assertEquals(1, reversed.size());
+        assertEquals(List.of(3L, 2L, 1L), reversed.get(0).getPath().stream().map(SalePointCost::getId).toList());
+        assertEquals(1, treeCache.getTreeCount());
+        assertThrows(PathNotFoundException.class, () -> pathService.findAlternativePaths(1L, 4L, 3));
+    }
+
+    @Test
+    void testFindCheapestPaths_GroupsBySourceAndReportsErrors() {
+        SalePoint c = new SalePoint("C");
+        ReflectionTestUtils.setField(c, "id", 3L);
+        SalePoint d = new SalePoint("D");
+        ReflectionTestUtils.setField(d, "id", 4L);
+        Path ab = new Path(a, b, 2.0);
+        Path bc = new Path(b, c, 2.0);
+
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a, b, c, d), List.of(ab, bc)));
+
+        List<PathCostResult> results = pathService.findCheapestPaths(new PathCostBatchQuery(List.of(
+                new PathPair(3L, 1L), new PathPair(1L, 3L), new PathPair(1L, 2L), new PathPair(1L, 9L),
+                new PathPair(1L, 4L))));
+        assertEquals(5, results.size());
+        assertEquals(List.of(3L, 2L, 1L), results.get(0).getPathCost().getPath().stream()
+                .map(SalePointCost::getId).toList());
+        assertEquals(4.0, results.get(1).getPathCost().getTotalCost());
+        assertEquals(List.of(1L, 2L, 3L), results.get(1).getPathCost().getPath().stream()
+                .map(SalePointCost::getId).toList());
+        assertEquals(2.0, results.get(2).getPathCost().getTotalCost());
+        assertNull(results.get(3).getPathCost());
+        assertEquals(new SalePointNotFoundException(9L).getMessage(), results.get(3).getError());
+        assertEquals(new PathNotFoundException(1L, 4L).getMessage(), results.get(4).getError());
+        verify(parallelTreeSearch).growAll(any(), argThat(sources -> sources.length == 1), any(), any());
+        verifyNoInteractions(routingEngine);
+    }
+
+    @Test
+    void testGetCostMatrix_ComputesEveryPair() {
+        SalePoint c = new SalePoint("C");
+        ReflectionTestUtils.setField(c, "id", 3L);
+        SalePoint d = new SalePoint("D");
+        ReflectionTestUtils.setField(d, "id", 4L);
+        Path ab = new Path(a, b, 2.0);
+        Path bc = new Path(b, c, 2.0);
+        Path ac = new Path(a, c, 10.0);
+
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a, b, c, d), List.of(ab, bc, ac)));
+
+        CostMatrix result = pathService
+                .getCostMatrix(new CostMatrixQuery(List.of(1L, 3L), List.of(3L, 1L, 4L), true));
+        assertEquals(Arrays.asList(4.0, 0.0, null), result.getCosts().get(0));
+        assertEquals(Arrays.asList(0.0, 4.0, null), result.getCosts().get(1));
+        List<Long> ids = result.getPaths().get(0).get(0).getPath().stream().map(SalePointCost::getId).toList();
+        assertEquals(List.of(1L, 2L, 3L), ids);
+        assertNull(result.getPaths().get(1).get(2));
+        verifyNoInteractions(pathRepository, salePointService, routingEngine);
+    }
+
+    @Test
+    void testGetCostMatrix_WithoutPaths() {
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a, b), List.of(path)));
+
+        CostMatrix result = pathService.getCostMatrix(new CostMatrixQuery(List.of(2L), List.of(1L), false));
+        assertEquals(List.of(List.of(10.0)), result.getCosts());
+        assertNull(result.getPaths());
+    }
+
+    @Test
+    void testGetCostMatrix_SalePointNotFound_ThrowsException() {
+        when(graphService.getGraph()).thenReturn(graphOf(List.of(a), Collections.emptyList()));
+
+        assertThrows(SalePointNotFoundException.class,
+                () -> pathService.getCostMatrix(new CostMatrixQuery(List.of(1L), List.of(2L), false)));
+    }
+
+    @Test
+    void testGetLandmarkStats_AltNotEnabled_ThrowsException() {
+        assertThrows(EngineNotEnabledException.class, () -> pathService.getLandmarkStats());
+    }
+
+    private RoutingGraph graphOf(List<SalePoint> salePoints, List<Path> paths) {
+        RoutingGraph.Editor editor = RoutingGraph.empty().edit();
+        salePoints.forEach(salePoint -> editor.putSalePoint(salePoint.getId(), salePoint.getName()));
+        paths.forEach(p -> editor.putPath(p.getSalePointA().getId(), p.getSalePointB().getId(), p.getCost()));
+        return editor.build();
+    }
 }
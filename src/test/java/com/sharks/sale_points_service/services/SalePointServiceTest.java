@@ -5,13 +5,17 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import com.sharks.sale_points_service.exceptions.NameAlreadyExistsException;
 import com.sharks.sale_points_service.exceptions.SalePointNotFoundException;
+import com.sharks.sale_points_service.models.KeysetPage;
+import com.sharks.sale_points_service.models.ReachableSalePoint;
 import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.models.SalePointComponent;
 import com.sharks.sale_points_service.models.dtos.NewSalePoint;
 import com.sharks.sale_points_service.models.dtos.SalePointDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -19,8 +23,11 @@ import java.util.Optional;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import com.sharks.sale_points_service.repositories.SalePointRepository;
+import com.sharks.sale_points_service.routing.ComponentIndex;
+import com.sharks.sale_points_service.routing.RoutingGraph;
 import com.sharks.sale_points_service.services.impl.SalePointServiceImpl;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +36,12 @@ class SalePointServiceTest {
     @Mock
     private SalePointRepository salePointRepository;
 
+    @Mock
+    private GraphService graphService;
+
+    @Spy
+    private ComponentIndex componentIndex = new ComponentIndex(Runnable::run);
+
     @InjectMocks
     private SalePointServiceImpl salePointService;
 
@@ -62,6 +75,26 @@ class SalePointServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void testGetSalePointDTOPage_FetchesOneMoreToFindNextCursor() {
+        when(salePointRepository.findSalePointDTOsAfter(Long.MIN_VALUE, Limit.of(3))).thenReturn(List.of(
+                new SalePointDTO(1L, "A"), new SalePointDTO(4L, "B"), new SalePointDTO(7L, "C")));
+
+        KeysetPage<SalePointDTO> page = salePointService.getSalePointDTOPage(null, 2);
+        assertEquals(2, page.getItems().size());
+        assertEquals("4", page.getNext());
+    }
+
+    @Test
+    void testGetSalePointDTOPage_LastPage() {
+        when(salePointRepository.findSalePointDTOsAfter(4L, Limit.of(3)))
+                .thenReturn(List.of(new SalePointDTO(7L, "C")));
+
+        KeysetPage<SalePointDTO> page = salePointService.getSalePointDTOPage(4L, 2);
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNext());
+    }
+
     @Test
     void testGetSalePointById_Found() {
         when(salePointRepository.findById(1L)).thenReturn(Optional.of(salePoint));
@@ -86,6 +119,7 @@ class SalePointServiceTest {
         assertNotNull(result);
         assertEquals(SalePointDTO.class, result.getClass());
         assertEquals("Test Point", result.getName());
+        verify(graphService).syncSalePoint(1L);
     }
 
     @Test
@@ -122,6 +156,7 @@ class SalePointServiceTest {
 
         assertDoesNotThrow(() -> salePointService.deleteSalePoint(1L));
         verify(salePointRepository, times(1)).delete(any(SalePoint.class));
+        verify(graphService).syncSalePoint(1L);
     }
 
     @Test
@@ -130,4 +165,38 @@ class SalePointServiceTest {
 
         assertThrows(SalePointNotFoundException.class, () -> salePointService.deleteSalePoint(2L));
     }
+
+    @Test
+    void testGetComponent_ReturnsLowestIdAndSize() {
+        RoutingGraph graph = RoutingGraph.empty().edit()
+                .putSalePoint(5L, "E").putSalePoint(3L, "C").putSalePoint(4L, "D").putSalePoint(9L, "I")
+                .putPath(5L, 3L, 1.0).putPath(3L, 4L, 1.0)
+                .build();
+        when(graphService.getGraph()).thenReturn(graph);
+
+        SalePointComponent component = salePointService.getComponent(5L);
+        assertEquals(5L, component.getSalePointId());
+        assertEquals(3L, component.getComponentId());
+        assertEquals(3, component.getSize());
+        assertEquals(1, salePointService.getComponent(9L).getSize());
+        assertThrows(SalePointNotFoundException.class, () -> salePointService.getComponent(2L));
+    }
+
+    @Test
+    void testGetReachableSalePoints_WithinBudgetByCost() {
+        RoutingGraph graph = RoutingGraph.empty().edit()
+                .putSalePoint(1L, "A").putSalePoint(2L, "B").putSalePoint(3L, "C").putSalePoint(4L, "D")
+                .putPath(1L, 2L, 4.0).putPath(1L, 3L, 1.0).putPath(3L, 2L, 1.0).putPath(2L, 4L, 5.0)
+                .build();
+        when(graphService.getGraph()).thenReturn(graph);
+
+        List<ReachableSalePoint> reachable = new ArrayList<>();
+        salePointService.getReachableSalePoints(1L, 6.0).accept(reachable::add);
+        assertEquals(List.of(1L, 3L, 2L), reachable.stream().map(ReachableSalePoint::getId).toList());
+        assertEquals(List.of(0.0, 1.0, 2.0), reachable.stream().map(ReachableSalePoint::getCost).toList());
+        assertNull(reachable.get(0).getParentId());
+        assertEquals(3L, reachable.get(2).getParentId());
+        assertEquals("B", reachable.get(2).getName());
+        assertThrows(SalePointNotFoundException.class, () -> salePointService.getReachableSalePoints(9L, 6.0));
+    }
 }
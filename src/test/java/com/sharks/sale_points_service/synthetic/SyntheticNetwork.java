@@ -0,0 +1,292 @@
+package com.sharks.sale_points_service.synthetic;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.sharks.sale_points_service.models.Path;
+import com.sharks.sale_points_service.models.SalePoint;
+import com.sharks.sale_points_service.routing.RoutingGraph;
+
+/**
+ * Randomly generated sale point network, held as flat edge arrays so that
+ * million-node networks stay cheap to build. Sale point ids are node index + 1.
+ * Used by the benchmarks and the load test seed.
+ */
+public final class SyntheticNetwork {
+
+    private final int nodes;
+    private final int[] from;
+    private final int[] to;
+    private final double[] costs;
+
+    private SyntheticNetwork(int nodes, int[] from, int[] to, double[] costs) {
+        this.nodes = nodes;
+        this.from = from;
+        this.to = to;
+        this.costs = costs;
+    }
+
+    /**
+     * @param shape grid | geometric | scale-free
+     */
+    public static SyntheticNetwork generate(String shape, int nodes, long seed) {
+        return switch (shape) {
+            case "grid" -> grid(nodes, seed);
+            case "geometric" -> randomGeometric(nodes, 6.0, seed);
+            case "scale-free" -> scaleFree(nodes, 3, seed);
+            default -> throw new IllegalArgumentException("Unknown network shape " + shape);
+        };
+    }
+
+    /**
+     * Square grid with as many nodes as fit in the requested count, and costs
+     * between 1 and 10.
+     */
+    public static SyntheticNetwork grid(int nodes, long seed) {
+        int side = (int) Math.sqrt(nodes);
+        SplittableRandom random = new SplittableRandom(seed);
+        Edges edges = new Edges(2 * side * side);
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                int node = row * side + column;
+                if (column + 1 < side)
+                    edges.add(node, node + 1, 1 + random.nextInt(10));
+                if (row + 1 < side)
+                    edges.add(node, node + side, 1 + random.nextInt(10));
+            }
+        }
+        return edges.toNetwork(side * side);
+    }
+
+    /**
+     * Points scattered over a unit square, connected to every point closer
+     * than the radius giving the requested average degree. Costs follow the
+     * distance, like road networks.
+     */
+    public static SyntheticNetwork randomGeometric(int nodes, double averageDegree, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] x = new double[nodes];
+        double[] y = new double[nodes];
+        for (int i = 0; i < nodes; i++) {
+            x[i] = random.nextDouble();
+            y[i] = random.nextDouble();
+        }
+        double radius = Math.sqrt(averageDegree / (Math.PI * nodes));
+        int cells = Math.max(1, (int) (1.0 / radius));
+        int[] cellStart = new int[cells * cells + 1];
+        int[] cellOf = new int[nodes];
+        for (int i = 0; i < nodes; i++) {
+            cellOf[i] = cell(x[i], cells) * cells + cell(y[i], cells);
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++)
+            cellStart[c + 1] += cellStart[c];
+        int[] byCell = new int[nodes];
+        int[] fill = Arrays.copyOf(cellStart, cells * cells);
+        for (int i = 0; i < nodes; i++)
+            byCell[fill[cellOf[i]]++] = i;
+
+        Edges edges = new Edges((int) (nodes * averageDegree / 2));
+        for (int i = 0; i < nodes; i++) {
+            int cx = cellOf[i] / cells;
+            int cy = cellOf[i] % cells;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int nx = cx + dx;
+                    int ny = cy + dy;
+                    if (nx < 0 || ny < 0 || nx >= cells || ny >= cells)
+                        continue;
+                    int c = nx * cells + ny;
+                    for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+                        int j = byCell[k];
+                        double distance = Math.hypot(x[i] - x[j], y[i] - y[j]);
+                        if (j > i && distance <= radius)
+                            edges.add(i, j, 1.0 + Math.round(distance / radius * 100));
+                    }
+                }
+            }
+        }
+        return edges.toNetwork(nodes);
+    }
+
+    /**
+     * Barabasi-Albert network: every new node links to {@code links} existing
+     * ones chosen with probability proportional to their degree, which yields
+     * a few hubs and many leaves.
+     */
+    public static SyntheticNetwork scaleFree(int nodes, int links, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Edges edges = new Edges(nodes * links);
+        int[] endpoints = new int[2 * nodes * links];
+        int endpointCount = 0;
+        for (int i = 1; i <= links && i < nodes; i++) {
+            edges.add(0, i, 1 + random.nextInt(10));
+            endpoints[endpointCount++] = 0;
+            endpoints[endpointCount++] = i;
+        }
+        int[] chosen = new int[links];
+        for (int node = links + 1; node < nodes; node++) {
+            int count = 0;
+            while (count < links) {
+                int target = endpoints[random.nextInt(endpointCount)];
+                boolean duplicate = false;
+                for (int k = 0; k < count; k++)
+                    duplicate |= chosen[k] == target;
+                if (!duplicate)
+                    chosen[count++] = target;
+            }
+            for (int k = 0; k < links; k++) {
+                edges.add(node, chosen[k], 1 + random.nextInt(10));
+                endpoints[endpointCount++] = node;
+                endpoints[endpointCount++] = chosen[k];
+            }
+        }
+        return edges.toNetwork(nodes);
+    }
+
+    private static int cell(double coordinate, int cells) {
+        return Math.min(cells - 1, (int) (coordinate * cells));
+    }
+
+    public int nodeCount() {
+        return nodes;
+    }
+
+    public int edgeCount() {
+        return from.length;
+    }
+
+    /**
+     * Id of the lower id sale point of the edge.
+     */
+    public long idA(int edge) {
+        return Math.min(from[edge], to[edge]) + 1L;
+    }
+
+    public long idB(int edge) {
+        return Math.max(from[edge], to[edge]) + 1L;
+    }
+
+    public double cost(int edge) {
+        return costs[edge];
+    }
+
+    public static String name(long id) {
+        return "Sale point " + id;
+    }
+
+    public RoutingGraph toGraph() {
+        RoutingGraph.Editor editor = RoutingGraph.empty().edit();
+        for (int node = 0; node < nodes; node++)
+            editor.putSalePoint(node + 1L, name(node + 1L));
+        for (int i = 0; i < from.length; i++)
+            editor.putPath(from[i] + 1L, to[i] + 1L, costs[i]);
+        return editor.build();
+    }
+
+    public List<SalePoint> salePoints() {
+        List<SalePoint> salePoints = new ArrayList<>(nodes);
+        for (int node = 0; node < nodes; node++)
+            salePoints.add(salePoint(node));
+        return salePoints;
+    }
+
+    public List<Path> paths(List<SalePoint> salePoints) {
+        List<Path> paths = new ArrayList<>(from.length);
+        for (int i = 0; i < from.length; i++)
+            paths.add(new Path(salePoints.get(from[i]), salePoints.get(to[i]), costs[i]));
+        return paths;
+    }
+
+    /**
+     * Random pairs of sale point ids, both taken from the largest connected
+     * component so every pair has a route.
+     */
+    public long[][] samplePairs(int count, long seed) {
+        int[] component = largestComponent();
+        SplittableRandom random = new SplittableRandom(seed);
+        long[][] pairs = new long[count][];
+        for (int i = 0; i < count; i++) {
+            int a = component[random.nextInt(component.length)];
+            int b = component[random.nextInt(component.length)];
+            pairs[i] = new long[] { a + 1L, b + 1L };
+        }
+        return pairs;
+    }
+
+    private int[] largestComponent() {
+        int[] parent = new int[nodes];
+        for (int i = 0; i < nodes; i++)
+            parent[i] = i;
+        for (int i = 0; i < from.length; i++)
+            parent[find(parent, from[i])] = find(parent, to[i]);
+        int[] sizes = new int[nodes];
+        int largest = 0;
+        for (int i = 0; i < nodes; i++) {
+            int root = find(parent, i);
+            if (++sizes[root] > sizes[largest])
+                largest = root;
+        }
+        int[] members = new int[sizes[largest]];
+        int count = 0;
+        for (int i = 0; i < nodes; i++) {
+            if (find(parent, i) == largest)
+                members[count++] = i;
+        }
+        return members;
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private static SalePoint salePoint(int node) {
+        SalePoint salePoint = new SalePoint(name(node + 1L));
+        try {
+            Field id = SalePoint.class.getDeclaredField("id");
+            id.setAccessible(true);
+            id.set(salePoint, node + 1L);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return salePoint;
+    }
+
+    private static final class Edges {
+
+        private int[] from;
+        private int[] to;
+        private double[] costs;
+        private int size;
+
+        private Edges(int capacity) {
+            from = new int[Math.max(16, capacity)];
+            to = new int[from.length];
+            costs = new double[from.length];
+        }
+
+        private void add(int a, int b, double cost) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                costs = Arrays.copyOf(costs, size * 2);
+            }
+            from[size] = a;
+            to[size] = b;
+            costs[size] = cost;
+            size++;
+        }
+
+        private SyntheticNetwork toNetwork(int nodes) {
+            return new SyntheticNetwork(nodes, Arrays.copyOf(from, size), Arrays.copyOf(to, size),
+                    Arrays.copyOf(costs, size));
+        }
+    }
+}